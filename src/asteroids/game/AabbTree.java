@@ -0,0 +1,535 @@
+package asteroids.game;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+/**
+ * A broad phase that keeps the participants in a balanced binary tree of bounding boxes. Each leaf holds one
+ * participant with a box that is a little larger than its bounds, so a participant that moves only slightly stays in
+ * the same leaf and the tree is left alone. Each inner node holds a box that contains both of its children. Finding
+ * the candidates for a participant walks down only the branches whose boxes touch its bounds, which stays cheap even
+ * when the participants are tightly clustered.
+ *
+ * Nodes are kept in parallel arrays and recycled through a free list, so a steady game allocates nothing.
+ */
+class AabbTree implements BroadPhase
+{
+    /** Amount by which the box of a leaf is enlarged on every side, in pixels */
+    private final static double MARGIN = 6;
+
+    /** Marks the absence of a node */
+    private final static int NONE = -1;
+
+    /** Boxes of the nodes */
+    private double[] nodeMinX, nodeMinY, nodeMaxX, nodeMaxY;
+
+    /** Links between the nodes. For a node on the free list, parent is the next free node. */
+    private int[] parent, left, right;
+
+    /** Height of each node, with leaves at height 0 */
+    private int[] height;
+
+    /** For a leaf, the index of its participant as of the last rebuild */
+    private int[] item;
+
+    /** For a leaf, the rebuild that last saw its participant */
+    private int[] seen;
+
+    /** For a leaf, its participant */
+    private Participant[] owner;
+
+    /** The root of the tree, or NONE if it is empty */
+    private int root;
+
+    /** The first node on the free list, or NONE */
+    private int free;
+
+    /** Number of nodes that have ever been allocated */
+    private int allocated;
+
+    /** The leaf of each participant in the tree */
+    private IdentityHashMap<Participant, Integer> leaves;
+
+    /** Number of the current rebuild */
+    private int generation;
+
+    /** The leaf of each participant by index, or NONE if it was not indexed by the last rebuild */
+    private int[] leafOf;
+
+    /** Number of participants seen by the last rebuild */
+    private int count;
+
+    /** Nodes waiting to be visited during a query */
+    private int[] stack;
+
+    /**
+     * Creates an empty tree.
+     */
+    AabbTree ()
+    {
+        grow(64);
+        root = NONE;
+        free = NONE;
+        allocated = 0;
+        leaves = new IdentityHashMap<Participant, Integer>();
+        generation = 0;
+        leafOf = new int[64];
+        stack = new int[64];
+    }
+
+    /**
+     * Brings the tree up to date with the participants. Newly indexed participants are inserted, participants that
+     * have moved out of their leaf boxes are reinserted, and participants that are no longer indexed are removed.
+     */
+    @Override
+    public void rebuild (Participant[] participants, int count, CollisionLayers layers)
+    {
+        this.count = count;
+        generation++;
+        if (leafOf.length < count)
+        {
+            leafOf = new int[count * 2];
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            Participant p = participants[i];
+            if (!BroadPhase.isIndexed(p, layers))
+            {
+                leafOf[i] = NONE;
+                continue;
+            }
+
+            Rectangle2D bounds = p.getBounds();
+            Integer existing = leaves.get(p);
+            int leaf;
+            if (existing == null)
+            {
+                leaf = allocate();
+                owner[leaf] = p;
+                setFatBox(leaf, bounds);
+                insertLeaf(leaf);
+                leaves.put(p, leaf);
+            }
+            else
+            {
+                leaf = existing;
+                if (!contains(leaf, bounds))
+                {
+                    removeLeaf(leaf);
+                    setFatBox(leaf, bounds);
+                    insertLeaf(leaf);
+                }
+            }
+            item[leaf] = i;
+            seen[leaf] = generation;
+            leafOf[i] = leaf;
+        }
+
+        // Remove the participants that are gone
+        Iterator<Integer> iter = leaves.values().iterator();
+        while (iter.hasNext())
+        {
+            int leaf = iter.next();
+            if (seen[leaf] != generation)
+            {
+                iter.remove();
+                removeLeaf(leaf);
+                release(leaf);
+            }
+        }
+    }
+
+    /**
+     * Reports the participants after index whose leaf boxes touch its bounds.
+     */
+    @Override
+    public int candidates (int index, int[] out)
+    {
+        if (index >= count || leafOf[index] == NONE || root == NONE)
+        {
+            return 0;
+        }
+
+        Rectangle2D bounds = owner[leafOf[index]].getBounds();
+        double minX = bounds.getMinX();
+        double minY = bounds.getMinY();
+        double maxX = bounds.getMaxX();
+        double maxY = bounds.getMaxY();
+
+        int found = 0;
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0)
+        {
+            int node = stack[--top];
+            if (nodeMaxX[node] < minX || maxX < nodeMinX[node] || nodeMaxY[node] < minY || maxY < nodeMinY[node])
+            {
+                continue;
+            }
+            if (left[node] == NONE)
+            {
+                if (item[node] > index && seen[node] == generation)
+                {
+                    out[found++] = item[node];
+                }
+            }
+            else
+            {
+                if (top + 2 > stack.length)
+                {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = left[node];
+                stack[top++] = right[node];
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Gives the leaf a box that is the bounds enlarged by the margin.
+     */
+    private void setFatBox (int leaf, Rectangle2D bounds)
+    {
+        nodeMinX[leaf] = bounds.getMinX() - MARGIN;
+        nodeMinY[leaf] = bounds.getMinY() - MARGIN;
+        nodeMaxX[leaf] = bounds.getMaxX() + MARGIN;
+        nodeMaxY[leaf] = bounds.getMaxY() + MARGIN;
+    }
+
+    /**
+     * Reports whether the box of the node contains the bounds.
+     */
+    private boolean contains (int node, Rectangle2D bounds)
+    {
+        return nodeMinX[node] <= bounds.getMinX() && nodeMinY[node] <= bounds.getMinY()
+                && bounds.getMaxX() <= nodeMaxX[node] && bounds.getMaxY() <= nodeMaxY[node];
+    }
+
+    /**
+     * Adds the leaf to the tree beside the node that makes the enclosing boxes grow the least, then rebalances the
+     * path back up to the root.
+     */
+    private void insertLeaf (int leaf)
+    {
+        if (root == NONE)
+        {
+            root = leaf;
+            parent[leaf] = NONE;
+            return;
+        }
+
+        // Walk down to the cheapest sibling, measuring cost by perimeter
+        int index = root;
+        while (left[index] != NONE)
+        {
+            double perimeter = perimeter(index);
+            double combined = unionPerimeter(index, leaf);
+            double cost = 2 * combined;
+            double inheritance = 2 * (combined - perimeter);
+            double costLeft = descendCost(left[index], leaf) + inheritance;
+            double costRight = descendCost(right[index], leaf) + inheritance;
+            if (cost < costLeft && cost < costRight)
+            {
+                break;
+            }
+            index = costLeft < costRight ? left[index] : right[index];
+        }
+
+        // Give the sibling and the leaf a new parent
+        int sibling = index;
+        int oldParent = parent[sibling];
+        int newParent = allocate();
+        parent[newParent] = oldParent;
+        owner[newParent] = null;
+        height[newParent] = height[sibling] + 1;
+        setUnion(newParent, sibling, leaf);
+        left[newParent] = sibling;
+        right[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+        if (oldParent == NONE)
+        {
+            root = newParent;
+        }
+        else
+        {
+            replaceChild(oldParent, sibling, newParent);
+        }
+
+        refit(parent[leaf]);
+    }
+
+    /**
+     * Takes the leaf out of the tree, moving its sibling up into its parent's place.
+     */
+    private void removeLeaf (int leaf)
+    {
+        if (leaf == root)
+        {
+            root = NONE;
+            return;
+        }
+
+        int oldParent = parent[leaf];
+        int grandParent = parent[oldParent];
+        int sibling = left[oldParent] == leaf ? right[oldParent] : left[oldParent];
+        if (grandParent == NONE)
+        {
+            root = sibling;
+            parent[sibling] = NONE;
+        }
+        else
+        {
+            replaceChild(grandParent, oldParent, sibling);
+            parent[sibling] = grandParent;
+        }
+        release(oldParent);
+        if (grandParent != NONE)
+        {
+            refit(grandParent);
+        }
+    }
+
+    /**
+     * Rebalances and recomputes the boxes and heights of every node from index up to the root.
+     */
+    private void refit (int index)
+    {
+        while (index != NONE)
+        {
+            index = balance(index);
+            int a = left[index];
+            int b = right[index];
+            height[index] = 1 + Math.max(height[a], height[b]);
+            setUnion(index, a, b);
+            index = parent[index];
+        }
+    }
+
+    /**
+     * If one child of node a is more than one level taller than the other, rotates the taller child up into a's place.
+     * Returns the node that is now in a's place.
+     */
+    private int balance (int a)
+    {
+        if (left[a] == NONE || height[a] < 2)
+        {
+            return a;
+        }
+
+        int b = left[a];
+        int c = right[a];
+        int difference = height[c] - height[b];
+
+        // Rotate c up
+        if (difference > 1)
+        {
+            int f = left[c];
+            int g = right[c];
+            left[c] = a;
+            parent[c] = parent[a];
+            parent[a] = c;
+            if (parent[c] == NONE)
+            {
+                root = c;
+            }
+            else
+            {
+                replaceChild(parent[c], a, c);
+            }
+
+            if (height[f] > height[g])
+            {
+                right[c] = f;
+                right[a] = g;
+                parent[g] = a;
+                setUnion(a, b, g);
+                setUnion(c, a, f);
+                height[a] = 1 + Math.max(height[b], height[g]);
+                height[c] = 1 + Math.max(height[a], height[f]);
+            }
+            else
+            {
+                right[c] = g;
+                right[a] = f;
+                parent[f] = a;
+                setUnion(a, b, f);
+                setUnion(c, a, g);
+                height[a] = 1 + Math.max(height[b], height[f]);
+                height[c] = 1 + Math.max(height[a], height[g]);
+            }
+            return c;
+        }
+
+        // Rotate b up
+        if (difference < -1)
+        {
+            int d = left[b];
+            int e = right[b];
+            left[b] = a;
+            parent[b] = parent[a];
+            parent[a] = b;
+            if (parent[b] == NONE)
+            {
+                root = b;
+            }
+            else
+            {
+                replaceChild(parent[b], a, b);
+            }
+
+            if (height[d] > height[e])
+            {
+                right[b] = d;
+                left[a] = e;
+                parent[e] = a;
+                setUnion(a, c, e);
+                setUnion(b, a, d);
+                height[a] = 1 + Math.max(height[c], height[e]);
+                height[b] = 1 + Math.max(height[a], height[d]);
+            }
+            else
+            {
+                right[b] = e;
+                left[a] = d;
+                parent[d] = a;
+                setUnion(a, c, d);
+                setUnion(b, a, e);
+                height[a] = 1 + Math.max(height[c], height[d]);
+                height[b] = 1 + Math.max(height[a], height[e]);
+            }
+            return b;
+        }
+
+        return a;
+    }
+
+    /**
+     * Makes newChild a child of parentNode in place of oldChild.
+     */
+    private void replaceChild (int parentNode, int oldChild, int newChild)
+    {
+        if (left[parentNode] == oldChild)
+        {
+            left[parentNode] = newChild;
+        }
+        else
+        {
+            right[parentNode] = newChild;
+        }
+    }
+
+    /**
+     * Returns the cost of placing the leaf somewhere below node, not counting the nodes above it.
+     */
+    private double descendCost (int node, int leaf)
+    {
+        double combined = unionPerimeter(node, leaf);
+        return left[node] == NONE ? combined : combined - perimeter(node);
+    }
+
+    /**
+     * Sets the box of node to the smallest box containing the boxes of a and b.
+     */
+    private void setUnion (int node, int a, int b)
+    {
+        nodeMinX[node] = Math.min(nodeMinX[a], nodeMinX[b]);
+        nodeMinY[node] = Math.min(nodeMinY[a], nodeMinY[b]);
+        nodeMaxX[node] = Math.max(nodeMaxX[a], nodeMaxX[b]);
+        nodeMaxY[node] = Math.max(nodeMaxY[a], nodeMaxY[b]);
+    }
+
+    /**
+     * Returns the perimeter of the box of the node.
+     */
+    private double perimeter (int node)
+    {
+        return 2 * (nodeMaxX[node] - nodeMinX[node] + nodeMaxY[node] - nodeMinY[node]);
+    }
+
+    /**
+     * Returns the perimeter of the smallest box containing the boxes of a and b.
+     */
+    private double unionPerimeter (int a, int b)
+    {
+        double width = Math.max(nodeMaxX[a], nodeMaxX[b]) - Math.min(nodeMinX[a], nodeMinX[b]);
+        double height = Math.max(nodeMaxY[a], nodeMaxY[b]) - Math.min(nodeMinY[a], nodeMinY[b]);
+        return 2 * (width + height);
+    }
+
+    /**
+     * Returns an unused node, taking it from the free list if possible.
+     */
+    private int allocate ()
+    {
+        int node;
+        if (free != NONE)
+        {
+            node = free;
+            free = parent[node];
+        }
+        else
+        {
+            if (allocated == parent.length)
+            {
+                grow(allocated * 2);
+            }
+            node = allocated++;
+        }
+        parent[node] = NONE;
+        left[node] = NONE;
+        right[node] = NONE;
+        height[node] = 0;
+        seen[node] = 0;
+        return node;
+    }
+
+    /**
+     * Puts the node on the free list.
+     */
+    private void release (int node)
+    {
+        owner[node] = null;
+        parent[node] = free;
+        free = node;
+    }
+
+    /**
+     * Enlarges the node arrays to hold capacity nodes.
+     */
+    private void grow (int capacity)
+    {
+        if (parent == null)
+        {
+            nodeMinX = new double[capacity];
+            nodeMinY = new double[capacity];
+            nodeMaxX = new double[capacity];
+            nodeMaxY = new double[capacity];
+            parent = new int[capacity];
+            left = new int[capacity];
+            right = new int[capacity];
+            height = new int[capacity];
+            item = new int[capacity];
+            seen = new int[capacity];
+            owner = new Participant[capacity];
+        }
+        else
+        {
+            nodeMinX = Arrays.copyOf(nodeMinX, capacity);
+            nodeMinY = Arrays.copyOf(nodeMinY, capacity);
+            nodeMaxX = Arrays.copyOf(nodeMaxX, capacity);
+            nodeMaxY = Arrays.copyOf(nodeMaxY, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            height = Arrays.copyOf(height, capacity);
+            item = Arrays.copyOf(item, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+            owner = Arrays.copyOf(owner, capacity);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package asteroids.game;
+
+import static asteroids.game.Constants.*;
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+
+/**
+ * Takes the place of the {@link asteroids.game.Screen} in the display when rendering actively. Rather than asking
+ * Swing to repaint and waiting for it to get around to it, the rendering thread draws each frame straight into the back
+ * buffer of a BufferStrategy and shows it at once. Page flipping, which waits for the display's vertical retrace where
+ * the platform supports it, is used if it is available, and otherwise the back buffer is copied to the screen.
+ *
+ * The screen still does the drawing, and still keeps the timings of the frames shown. Every frame is drawn in full,
+ * since a flipped buffer holds a frame from some time ago rather than the last one. Swing never paints the canvas.
+ */
+@SuppressWarnings("serial")
+class ActiveCanvas extends Canvas
+{
+    /** Number of buffers asked for when page flipping: one on the screen and two to draw into */
+    private final static int BUFFERS = 3;
+
+    /** The screen that draws each frame */
+    private final Screen screen;
+
+    /** The buffers drawn into, or null until the canvas is first shown */
+    private volatile BufferStrategy strategy;
+
+    /**
+     * Creates a canvas on which the screen's frames are shown
+     */
+    ActiveCanvas (Screen screen)
+    {
+        this.screen = screen;
+        setIgnoreRepaint(true);
+        setPreferredSize(new Dimension(SIZE, SIZE));
+        setMinimumSize(new Dimension(SIZE, SIZE));
+        setBackground(screen.getBackground());
+
+        // Leave the keyboard focus to the display, which listens for the keys
+        setFocusable(false);
+    }
+
+    /**
+     * Draws a frame and shows it, unless the canvas is not yet on the screen.
+     */
+    void render ()
+    {
+        if (strategy == null)
+        {
+            if (!isDisplayable())
+            {
+                return;
+            }
+            createStrategy();
+        }
+        screen.prepareFrame(getGraphicsConfiguration());
+
+        // Draw again if the buffer was lost while it was being drawn, or
+        // before it could be shown
+        do
+        {
+            do
+            {
+                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                try
+                {
+                    g.setColor(getBackground());
+                    g.fillRect(0, 0, getWidth(), getHeight());
+                    screen.drawFrame(g);
+                }
+                finally
+                {
+                    g.dispose();
+                }
+            }
+            while (strategy.contentsRestored());
+            strategy.show();
+        }
+        while (strategy.contentsLost());
+
+        // Push the frame out now rather than whenever the window system gets to it
+        Toolkit.getDefaultToolkit().sync();
+        screen.framePresented(System.nanoTime());
+    }
+
+    /**
+     * Reports whether frames are shown by page flipping rather than by copying
+     */
+    boolean isPageFlipping ()
+    {
+        return strategy != null && strategy.getCapabilities().isPageFlipping();
+    }
+
+    /**
+     * Creates the buffers, with page flipping if possible
+     */
+    private void createStrategy ()
+    {
+        try
+        {
+            BufferCapabilities flipping = new BufferCapabilities(new ImageCapabilities(true),
+                    new ImageCapabilities(true), BufferCapabilities.FlipContents.UNDEFINED);
+            createBufferStrategy(BUFFERS, flipping);
+        }
+        catch (AWTException e)
+        {
+            // Let AWT choose the best it can do, which at worst is copying
+            createBufferStrategy(2);
+        }
+        strategy = getBufferStrategy();
+    }
+}
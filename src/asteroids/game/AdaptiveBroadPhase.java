@@ -0,0 +1,116 @@
+package asteroids.game;
+
+import static asteroids.game.Constants.*;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * A broad phase that picks one of the others at every rebuild, based on the participants it is given:
+ * <ul>
+ * <li>With only a few participants, comparing every pair is cheapest.</li>
+ * <li>When the participants are large compared to the cells of the grid, as they are early in a level when most
+ * asteroids are large, sweep and prune is used.</li>
+ * <li>When the participants are bunched into a small part of the field, as they are after an explosion, the tree is
+ * used.</li>
+ * <li>Otherwise the grid is used.</li>
+ * </ul>
+ */
+class AdaptiveBroadPhase implements BroadPhase
+{
+    /** Largest number of participants for which every pair is compared */
+    private final static int BRUTE_FORCE_LIMIT = 12;
+
+    /** Fraction of the field below which the participants are considered bunched together */
+    private final static double CLUSTERED_FRACTION = 0.2;
+
+    /** The broad phases to choose from */
+    private BroadPhase bruteForce, spatialHash, sweepAndPrune, tree;
+
+    /** The broad phase chosen by the last rebuild */
+    private BroadPhase chosen;
+
+    /**
+     * Creates an adaptive broad phase.
+     */
+    AdaptiveBroadPhase ()
+    {
+        bruteForce = new BruteForceBroadPhase();
+        spatialHash = new SpatialHash(COLLISION_CELL_SIZE);
+        sweepAndPrune = new SweepAndPrune();
+        tree = new AabbTree();
+        chosen = bruteForce;
+    }
+
+    /**
+     * Chooses a broad phase from the sizes and spread of the participants and rebuilds it.
+     */
+    @Override
+    public void rebuild (Participant[] participants, int count, CollisionLayers layers)
+    {
+        // Gather the number of participants, their average size, and the box around their centers
+        int indexed = 0;
+        double extent = 0;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++)
+        {
+            Participant p = participants[i];
+            if (BroadPhase.isIndexed(p, layers))
+            {
+                Rectangle2D bounds = p.getBounds();
+                indexed++;
+                extent += Math.max(bounds.getWidth(), bounds.getHeight());
+                minX = Math.min(minX, bounds.getCenterX());
+                minY = Math.min(minY, bounds.getCenterY());
+                maxX = Math.max(maxX, bounds.getCenterX());
+                maxY = Math.max(maxY, bounds.getCenterY());
+            }
+        }
+
+        if (indexed <= BRUTE_FORCE_LIMIT)
+        {
+            chosen = bruteForce;
+        }
+        else if (extent / indexed > COLLISION_CELL_SIZE)
+        {
+            chosen = sweepAndPrune;
+        }
+        else if ((maxX - minX) * (maxY - minY) < CLUSTERED_FRACTION * SIZE * SIZE)
+        {
+            chosen = tree;
+        }
+        else
+        {
+            chosen = spatialHash;
+        }
+        chosen.rebuild(participants, count, layers);
+    }
+
+    /**
+     * Reports the candidates found by the broad phase chosen at the last rebuild.
+     */
+    @Override
+    public int candidates (int index, int[] out)
+    {
+        return chosen.candidates(index, out);
+    }
+
+    /**
+     * Returns the type of the broad phase chosen at the last rebuild.
+     */
+    BroadPhaseType getChosenType ()
+    {
+        if (chosen == spatialHash)
+        {
+            return BroadPhaseType.SPATIAL_HASH;
+        }
+        else if (chosen == sweepAndPrune)
+        {
+            return BroadPhaseType.SWEEP_AND_PRUNE;
+        }
+        else if (chosen == tree)
+        {
+            return BroadPhaseType.AABB_TREE;
+        }
+        return BroadPhaseType.BRUTE_FORCE;
+    }
+}
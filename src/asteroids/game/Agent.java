@@ -0,0 +1,15 @@
+package asteroids.game;
+
+/**
+ * A pilot that flies the ship in place of the keyboard, such as a scripted bot or a learned policy. Once per tick it is
+ * shown what it can see of the game and answers with the actions to hold during that tick. An agent is connected to a
+ * game through an {@link asteroids.game.AgentInput}.
+ */
+public interface Agent
+{
+    /**
+     * Returns the actions to hold during the next tick, as a bitmask of InputState.THRUST, TURN_RIGHT, TURN_LEFT, and
+     * FIRE. Any other bits are ignored. The observation is filled in again for every tick, so it should not be kept.
+     */
+    int act (Observation observation);
+}
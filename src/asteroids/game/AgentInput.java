@@ -0,0 +1,66 @@
+package asteroids.game;
+
+/**
+ * Supplies the input for each tick of a game from an {@link asteroids.game.Agent}. Before each tick the agent's
+ * observation is filled in from the game as the previous tick left it, and the actions the agent returns are applied
+ * just like the arrow keys and space bar. An action that is held from one tick to the next repeats as a held key does,
+ * so holding FIRE fires as often as the bullet limit allows.
+ *
+ * Apart from the input state handed to the game, nothing is allocated from one tick to the next.
+ */
+public class AgentInput implements InputSource
+{
+    /** The actions an agent may take */
+    private final static int KEYS = InputState.THRUST | InputState.TURN_RIGHT | InputState.TURN_LEFT | InputState.FIRE;
+
+    /** The game the agent plays */
+    private final Game game;
+
+    /** The agent */
+    private final Agent agent;
+
+    /** What the agent sees, filled in again before every tick */
+    private final Observation observation;
+
+    /** The actions the agent held during the last tick */
+    private int previous;
+
+    /**
+     * Creates an input source through which the agent plays the game, with an observation of the default size
+     */
+    public AgentInput (Game game, Agent agent)
+    {
+        this(game, agent, new Observation());
+    }
+
+    /**
+     * Creates an input source through which the agent plays the game, filling in the given observation
+     */
+    public AgentInput (Game game, Agent agent, Observation observation)
+    {
+        this.game = game;
+        this.agent = agent;
+        this.observation = observation;
+    }
+
+    /**
+     * Returns the observation that is shown to the agent
+     */
+    public Observation getObservation ()
+    {
+        return observation;
+    }
+
+    /**
+     * Shows the game to the agent and returns the actions it chooses as the input for the tick.
+     */
+    @Override
+    public InputState next (long tick)
+    {
+        observation.fill(game);
+        int held = agent.act(observation) & KEYS;
+        InputState state = new InputState(tick, previous, held, held, previous & ~held, 0);
+        previous = held;
+        return state;
+    }
+}
@@ -1,5 +1,7 @@
 package asteroids.game;
 
+import java.io.File;
+import java.io.IOException;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 
@@ -9,11 +11,28 @@ import javax.swing.SwingUtilities;
 public class Asteroids
 {
     /**
-     * Launches a dialog that lets the user choose between a classic and an enhanced game of Asteroids.
+     * Launches a dialog that lets the user choose between a classic and an enhanced game of Asteroids. Given
+     * "-record file", instead plays a classic game and records its input to the file. Given "-replay file [speed]",
+     * instead plays back a recording, optionally some number of times faster than real time.
      */
-    public static void main (String[] args)
+    public static void main (String[] args) throws IOException
     {
-        SwingUtilities.invokeLater( () -> chooseVersion());
+        if (args.length >= 2 && args[0].equals("-record"))
+        {
+            File file = new File(args[1]);
+            SwingUtilities.invokeLater( () -> new Controller(file));
+        }
+        else if (args.length >= 2 && args[0].equals("-replay"))
+        {
+            InputPlayer player = InputPlayer.load(new File(args[1]));
+            double speed = args.length >= 3 ? Double.parseDouble(args[2]) : 1;
+            double ticksPerSecond = speed * 1000.0 / Constants.FRAME_INTERVAL;
+            SwingUtilities.invokeLater( () -> new Controller(player).setTickRate(ticksPerSecond));
+        }
+        else
+        {
+            SwingUtilities.invokeLater( () -> chooseVersion());
+        }
     }
 
     /**
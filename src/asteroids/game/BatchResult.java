@@ -0,0 +1,231 @@
+package asteroids.game;
+
+/**
+ * The outcome of a batch of games run by a {@link asteroids.game.BatchRunner}: the seed, score, level reached, ticks,
+ * and running time of each game, and totals over the whole batch. Games are numbered from 0 in the order their seeds
+ * were drawn, whichever thread ran them.
+ */
+public class BatchResult
+{
+    /** The seed of each game */
+    private final long[] seeds;
+
+    /** The final score of each game */
+    private final int[] scores;
+
+    /** The level each game reached */
+    private final int[] levels;
+
+    /** The number of ticks each game ran */
+    private final long[] ticks;
+
+    /** The nanoseconds each game took to run */
+    private final long[] nanos;
+
+    /** Whether each game ended before running out of ticks */
+    private final boolean[] over;
+
+    /** Nanoseconds from the start of the batch until its last game finished */
+    private long elapsed;
+
+    /**
+     * Creates a result for the given number of games, to be filled in as they finish
+     */
+    BatchResult (int games)
+    {
+        seeds = new long[games];
+        scores = new int[games];
+        levels = new int[games];
+        ticks = new long[games];
+        nanos = new long[games];
+        over = new boolean[games];
+    }
+
+    /**
+     * Records the outcome of the game with the given number. Each game is recorded by one thread only.
+     */
+    void record (int game, long seed, Game finished, long nanos)
+    {
+        this.seeds[game] = seed;
+        this.scores[game] = finished.getScore();
+        this.levels[game] = finished.getLevel();
+        this.ticks[game] = finished.getTick();
+        this.nanos[game] = nanos;
+        this.over[game] = finished.isOver();
+    }
+
+    /**
+     * Records how long the whole batch took
+     */
+    void setElapsed (long elapsed)
+    {
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Returns the number of games in the batch
+     */
+    public int getGames ()
+    {
+        return seeds.length;
+    }
+
+    /**
+     * Returns the seed of the given game
+     */
+    public long getSeed (int game)
+    {
+        return seeds[game];
+    }
+
+    /**
+     * Returns the final score of the given game
+     */
+    public int getScore (int game)
+    {
+        return scores[game];
+    }
+
+    /**
+     * Returns the level the given game reached
+     */
+    public int getLevel (int game)
+    {
+        return levels[game];
+    }
+
+    /**
+     * Returns the number of ticks the given game ran
+     */
+    public long getTicks (int game)
+    {
+        return ticks[game];
+    }
+
+    /**
+     * Returns the nanoseconds the given game took to run
+     */
+    public long getNanos (int game)
+    {
+        return nanos[game];
+    }
+
+    /**
+     * Reports whether the given game ended, rather than being stopped when it ran out of ticks
+     */
+    public boolean isOver (int game)
+    {
+        return over[game];
+    }
+
+    /**
+     * Returns the number of games that ended
+     */
+    public int getGamesOver ()
+    {
+        int count = 0;
+        for (boolean b : over)
+        {
+            if (b)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the mean final score
+     */
+    public double getMeanScore ()
+    {
+        long total = 0;
+        for (int s : scores)
+        {
+            total += s;
+        }
+        return seeds.length == 0 ? 0 : (double) total / seeds.length;
+    }
+
+    /**
+     * Returns the highest final score
+     */
+    public int getBestScore ()
+    {
+        int best = 0;
+        for (int s : scores)
+        {
+            best = Math.max(best, s);
+        }
+        return best;
+    }
+
+    /**
+     * Returns the highest level reached
+     */
+    public int getBestLevel ()
+    {
+        int best = 0;
+        for (int l : levels)
+        {
+            best = Math.max(best, l);
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of ticks run by all of the games together
+     */
+    public long getTotalTicks ()
+    {
+        long total = 0;
+        for (long t : ticks)
+        {
+            total += t;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the nanoseconds from the start of the batch until its last game finished
+     */
+    public long getElapsed ()
+    {
+        return elapsed;
+    }
+
+    /**
+     * Returns the ticks run per second of elapsed time, across all threads
+     */
+    public double getTicksPerSecond ()
+    {
+        return elapsed == 0 ? 0 : getTotalTicks() * 1e9 / elapsed;
+    }
+
+    /**
+     * Returns the mean nanoseconds taken by one tick of one game
+     */
+    public double getMeanTickNanos ()
+    {
+        long total = 0;
+        for (long n : nanos)
+        {
+            total += n;
+        }
+        long count = getTotalTicks();
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * Returns a summary of the batch
+     */
+    @Override
+    public String toString ()
+    {
+        return String.format(
+                "%d games (%d over) in %.3f s: %d ticks (%.0f ticks/s, %.1f us/tick), "
+                        + "mean score %.1f, best score %d, best level %d",
+                getGames(), getGamesOver(), elapsed / 1e9, getTotalTicks(), getTicksPerSecond(),
+                getMeanTickNanos() / 1e3, getMeanScore(), getBestScore(), getBestLevel());
+    }
+}
@@ -0,0 +1,182 @@
+package asteroids.game;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Runs many complete games of Asteroids at once, spread over the threads of a fork/join pool, and gathers how each one
+ * turned out. This is meant for balancing: try a set of {@link asteroids.game.GameSettings} over thousands of games
+ * and compare the scores and levels reached.
+ *
+ * Each game has its own Game, ParticipantState, settings, and random streams, and nothing mutable is shared between
+ * games, so they need no locks. Each game's seed is drawn from the batch's seed before any game starts, so a batch
+ * turns out the same no matter how many threads run it or in what order. Every ship is flown by the same pilot as in
+ * {@link asteroids.game.HeadlessRunner}, unless agents are supplied, in which case each game gets an
+ * {@link asteroids.game.Agent} of its own.
+ */
+public class BatchRunner
+{
+    /** Number of ticks after which a game that has not ended is stopped, by default */
+    public final static long DEFAULT_MAX_TICKS = 100000;
+
+    /** The pool on which games are run */
+    private final ForkJoinPool pool;
+
+    /** The settings every game starts with */
+    private final GameSettings settings;
+
+    /** Number of ticks after which a game that has not ended is stopped */
+    private long maxTicks;
+
+    /** Supplies an agent for each game, or null if the built-in pilot flies every ship */
+    private Supplier<? extends Agent> agents;
+
+    /**
+     * Creates a runner that plays games with the settings in Constants, using a thread for each processor
+     */
+    public BatchRunner ()
+    {
+        this(new GameSettings(), new ForkJoinPool());
+    }
+
+    /**
+     * Creates a runner that plays games with a copy of settings, on the given pool
+     */
+    public BatchRunner (GameSettings settings, ForkJoinPool pool)
+    {
+        this.settings = new GameSettings(settings);
+        this.pool = pool;
+        this.maxTicks = DEFAULT_MAX_TICKS;
+    }
+
+    /**
+     * Sets the number of ticks after which a game that has not ended is stopped
+     */
+    public void setMaxTicks (long maxTicks)
+    {
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Returns the number of ticks after which a game that has not ended is stopped
+     */
+    public long getMaxTicks ()
+    {
+        return maxTicks;
+    }
+
+    /**
+     * Sets what supplies an agent to fly the ship in each game, or null for the built-in pilot. The supplier is called
+     * from the threads of the pool, once for each game, and the agent it returns is used by that game alone.
+     */
+    public void setAgents (Supplier<? extends Agent> agents)
+    {
+        this.agents = agents;
+    }
+
+    /**
+     * Runs the given number of games, with seeds drawn from batchSeed, and returns how they turned out once all of them
+     * have finished.
+     */
+    public BatchResult run (int games, long batchSeed)
+    {
+        // Draw every seed up front so that each game's seed doesn't depend on scheduling
+        RandomStream stream = new RandomStream(batchSeed);
+        long[] seeds = new long[games];
+        for (int i = 0; i < games; i++)
+        {
+            seeds[i] = stream.nextLong();
+        }
+
+        BatchResult result = new BatchResult(games);
+        long start = System.nanoTime();
+        pool.invoke(new GameTask(this, seeds, result, 0, games));
+        result.setElapsed(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Plays one game with the given seed to its end, or until it has run maxTicks ticks, and records it in the result.
+     */
+    private void play (int index, long seed, BatchResult result)
+    {
+        long start = System.nanoTime();
+
+        // The batch already keeps every thread busy, so each game tests its collisions on its own thread
+        Game game = new Game(seed, settings);
+        game.getParticipantState().setParallelCollisions(false);
+        game.newGame();
+        AgentInput input = agents == null ? null : new AgentInput(game, agents.get());
+        while (!game.isOver() && game.getTick() < maxTicks)
+        {
+            long next = game.getTick() + 1;
+            game.tick(input == null ? HeadlessRunner.pilot(next) : input.next(next));
+        }
+
+        result.record(index, seed, game, System.nanoTime() - start);
+    }
+
+    /**
+     * Runs the number of games given as the first argument (1000 by default) with the batch seed given as the second
+     * (chosen from the clock by default) on a thread for each processor, and reports how they turned out.
+     */
+    public static void main (String[] args)
+    {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+
+        BatchRunner runner = new BatchRunner();
+        BatchResult result = runner.run(games, seed);
+        System.out.printf("seed %d, %d threads: %s%n", seed, runner.pool.getParallelism(), result);
+    }
+
+    /**
+     * Plays a range of the games in a batch, splitting the range among the threads of the pool.
+     */
+    @SuppressWarnings("serial")
+    private static class GameTask extends RecursiveAction
+    {
+        /** The runner whose batch this is */
+        private final BatchRunner runner;
+
+        /** The seed of every game in the batch */
+        private final long[] seeds;
+
+        /** Where the games are recorded */
+        private final BatchResult result;
+
+        /** The range of games to play */
+        private final int from, to;
+
+        /**
+         * Creates a task that plays games from up to (but not including) to.
+         */
+        GameTask (BatchRunner runner, long[] seeds, BatchResult result, int from, int to)
+        {
+            this.runner = runner;
+            this.seeds = seeds;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Plays the game, or splits the range in two if there is more than one.
+         */
+        @Override
+        protected void compute ()
+        {
+            if (to - from == 1)
+            {
+                runner.play(from, seeds[from], result);
+            }
+            else if (to > from)
+            {
+                int middle = (from + to) >>> 1;
+                invokeAll(new GameTask(runner, seeds, result, from, middle),
+                        new GameTask(runner, seeds, result, middle, to));
+            }
+        }
+    }
+}
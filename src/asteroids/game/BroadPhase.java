@@ -0,0 +1,34 @@
+package asteroids.game;
+
+/**
+ * Finds the pairs of participants that might be colliding, so that only those pairs need to be examined closely.
+ * Once per tick, after the participants have moved, the broad phase is rebuilt from the participants in iteration
+ * order. Each participant is then identified by its index in that order.
+ *
+ * A broad phase may report pairs that don't collide, but it must never leave out a pair whose bounding boxes
+ * intersect.
+ */
+interface BroadPhase
+{
+    /**
+     * Indexes the first count participants. Only participants for which {@link #isIndexed} reports true need to be
+     * indexed.
+     */
+    void rebuild (Participant[] participants, int count, CollisionLayers layers);
+
+    /**
+     * Writes into out the indices of every indexed participant after index that might collide with it, each exactly
+     * once and in no particular order, and returns how many were written. Writes nothing if the participant at index
+     * was not indexed. The array must be large enough to hold every indexed participant.
+     */
+    int candidates (int index, int[] out);
+
+    /**
+     * Reports whether p can take part in a collision this tick. It can't if it is expired, if it has never been
+     * moved (and so has no bounds yet), or if its collision layer is inert.
+     */
+    static boolean isIndexed (Participant p, CollisionLayers layers)
+    {
+        return !p.isExpired() && p.getBounds() != null && !layers.isInert(p.getCollisionLayer());
+    }
+}
@@ -0,0 +1,75 @@
+package asteroids.game;
+
+/**
+ * The broad phase algorithms that a {@link asteroids.game.ParticipantState} can use to find the pairs of
+ * participants that might be colliding.
+ */
+public enum BroadPhaseType
+{
+    /** Compare every pair of participants, as the game originally did. Useful as a reference. */
+    BRUTE_FORCE,
+
+    /** Sort participants into a uniform grid and compare those that share a cell. */
+    SPATIAL_HASH,
+
+    /** Sort participants by the left edges of their bounds and sweep across the field. */
+    SWEEP_AND_PRUNE,
+
+    /** Keep participants in a dynamic tree of bounding boxes that is updated as they move. */
+    AABB_TREE,
+
+    /** Choose one of the others every tick based on how many participants there are and how they are spread out. */
+    ADAPTIVE;
+
+    /** System property that can name the broad phase to use by default */
+    public final static String PROPERTY = "asteroids.broadphase";
+
+    /** Whether a property that names no broad phase has already been reported */
+    private static volatile boolean reported;
+
+    /**
+     * Returns the broad phase named by the asteroids.broadphase system property, or ADAPTIVE if the property is not
+     * set or names no broad phase. A name that is not recognized is reported the first time it is seen.
+     */
+    public static BroadPhaseType getDefault ()
+    {
+        String name = System.getProperty(PROPERTY);
+        if (name == null)
+        {
+            return ADAPTIVE;
+        }
+        try
+        {
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        }
+        catch (IllegalArgumentException e)
+        {
+            if (!reported)
+            {
+                reported = true;
+                System.out.println("Unknown broad phase \"" + name + "\" in " + PROPERTY + ", using " + ADAPTIVE);
+            }
+            return ADAPTIVE;
+        }
+    }
+
+    /**
+     * Creates a new instance of this broad phase.
+     */
+    BroadPhase create ()
+    {
+        switch (this)
+        {
+            case BRUTE_FORCE:
+                return new BruteForceBroadPhase();
+            case SPATIAL_HASH:
+                return new SpatialHash(Constants.COLLISION_CELL_SIZE);
+            case SWEEP_AND_PRUNE:
+                return new SweepAndPrune();
+            case AABB_TREE:
+                return new AabbTree();
+            default:
+                return new AdaptiveBroadPhase();
+        }
+    }
+}
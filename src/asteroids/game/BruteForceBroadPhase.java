@@ -0,0 +1,59 @@
+package asteroids.game;
+
+/**
+ * A broad phase that reports every later indexed participant as a candidate. This is how collisions were originally
+ * found, and it serves as the reference that the other broad phases are compared against.
+ */
+class BruteForceBroadPhase implements BroadPhase
+{
+    /** Which participants were indexed by the last rebuild */
+    private boolean[] indexed;
+
+    /** Number of participants seen by the last rebuild */
+    private int count;
+
+    /**
+     * Creates an empty broad phase.
+     */
+    BruteForceBroadPhase ()
+    {
+        indexed = new boolean[64];
+    }
+
+    /**
+     * Records which participants can take part in collisions.
+     */
+    @Override
+    public void rebuild (Participant[] participants, int count, CollisionLayers layers)
+    {
+        this.count = count;
+        if (indexed.length < count)
+        {
+            indexed = new boolean[count * 2];
+        }
+        for (int i = 0; i < count; i++)
+        {
+            indexed[i] = BroadPhase.isIndexed(participants[i], layers);
+        }
+    }
+
+    /**
+     * Reports every indexed participant after index.
+     */
+    @Override
+    public int candidates (int index, int[] out)
+    {
+        int found = 0;
+        if (index < count && indexed[index])
+        {
+            for (int other = index + 1; other < count; other++)
+            {
+                if (indexed[other])
+                {
+                    out[found++] = other;
+                }
+            }
+        }
+        return found;
+    }
+}
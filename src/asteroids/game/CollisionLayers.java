@@ -0,0 +1,88 @@
+package asteroids.game;
+
+import java.util.IdentityHashMap;
+
+/**
+ * Records, for every concrete Participant class seen so far, which other classes it can react to when they collide.
+ * Each class is given a layer number the first time it is seen, and a bit mask of the layers it interacts with is
+ * worked out from {@link asteroids.game.Participant#reactsTo(Class)}. A pair of participants needs to be tested for
+ * collision only if at least one of the two reacts to the other.
+ *
+ * Only the first 64 classes get their own bits. Any later class is assumed to interact with everything.
+ */
+class CollisionLayers
+{
+    /** Number of classes that can be given bits */
+    private final static int MAX_LAYERS = 64;
+
+    /** The layer assigned to each class */
+    private IdentityHashMap<Class<?>, Integer> layers;
+
+    /** The first participant seen of each layer, which is asked about the classes it reacts to */
+    private Participant[] samples;
+
+    /** For each layer, a bit for every layer that it reacts to or that reacts to it */
+    private long[] interacts;
+
+    /** Number of layers assigned so far */
+    private int count;
+
+    /**
+     * Creates an empty set of layers.
+     */
+    CollisionLayers ()
+    {
+        layers = new IdentityHashMap<Class<?>, Integer>();
+        samples = new Participant[MAX_LAYERS];
+        interacts = new long[MAX_LAYERS];
+        count = 0;
+    }
+
+    /**
+     * Returns the layer of p's class, assigning one and working out its interactions if the class is new.
+     */
+    int layerOf (Participant p)
+    {
+        Integer layer = layers.get(p.getClass());
+        if (layer != null)
+        {
+            return layer;
+        }
+
+        layer = count++;
+        layers.put(p.getClass(), layer);
+        if (layer < MAX_LAYERS)
+        {
+            samples[layer] = p;
+            for (int other = 0; other <= layer; other++)
+            {
+                if (p.reactsTo(samples[other].getClass()) || samples[other].reactsTo(p.getClass()))
+                {
+                    interacts[layer] |= 1L << other;
+                    interacts[other] |= 1L << layer;
+                }
+            }
+        }
+        return layer;
+    }
+
+    /**
+     * Reports whether participants of the two layers could react to colliding with each other.
+     */
+    boolean mayInteract (int a, int b)
+    {
+        if (a >= MAX_LAYERS || b >= MAX_LAYERS)
+        {
+            return true;
+        }
+        return (interacts[a] & (1L << b)) != 0;
+    }
+
+    /**
+     * Reports whether participants of the layer react to nothing seen so far and nothing seen so far reacts to them.
+     */
+    boolean isInert (int layer)
+    {
+        return layer < MAX_LAYERS && interacts[layer] == 0;
+    }
+}
@@ -1,21 +1,19 @@
 package asteroids.game;
 
-import java.util.Random;
-
 /**
  * Provides constants that govern the game.
  */
 public class Constants
 {
     /**
-     * A shared random number generator for general use.
+     * The height and width of the game area.
      */
-    public final static Random RANDOM = new Random();
+    public final static int SIZE = 750;
 
     /**
-     * The height and width of the game area.
+     * Approximate width and height, in pixels, of the cells used to group participants when checking for collisions.
      */
-    public final static int SIZE = 750;
+    public final static int COLLISION_CELL_SIZE = 75;
 
     /**
      * Game title
@@ -53,10 +51,17 @@ public class Constants
     public final static double TURN_RADIANS = Math.PI / 70.0;
 
     /**
-     * The number of milliseconds between the beginnings of frame refreshes
+     * The number of milliseconds in a game tick. Speeds are given in pixels per tick, and the game runs one tick every
+     * FRAME_INTERVAL milliseconds unless a different tick rate is chosen.
      */
     public final static int FRAME_INTERVAL = 33;
 
+    /**
+     * The number of milliseconds between requests to refresh the screen. The screen is refreshed more often than the
+     * game ticks, and participants are drawn between the places given by the last two ticks.
+     */
+    public final static int RENDER_INTERVAL = 10;
+
     /**
      * The number of milliseconds between beats, initially.
      */
@@ -1,100 +1,106 @@
 package asteroids.game;
 
 import static asteroids.game.Constants.*;
-import asteroids.participants.*;
 import java.awt.event.*;
 import java.io.*;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.EnumMap;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import javax.sound.sampled.*;
 import javax.swing.*;
 import java.util.Collections;
 
 /**
- * Controls a game of Asteroids.
+ * Runs a {@link asteroids.game.Game} of Asteroids in a window, with sound, in real time.
+ *
+ * The game runs on a simulation thread of its own. Key and start button presses arrive on the Swing event thread and
+ * are recorded in an {@link asteroids.game.InputBuffer}, which each tick samples once and hands to the game. After
+ * each tick the simulation thread publishes a snapshot of what is to be drawn, and the screen paints the most recent
+ * one. The event thread never touches the participants.
+ *
+ * Frames are drawn at every RENDER_INTERVAL milliseconds: by Swing on the event thread, or, when the display renders
+ * actively, on a rendering thread of their own that draws and shows each frame itself.
+ *
+ * The input can be recorded to a file as the game is played, and a recording can be played back in place of the
+ * keyboard, at the normal tick rate or faster. A recording is saved whenever a game ends, and again when the window is
+ * closed, so that a session abandoned in the middle of a game is kept.
  */
-public class Controller implements KeyListener, ActionListener
+public class Controller implements KeyListener, ActionListener, GameListener
 {
-    /** The state of all the Participants */
-    private ParticipantState pstate;
+    /** The file in which the three best scores are kept */
+    private final static File HIGH_SCORES_FILE = new File(
+            "C:/Users/Jake Johnson/eclipse-workspace/PS11_wastedPotential/src/asteroids/scores/HighScores.txt");
 
-    /** The ship (if one is active) or null (otherwise) */
-    private Ship ship;
+    /** Number of best scores kept */
+    private final static int HIGH_SCORES = 3;
 
-    /** The AlienShip */
-    private AlienShip alienShip;
+    /** Most milliseconds that closing the window waits for the recording to be saved */
+    private final static long CLOSE_SAVE_MILLIS = 2000;
 
-    /** When this timer goes off, it is time to refresh the animation */
-    private Timer refreshTimer;
-
-    /** AlienShip Spawn Timer */
-    private Timer alienShipSpawnTimer;
+    /** The rules of the game and the state of all the Participants */
+    private Game game;
 
-    /** beat audio Timer */
-    private Timer beatTimer;
-
-    /** Delay to display highScores Timer */
-    private Timer highScoresTimer = new Timer(1000, null);
+    /** When this timer goes off, it is time to repaint the screen from the latest snapshot */
+    private Timer refreshTimer;
 
-    /** Interval between Timer beats */
-    private int beatInterval;
+    /** The thread that draws and shows the frames when the display renders actively */
+    private Thread rendering;
 
-    /** If beat1 was played last */
-    private boolean beat1Last;
+    /** Decides how many game ticks are due each time the simulation thread wakes up */
+    private FixedTimestep timestep;
 
-    /** Number of lives left */
-    private int lives;
+    /** The thread that runs the game ticks */
+    private Thread simulation;
 
-    /** List of the life objects */
-    private ArrayList<Lives> lifeList = new ArrayList<Lives>();
+    /** Key events on their way from the event thread to the simulation thread */
+    private InputBuffer input;
 
-    /** Keeps track of active bullets */
-    private int numBullets;
+    /** Where each tick's input comes from: the input buffer, a recorder wrapped around it, or a player */
+    private InputSource source;
 
-    /** The current level */
-    private int level;
+    /** Records the input, or null if it is not being recorded */
+    private InputRecorder recorder;
 
-    /** Players current score */
-    private int score;
+    /** The file to which the recording is saved whenever a game ends */
+    private File recordingFile;
 
-    /** Top 3 highest scores */
-    private ArrayList<Integer> highScores = new ArrayList<Integer>();
+    /** Counted down once the simulation thread has saved the recording, or null if no save has been asked for */
+    private volatile CountDownLatch saveRequest;
 
-    /** Clip used for when alienShip blows up */
-    private Clip bangAlienShipClip = createClip("/sounds/bangAlienShip.wav");
+    /** Plays back a recording in place of the keyboard, or null if the game is being played live */
+    private InputPlayer player;
 
-    /** Clip used for when Large asteroid blows up */
-    public Clip bangLargeClip = createClip("/sounds/bangLarge.wav");
+    /** The input sampled by the most recent tick */
+    private volatile InputState lastInput;
 
-    /** Clip used for when Medium asteroid blows up */
-    public Clip bangMediumClip = createClip("/sounds/bangMedium.wav");
+    /** The failure of the most recent tick, or null if it succeeded. Used only on the simulation thread. */
+    private String tickFailure;
 
-    /** Clip used for when Small asteroid blows up */
-    public Clip bangSmallClip = createClip("/sounds/bangSmall.wav");
+    /** The failure of the most recent frame, or null if it succeeded. Used only on the rendering thread. */
+    private String frameFailure;
 
-    /** Clip used for when Ship blows up */
-    private Clip bangShipClip = createClip("/sounds/bangShip.wav");
+    /** Hands snapshots of the game from the simulation thread to the screen */
+    private SnapshotExchange snapshots;
 
-    /** Clip used when shot is fired */
-    private Clip fireClip = createClip("/sounds/fire.wav");
+    /** Whether the high scores are displayed */
+    private boolean showHighScores;
 
-    /** List of Clipse for gamePlay beat audio: { beat1, beat2 } */
-    private Clip[] beatClips = new Clip[] { createClip("/sounds/beat1.wav"), createClip("/sounds/beat2.wav") };
+    /** Top 3 highest scores, from lowest to highest. Used only on the files thread. */
+    private ArrayList<Integer> highScores = new ArrayList<Integer>();
 
-    /** List of Clips for alienShipAudio: { saucerBig, saucerSmall } */
-    private Clip[] saucerClips = new Clip[] { createClip("/sounds/saucerSmall.wav"),
-            createClip("/sounds/saucerBig.wav") };
+    /** Copy of the top 3 highest scores for the screen, or null until they have been read */
+    private volatile int[] topScores;
 
-    /** Clip used when Ship is accelerating */
-    private Clip thrustClip = createClip("/sounds/thrust.wav");
+    /** Reads and writes files one after another, so that the simulation thread never waits on them */
+    private ExecutorService files;
 
-    /**
-     * The time at which a transition to a new stage of the game should be made. A transition is scheduled a few seconds
-     * in the future to give the user time to see what has happened before doing something like going to a new level or
-     * resetting the current level.
-     */
-    private long transitionTime;
+    /** The clip that plays each sound, or null for a sound that could not be loaded */
+    private EnumMap<Sound, Clip> clips;
 
     /** The game display */
     private Display display;
@@ -104,160 +110,255 @@ public class Controller implements KeyListener, ActionListener
      */
     public Controller ()
     {
-        // Initialize the ParticipantState
-        pstate = new ParticipantState();
+        this(null, null);
+    }
 
-        // Set up the refresh timer.
-        refreshTimer = new Timer(FRAME_INTERVAL, this);
+    /**
+     * Constructs a controller to coordinate the game and screen, recording the input and saving the recording to the
+     * file whenever a game ends and when the window is closed
+     */
+    public Controller (File recordTo)
+    {
+        this(null, recordTo);
+    }
 
-        // Set up AlienShipSpawn timer
-        this.alienShipSpawnTimer = new Timer(ALIEN_DELAY, this);
+    /**
+     * Constructs a controller that plays back a recording on the screen, in place of the keyboard
+     */
+    public Controller (InputPlayer replay)
+    {
+        this(replay, null);
+    }
 
-        // Clear the transitionTime
-        transitionTime = Long.MAX_VALUE;
+    /**
+     * Constructs a controller that plays back the recording if there is one, and otherwise records to the file if
+     * there is one
+     */
+    private Controller (InputPlayer replay, File recordTo)
+    {
+        // Initialize the game and its input, and load the sounds it makes
+        game = replay == null ? new Game() : new Game(replay.getSeed());
+        game.setListener(this);
+        input = new InputBuffer();
+        player = replay;
+        recordingFile = recordTo;
+        if (player != null)
+        {
+            source = player;
+        }
+        else if (recordingFile != null)
+        {
+            recorder = new InputRecorder(game.getSeed(), input);
+            source = recorder;
+        }
+        else
+        {
+            source = input;
+        }
+        files = Executors.newSingleThreadExecutor(r ->
+        {
+            Thread thread = new Thread(r, "Asteroids files");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (player == null)
+        {
+            files.execute(this::loadHighScores);
+        }
+        clips = new EnumMap<Sound, Clip>(Sound.class);
+        for (Sound sound : Sound.values())
+        {
+            clips.put(sound, createClip(sound.getResource()));
+        }
 
-        // Record the display object
+        // Set up the refresh timer, and the simulation thread that runs steady
+        // game ticks and hands snapshots of them to the screen
+        refreshTimer = new Timer(RENDER_INTERVAL, this);
+        timestep = new FixedTimestep(1000.0 / FRAME_INTERVAL);
+        lastInput = InputState.NONE;
+        snapshots = new SnapshotExchange();
+        simulation = new Thread(this::simulate, "Asteroids simulation");
+        simulation.setDaemon(true);
+
+        // Record the display object, and save the recording if the window
+        // is closed in the middle of a game
         display = new Display(this);
-
-        // Bring up the splash screen and start the refresh timer
-        splashScreen();
+        if (recorder != null)
+        {
+            display.addWindowListener(new WindowAdapter()
+            {
+                /**
+                 * Saves the recording before the window closes and the program exits.
+                 */
+                @Override
+                public void windowClosing (WindowEvent e)
+                {
+                    saveRecordingAndWait();
+                }
+            });
+        }
+        rendering = new Thread(this::render, "Asteroids rendering");
+        rendering.setDaemon(true);
+
+        // Bring up the splash screen and start the simulation, and then the
+        // refresh timer or the rendering thread
+        game.splashScreen();
+        publish();
+        simulation.start();
         display.setVisible(true);
-        refreshTimer.start();
+        if (display.isActiveRendering())
+        {
+            rendering.start();
+        }
+        else
+        {
+            refreshTimer.start();
+        }
     }
 
     /**
-     * Returns the ship, or null if there isn't one
-     * 
-     * @return Current asteroids.participants.Ship
+     * Returns the game. Once the controller has been constructed, the game may only be used on the simulation thread,
+     * such as by a GameListener.
      */
-    public Ship getShip ()
+    public Game getGame ()
     {
-        return ship;
+        return game;
     }
 
     /**
-     * Returns the AlienShip
-     * 
-     * @return Current participants.AlienShip
+     * Sets the number of game ticks per second. Speeds and countdowns are measured in ticks, so this changes how fast
+     * the game plays. The default is one tick every FRAME_INTERVAL milliseconds. This may be called from any thread.
      */
-    public AlienShip getAlienShip ()
+    public void setTickRate (double ticksPerSecond)
     {
-        return this.alienShip;
+        timestep.setTickRate(ticksPerSecond);
     }
 
     /**
-     * Returns the AlienShipSpawnTimer
-     * 
-     * @return AlienShipSpawnTimer
+     * Returns the number of game ticks per second.
      */
-    private Timer getAlienShipSpawnTimer ()
+    public double getTickRate ()
     {
-        return this.alienShipSpawnTimer;
+        return timestep.getTickRate();
     }
 
     /**
-     * Add to the score
+     * Returns the most recent snapshot of the game, which stays unchanged until the next call. Only the screen may call
+     * this, from the event thread, or from the rendering thread when the display renders actively.
      */
-    public void addScore (int points)
+    RenderSnapshot getSnapshot ()
     {
-        this.score += points;
+        return snapshots.front();
     }
 
     /**
-     * Get the current score
-     * 
-     * @return score
+     * Returns the input sampled by the most recent tick
      */
-    private int getScore ()
+    public InputState getLastInput ()
     {
-        return this.score;
+        return lastInput;
     }
 
     /**
-     * Get the current level
-     * 
-     * @return level
+     * The game is over. Stops listening to the keyboard, displays the high scores, and saves the recording if there is
+     * one. A game that is being played back leaves the high scores alone.
      */
-    private int getLevel ()
+    @Override
+    public void gameOver (int score)
     {
-        return this.level;
+        listenToKeys(false);
+        if (player == null)
+        {
+            files.execute( () -> recordHighScore(score));
+            showHighScores = true;
+        }
+
+        if (recorder != null)
+        {
+            saveRecording();
+        }
     }
 
     /**
-     * Configures the game screen to display the splash screen
+     * Saves the recording so far to its file. Runs on the simulation thread, which is the one that records.
      */
-    private void splashScreen ()
+    private void saveRecording ()
     {
-        // Clear the screen, reset the level, and display the legend
-        clear();
-        display.setLegend("Asteroids");
-
-        // Place four asteroids near the corners of the screen.
-        placeAsteroids();
+        try
+        {
+            recorder.save(recordingFile);
+        }
+        catch (IOException e)
+        {
+            System.out.println("An error occured saving the recording: " + e.getMessage());
+        }
     }
 
     /**
-     * The game is over. Displays a message to that effect.
+     * Asks the simulation thread to save the recording so far between ticks, and waits a short while for it to do so.
+     * Called on the event thread when the window is closing.
      */
-    private void finalScreen ()
+    private void saveRecordingAndWait ()
     {
-        display.removeKeyListener(this);
-        display.setLegend(GAME_OVER);
-        display.refresh();
-
-        displayHighScores();
+        CountDownLatch saved = new CountDownLatch(1);
+        saveRequest = saved;
+        LockSupport.unpark(simulation);
+        try
+        {
+            if (!saved.await(CLOSE_SAVE_MILLIS, TimeUnit.MILLISECONDS))
+            {
+                System.out.println("An error occured saving the recording: timed out");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
-     * Does everything needed to be done with the highScores
+     * Reads the high scores from HighScores.txt, keeping the best three. Runs on the files thread.
      */
-    private void displayHighScores ()
+    private void loadHighScores ()
     {
-        // Display highScores
-        try
+        try (Scanner scnr = new Scanner(HIGH_SCORES_FILE))
         {
-            File file = new File(
-                    "C:/Users/Jake Johnson/eclipse-workspace/PS11_wastedPotential/src/asteroids/scores/HighScores.txt");
-            Scanner scnr = new Scanner(file);
-
-            while (scnr.hasNext() && scnr.hasNextLine())
+            while (scnr.hasNextLine())
             {
                 try
                 {
-                    this.highScores.add(Integer.parseInt(scnr.nextLine()));
+                    this.highScores.add(Integer.parseInt(scnr.nextLine().trim()));
                 }
-                catch (Exception e)
+                catch (NumberFormatException e)
                 {
-                    System.out.println("An error occured when parsing HighScores.txt" + e.getMessage());
+                    System.out.println("An error occured when parsing HighScores.txt: " + e.getMessage());
                 }
             }
-            scnr.close();
         }
         catch (Exception e)
         {
             System.out.println("Error occured with HighScores.text: " + e.getMessage());
         }
 
-        correctHighScores();
-        display.setHighScores(this.highScores);
+        keepBestHighScores();
     }
 
     /**
-     * Corrects highScores with new score and overwrites HighScores.txt
+     * Adds the newest score to the high scores, keeps the best three, and overwrites HighScores.txt with them. Runs on
+     * the files thread.
      */
-    private void correctHighScores ()
+    private void recordHighScore (int score)
     {
-        // Add newest score && remove the lowest
-        this.highScores.add(this.score);
-        Collections.sort(this.highScores);
-        this.highScores.remove(0);
+        this.highScores.add(score);
+        keepBestHighScores();
 
-        // Overwrite HighScores.txt with new scores
-        try (FileWriter fileWriter = new FileWriter(
-                "C:/Users/Jake Johnson/eclipse-workspace/PS11_wastedPotential/src/asteroids/scores/HighScores.txt"))
+        // Overwrite HighScores.txt with new scores, highest first
+        try (FileWriter fileWriter = new FileWriter(HIGH_SCORES_FILE))
         {
-            
-            fileWriter.write(highScores.get(2) + "\n" + highScores.get(1) + "\n" + highScores.get(0));
+            for (int i = highScores.size() - 1; i >= 0; i--)
+            {
+                fileWriter.write(highScores.get(i) + "\n");
+            }
         }
         catch (Exception e)
         {
@@ -266,451 +367,282 @@ public class Controller implements KeyListener, ActionListener
     }
 
     /**
-     * Place a new ship in the center of the screen. Remove any existing ship first.
-     */
-    private void placeShip ()
-    {
-        // Place a new ship
-        Participant.expire(ship);
-        ship = new Ship(SIZE / 2, SIZE / 2, -Math.PI / 2, this);
-        addParticipant(ship);
-        display.setLegend("");
-
-        // Reset all beatTimer related vars, and start the timer
-        this.beatInterval = INITIAL_BEAT;
-        this.beat1Last = false;
-        this.beatTimer = new Timer(beatInterval, this);
-        this.beatTimer.start();
-    }
-
-    /**
-     * Creates the lives remaining visual and assigns them to lifeList
+     * Sorts the high scores, drops all but the best three, and hands a copy of them to the screen.
      */
-    public void drawLives ()
+    private void keepBestHighScores ()
     {
-        for (Lives life : lifeList)
+        Collections.sort(this.highScores);
+        while (this.highScores.size() > HIGH_SCORES)
         {
-            Participant.expire(life);
+            this.highScores.remove(0);
         }
-        lifeList.clear();
 
-        for (int life = 0; life < this.lives; life++)
+        int[] top = new int[highScores.size()];
+        for (int i = 0; i < top.length; i++)
         {
-            this.lifeList.add(new Lives(life));
-            addParticipant(this.lifeList.get(life));
+            top[i] = highScores.get(i);
         }
+        topScores = top;
     }
 
     /**
-     * Places an asteroid near one corner of the screen. Gives it a random velocity and rotation.
+     * This method will be invoked because of button presses and timer events. A button press is recorded as input for
+     * the next tick, unless a recording is being played back.
      */
-    private void placeAsteroids ()
+    @Override
+    public void actionPerformed (ActionEvent e)
     {
-        // distance from top left of the screen [ 0, 0 ]
-        int xOffSet;
-        int yOffSet;
-
-        for (int i = 0; i < 3 + this.level; i++)
+        // The start button has been pressed. Stop whatever we're doing
+        // and bring up the initial screen
+        if (e.getSource() instanceof JButton)
         {
-            // Depending on value from RANDOM, Asteroids are randomly placed in the 4 corners of the screen.
-            // Asteroid will always be placed EDGE_OFFSET away from the edge of the screen
-            xOffSet = EDGE_OFFSET + ((SIZE - (EDGE_OFFSET * 2)) * RANDOM.nextInt(2));
-            yOffSet = EDGE_OFFSET + ((SIZE - (EDGE_OFFSET * 2)) * RANDOM.nextInt(2));
-
-            addParticipant(new Asteroid(RANDOM.nextInt(4), 2, xOffSet, yOffSet, this));
+            if (player == null)
+            {
+                long now = System.nanoTime();
+                input.record(now, InputState.NEW_GAME, true);
+                input.record(now, InputState.NEW_GAME, false);
+                listenToKeys(true);
+            }
         }
-    }
 
-    /**
-     * Clears the screen so that nothing is displayed
-     */
-    private void clear ()
-    {
-        pstate.clear();
-        display.setLegend("");
-        ship = null;
-        alienShip = null;
+        // Time to repaint the screen from the latest snapshot
+        else if (e.getSource() == refreshTimer)
+        {
+            display.refresh();
+        }
     }
 
     /**
-     * Sets things up and begins a new game.
+     * Runs the game ticks as they come due, for as long as the program runs. A snapshot is published after the ticks
+     * due at each wake-up have been run, unless one of them failed.
      */
-    private void initialScreen ()
+    private void simulate ()
     {
-        // Reset statistics
-        this.lives = 3;
-        this.score = 0;
-        this.level = 1;
-
-        // Update display for stats
-        this.display.setScore(this.getScore());
-        this.display.setLevel(this.getLevel());
-
-        // Clear the screen
-        clear();
-
-        // Place asteroids
-        placeAsteroids();
-
-        // Place the ship
-        placeShip();
+        timestep.reset();
+        timestep.advance(System.nanoTime());
+        while (true)
+        {
+            // Run as many game ticks as have come due since the last wake-up,
+            // stopping at a tick that fails
+            int ticks = timestep.advance(System.nanoTime());
+            boolean failed = false;
+            for (int i = 0; i < ticks && !failed; i++)
+            {
+                try
+                {
+                    tick();
+                    tickFailure = null;
+                }
+                catch (RuntimeException e)
+                {
+                    // Report the failure but keep the game going, as the event thread would
+                    tickFailure = reportFailure("running a tick", e, tickFailure);
+                    failed = true;
+                }
+            }
 
-        // Place lives remaining
-        drawLives();
+            // Hand the result to the screen, unless a tick was left half
+            // done
+            if (ticks > 0 && !failed)
+            {
+                publish();
+            }
 
-        // Start listening to events (but don't listen twice)
-        display.removeKeyListener(this);
-        display.addKeyListener(this);
+            // Save the recording if the window is closing
+            CountDownLatch saved = saveRequest;
+            if (saved != null)
+            {
+                saveRequest = null;
+                saveRecording();
+                saved.countDown();
+            }
 
-        // Give focus to the game screen
-        display.requestFocusInWindow();
+            // Sleep until the next tick is due
+            LockSupport.parkNanos(timestep.untilNextTick());
+        }
     }
 
     /**
-     * Go to the next level
+     * Draws and shows a frame every RENDER_INTERVAL milliseconds, for as long as the program runs. If the display waits
+     * for its vertical retrace before showing a frame, that sets the pace instead.
      */
-    public void nextLevel ()
+    private void render ()
     {
-        // Clear Screen
-        clear();
-
-        // Update Level
-        this.level++;
-        this.display.setLevel(this.getLevel());
-
-        // Place asteroids
-        placeAsteroids();
-
-        // Place the ship
-        placeShip();
-
-        // Place lives remaining
-        drawLives();
-
-        // Start countDownTimer for alienShip arrival
-        this.alienShipSpawnTimer.start();
-
-        // Start listening to events (but don't listen twice)
-        display.removeKeyListener(this);
-        display.addKeyListener(this);
+        long interval = RENDER_INTERVAL * 1000000L;
+        long next = System.nanoTime();
+        while (true)
+        {
+            try
+            {
+                display.refresh();
+                frameFailure = null;
+            }
+            catch (RuntimeException e)
+            {
+                // Report the failure but keep drawing, as the event thread would
+                frameFailure = reportFailure("drawing a frame", e, frameFailure);
+            }
 
-        // Give focus to the game screen
-        display.requestFocusInWindow();
+            // Sleep until the next frame is due, without trying to catch up on
+            // frames that were missed
+            long now = System.nanoTime();
+            next = Math.max(next + interval, now);
+            LockSupport.parkNanos(next - now);
+        }
     }
 
     /**
-     * Adds a new Participant
+     * Reports a failure, unless it is the same as the last one, which is given by its description. Returns the
+     * description of the failure, so that it is reported only once however often it repeats.
      */
-    public void addParticipant (Participant p)
+    private static String reportFailure (String doing, RuntimeException e, String last)
     {
-        pstate.addParticipant(p);
+        String failure = e.toString();
+        if (!failure.equals(last))
+        {
+            System.out.println("An error occured " + doing + ": " + failure);
+        }
+        return failure;
     }
 
     /**
-     * The ship has been destroyed
+     * Runs one game tick on the simulation thread.
      */
-    public void shipDestroyed ()
+    private void tick ()
     {
-        // Null out the ship
-        ship = null;
-
-        // Decrement lives
-        lives--;
-
-        // Update lifeList
-        Participant.expire(lifeList.get(lives));
-        lifeList.remove(lives);
-
-        // Since the ship was destroyed, schedule a transition
-        scheduleTransition(END_DELAY);
-
-        // Play ship destroyed clip
-        playClip(bangShipClip);
-
-        // Stop beat Timer
-        this.beatTimer.stop();
+        // Get the input for the tick and run the tick with it
+        lastInput = source.next(game.getTick() + 1);
+        game.tick(lastInput);
     }
 
     /**
-     * AlienShip has been destroyed
+     * Fills in a snapshot of what is to be drawn and hands it to the screen.
      */
-    public void alienShipDestroyed ()
+    private void publish ()
     {
-        // Stop alienShip audio clip
-        this.saucerClips[alienShip.getAlienShipSize()].stop();
-
-        // Null out the AlienShip
-        this.alienShip = null;
-
-        // Restart SpawnTimer
-        this.alienShipSpawnTimer.start();
-
-        // Play AlienShip destroyed Clip
-        playClip(bangAlienShipClip);
+        RenderSnapshot snapshot = snapshots.back();
+        game.capture(snapshot);
+        snapshot.tickTime = System.nanoTime();
+        snapshot.tickNanos = timestep.getTickNanos();
+        snapshot.setHighScores(showHighScores ? topScores : null);
+        snapshots.publish();
     }
 
     /**
-     * An asteroid has been destroyed
+     * Starts or stops listening to the keyboard. When starting, gives focus to the game screen. The change is made on
+     * the event thread.
      */
-    public void asteroidDestroyed ()
+    private void listenToKeys (boolean listen)
     {
-        // Update Score
-        this.display.setScore(this.getScore());
-
-        // If all the asteroids are gone, schedule a transition
-        if (pstate.countAsteroids() == 0)
+        SwingUtilities.invokeLater(() ->
         {
-            if (this.alienShipSpawnTimer.isRunning())
+            // Don't listen twice
+            display.removeKeyListener(this);
+            if (listen)
             {
-                this.alienShipSpawnTimer.stop();
+                display.addKeyListener(this);
+                display.requestFocusInWindow();
             }
-            scheduleTransition(END_DELAY);
-        }
-    }
-
-    /**
-     * A bullet has been destroyed
-     */
-    public void bulletDestroyed ()
-    {
-        numBullets--;
+        });
     }
 
     /**
-     * Schedules a transition m msecs in the future
+     * If a key of interest is pressed, records it for the next tick.
      */
-    private void scheduleTransition (int m)
-    {
-        transitionTime = System.currentTimeMillis() + m;
-    }
-
-    /**
-     * Creates Debris when a Ship (Ship or AlienShip) is destroyed
-     * 
-     * @param x, y
-     */
-    public void createShipDebris (double x, double y)
+    @Override
+    public void keyPressed (KeyEvent e)
     {
-        createAsteroidDebris(x, y);
-
-        for (int i = 0; i < 2; i++)
+        int action = actionFor(e.getKeyCode());
+        if (action != 0)
         {
-            addParticipant(new Debris(x, y, "line"));
+            input.record(System.nanoTime(), action, true);
         }
     }
 
     /**
-     * Creates Debris when an Asteroid is destroyed
-     * 
-     * @param x, y
+     * If a key of interest is released, records it for the next tick.
      */
-    public void createAsteroidDebris (double x, double y)
+    @Override
+    public void keyReleased (KeyEvent e)
     {
-        for (int i = 0; i < 5; i++)
+        int action = actionFor(e.getKeyCode());
+        if (action != 0)
         {
-            addParticipant(new Debris(x, y, "Circle"));
+            input.record(System.nanoTime(), action, false);
         }
     }
 
     /**
-     * This method will be invoked because of button presses and timer events.
+     * Returns the InputState action that the key controls, or 0 if it controls none.
      */
-    @Override
-    public void actionPerformed (ActionEvent e)
+    private static int actionFor (int keyCode)
     {
-        // The start button has been pressed. Stop whatever we're doing
-        // and bring up the initial screen
-        if (e.getSource() instanceof JButton)
-        {
-            initialScreen();
-        }
-
-        // Time to refresh the screen and deal with keyboard input
-        else if (e.getSource() == refreshTimer)
-        {
-            // It may be time to make a game transition
-            performTransition();
-
-            // Move the participants to their new locations
-            pstate.moveParticipants();
-
-            // Refresh screen
-            display.refresh();
-        }
-
-        // Time for a beat
-        else if (this.ship != null && e.getSource() == this.beatTimer)
+        switch (keyCode)
         {
-            if (beat1Last)
-            {
-                playClip(this.beatClips[1]);
-            }
-            else
-            {
-                playClip(this.beatClips[0]);
-            }
-
-            beat1Last = beat1Last ? false : true;
-
-            this.beatInterval -= BEAT_DELTA;
-
-            if (this.beatInterval < BEAT_DELTA)
-            {
-                this.beatInterval = BEAT_DELTA;
-            }
-
-            this.beatTimer.setDelay(beatInterval);
-        }
-
-        // If it's time to start UFO encounters
-        else if (this.alienShip == null && this.level > 1 && e.getSource() == this.getAlienShipSpawnTimer())
-        {
-            // Stop AlienSpawnTimer
-            this.getAlienShipSpawnTimer().stop();
-
-            // Create AlienShip with size in respect to current level
-            this.alienShip = this.getLevel() == 2 ? new AlienShip(1, this) : new AlienShip(0, this);
-            addParticipant(this.alienShip);
-
-            // Loop AlienShip audio
-            this.saucerClips[alienShip.getAlienShipSize()].loop(Clip.LOOP_CONTINUOUSLY);
-        }
-
-        // Time to display highScores
-        else if (e.getSource() == this.highScoresTimer)
-        {
-            this.highScoresTimer.stop();
-            displayHighScores();
-            display.refresh();
+        case KeyEvent.VK_UP:
+            return InputState.THRUST;
+        case KeyEvent.VK_RIGHT:
+            return InputState.TURN_RIGHT;
+        case KeyEvent.VK_LEFT:
+            return InputState.TURN_LEFT;
+        case KeyEvent.VK_SPACE:
+            return InputState.FIRE;
+        case KeyEvent.VK_B:
+            return InputState.CLEAR_ASTEROIDS;
+        case KeyEvent.VK_N:
+            return InputState.ADD_LIFE;
+        default:
+            return 0;
         }
     }
 
     /**
-     * Returns an iterator over the active participants
+     * These events are ignored.
      */
-    public Iterator<Participant> getParticipants ()
+    @Override
+    public void keyTyped (KeyEvent e)
     {
-        return pstate.getParticipants();
     }
 
     /**
-     * If the transition time has been reached, transition to a new state
+     * Plays the sound once from the beginning
      */
-    private void performTransition ()
+    @Override
+    public void playSound (Sound sound)
     {
-        // Do something only if the time has been reached
-        if (transitionTime <= System.currentTimeMillis())
+        Clip clip = clips.get(sound);
+        if (clip != null)
         {
-            // Clear the transition time
-            transitionTime = Long.MAX_VALUE;
-
-            // If there are no lives left, the game is over. Show the final screen.
-            if (lives <= 0)
-            {
-                display.removeKeyListener(this);
-                finalScreen();
-            }
-            else if (pstate.countAsteroids() == 0)
-            {
-                this.nextLevel();
-            }
-            else
-            {
-                placeShip();
-            }
+            playClip(clip);
         }
     }
 
     /**
-     * If a key of interest is pressed, record it.
+     * Plays the sound over and over until it is stopped
      */
     @Override
-    public void keyPressed (KeyEvent e)
+    public void loopSound (Sound sound)
     {
-        if (this.getShip() != null)
+        Clip clip = clips.get(sound);
+        if (clip != null)
         {
-            int keyCode = e.getKeyCode();
-
-            // Destroy all asteroids and advance
-            if (keyCode == KeyEvent.VK_B)
-            {
-                pstate.clearAsteroids();
-                this.asteroidDestroyed();
-            }
-
-            // Add more lives
-            else if (keyCode == KeyEvent.VK_N)
-            {
-                this.lives++;
-                this.drawLives();
-            }
-
-            // Accelerating - UP_ARROW
-            else if (keyCode == KeyEvent.VK_UP && !ship.keyControls[0])
-            {
-                ship.keyControls[0] = true;
-                playClip(thrustClip);
-            }
-
-            // Turn Right - RIGHT_ARROW
-            else if (keyCode == KeyEvent.VK_RIGHT && !ship.keyControls[1])
-            {
-                ship.keyControls[1] = true;
-            }
-
-            // Turn Left - LEFT_ARROW
-            else if (keyCode == KeyEvent.VK_LEFT && !ship.keyControls[2])
-            {
-                ship.keyControls[2] = true;
-            }
-
-            // Bullet Fired - SPACE_BAR
-            else if (keyCode == KeyEvent.VK_SPACE && numBullets < BULLET_LIMIT)
-            {
-                // Increase bullets, add Bullet participant, play Bullet fired clip
-                numBullets++;
-                addParticipant(new Bullet(ship.getXNose(), ship.getYNose(), ship.getRotation(), this));
-                playClip(fireClip);
-            }
+            clip.loop(Clip.LOOP_CONTINUOUSLY);
         }
     }
 
     /**
-     * If a key of interest is pressed, record it
+     * Stops the sound if it is playing
      */
     @Override
-    public void keyReleased (KeyEvent e)
+    public void stopSound (Sound sound)
     {
-        int keyCode = e.getKeyCode();
-
-        // Acclerating - UP_ARROW
-        if (keyCode == KeyEvent.VK_UP && ship != null)
-        {
-            ship.keyControls[0] = false;
-            ship.turnDrawThrustOff();
-        }
-
-        // Turn Right - RIGHT_ARROW
-        if (keyCode == KeyEvent.VK_RIGHT && ship != null)
+        Clip clip = clips.get(sound);
+        if (clip != null)
         {
-            ship.keyControls[1] = false;
-        }
-
-        // Turn Left - LEFT_ARROW
-        if (keyCode == KeyEvent.VK_LEFT && ship != null)
-        {
-            ship.keyControls[2] = false;
+            clip.stop();
         }
     }
 
-    /**
-     * These events are ignored.
-     */
-    @Override
-    public void keyTyped (KeyEvent e)
-    {
-    }
-
     /**
      * Creates an audio clip from a sound file.
      */
@@ -0,0 +1,570 @@
+package asteroids.game;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The outline of a participant broken into convex polygons, so that two outlines can be tested for overlap with the
+ * separating axis theorem instead of by intersecting Area objects.
+ *
+ * Each closed figure in the outline is flattened into a polygon. A convex polygon is kept as it is. A concave
+ * polygon (such as most of the asteroid varieties) is cut into triangles by ear clipping, and the triangles are then
+ * merged back together for as long as the result stays convex. Figures with no area, such as lines, produce no pieces
+ * at all, just as they produce an empty Area.
+ *
+ * Pieces are stored as arrays of interleaved coordinates { x0, y0, x1, y1, ... }. The convex hull of every point of the
+ * flattened outline, lines included, is kept the same way so that the bounding box of the outline can be found for any
+ * position and rotation without building a transformed Shape. A ConvexOutline is never modified after it is built.
+ */
+class ConvexOutline
+{
+    /** How closely flattened curves must follow the original, in pixels */
+    final static double FLATNESS = 0.25;
+
+    /** Tolerance used when deciding whether three points are in a straight line */
+    private final static double EPSILON = 1e-9;
+
+    /** The convex pieces in the outline's own coordinates */
+    private final double[][] pieces;
+
+    /** The convex hull of the flattened outline in the outline's own coordinates */
+    private final double[] hull;
+
+    /**
+     * Decomposes the outline into convex pieces.
+     */
+    ConvexOutline (Shape outline)
+    {
+        ArrayList<double[]> result = new ArrayList<double[]>();
+        for (double[] polygon : flatten(outline))
+        {
+            decompose(polygon, result);
+        }
+        pieces = result.toArray(new double[result.size()][]);
+        hull = hull(outline);
+    }
+
+    /**
+     * Returns the number of convex pieces.
+     */
+    int getPieceCount ()
+    {
+        return pieces.length;
+    }
+
+    /**
+     * Creates arrays big enough to hold this outline after it has been transformed by transform.
+     */
+    double[][] createBuffers ()
+    {
+        double[][] buffers = new double[pieces.length][];
+        for (int i = 0; i < pieces.length; i++)
+        {
+            buffers[i] = new double[pieces[i].length];
+        }
+        return buffers;
+    }
+
+    /**
+     * Rotates the pieces by rotation radians and then translates them by (x,y), writing the results into buffers,
+     * which must have come from createBuffers.
+     */
+    void transform (double x, double y, double rotation, double[][] buffers)
+    {
+        double cos = Math.cos(rotation);
+        double sin = Math.sin(rotation);
+        for (int i = 0; i < pieces.length; i++)
+        {
+            double[] from = pieces[i];
+            double[] to = buffers[i];
+            for (int v = 0; v < from.length; v += 2)
+            {
+                to[v] = x + from[v] * cos - from[v + 1] * sin;
+                to[v + 1] = y + from[v] * sin + from[v + 1] * cos;
+            }
+        }
+    }
+
+    /**
+     * Sets bounds to the bounding box of the outline after it has been rotated by rotation radians and then translated
+     * by (x,y). An empty outline has an empty box at (x,y).
+     */
+    void bounds (double x, double y, double rotation, Rectangle2D.Double bounds)
+    {
+        if (hull.length == 0)
+        {
+            bounds.setRect(x, y, 0, 0);
+            return;
+        }
+        double cos = Math.cos(rotation);
+        double sin = Math.sin(rotation);
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < hull.length; v += 2)
+        {
+            double px = hull[v] * cos - hull[v + 1] * sin;
+            double py = hull[v] * sin + hull[v + 1] * cos;
+            minX = Math.min(minX, px);
+            maxX = Math.max(maxX, px);
+            minY = Math.min(minY, py);
+            maxY = Math.max(maxY, py);
+        }
+        bounds.setRect(x + minX, y + minY, maxX - minX, maxY - minY);
+    }
+
+    /**
+     * Reports whether any piece in a overlaps any piece in b. Pieces that merely touch along an edge or at a corner do
+     * not overlap.
+     */
+    static boolean intersect (double[][] a, double[][] b)
+    {
+        for (double[] pa : a)
+        {
+            for (double[] pb : b)
+            {
+                if (!separated(pa, pb) && !separated(pb, pa))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reports whether one of the edge normals of convex polygon a is an axis along which a and b do not overlap.
+     */
+    private static boolean separated (double[] a, double[] b)
+    {
+        int n = a.length;
+        for (int v = 0; v < n; v += 2)
+        {
+            // The normal of the edge from vertex v to the next one
+            double axisX = a[v + 1] - a[(v + 3) % n];
+            double axisY = a[(v + 2) % n] - a[v];
+            if (axisX == 0 && axisY == 0)
+            {
+                continue;
+            }
+
+            // Project both polygons onto the normal
+            double minA = Double.POSITIVE_INFINITY, maxA = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i += 2)
+            {
+                double d = a[i] * axisX + a[i + 1] * axisY;
+                minA = Math.min(minA, d);
+                maxA = Math.max(maxA, d);
+            }
+            double minB = Double.POSITIVE_INFINITY, maxB = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < b.length; i += 2)
+            {
+                double d = b[i] * axisX + b[i + 1] * axisY;
+                minB = Math.min(minB, d);
+                maxB = Math.max(maxB, d);
+            }
+            if (maxA <= minB || maxB <= minA)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the convex hull, counterclockwise, of every point of the flattened outline.
+     */
+    private static double[] hull (Shape outline)
+    {
+        // Gather the points, whether or not they enclose any area
+        ArrayList<Double> points = new ArrayList<Double>();
+        double[] coords = new double[6];
+        for (PathIterator iter = outline.getPathIterator(null, FLATNESS); !iter.isDone(); iter.next())
+        {
+            int type = iter.currentSegment(coords);
+            if (type == PathIterator.SEG_MOVETO || type == PathIterator.SEG_LINETO)
+            {
+                points.add(coords[0]);
+                points.add(coords[1]);
+            }
+        }
+        int n = points.size() / 2;
+        final double[] pts = new double[n * 2];
+        for (int i = 0; i < pts.length; i++)
+        {
+            pts[i] = points.get(i);
+        }
+
+        // Sort the points from left to right, then build the lower and upper halves of the hull
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++)
+        {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>()
+        {
+            @Override
+            public int compare (Integer a, Integer b)
+            {
+                int result = Double.compare(pts[2 * a], pts[2 * b]);
+                return (result != 0) ? result : Double.compare(pts[2 * a + 1], pts[2 * b + 1]);
+            }
+        });
+        int[] chain = new int[2 * n + 1];
+        int k = 0;
+        for (int i = 0; i < n; i++)
+        {
+            while (k >= 2 && cross(pts, chain[k - 2], chain[k - 1], order[i]) <= 0)
+            {
+                k--;
+            }
+            chain[k++] = order[i];
+        }
+        for (int i = n - 2, lower = k + 1; i >= 0; i--)
+        {
+            while (k >= lower && cross(pts, chain[k - 2], chain[k - 1], order[i]) <= 0)
+            {
+                k--;
+            }
+            chain[k++] = order[i];
+        }
+
+        // The last point repeats the first, except for a single point
+        return coordinates(pts, Arrays.copyOf(chain, (n > 1) ? k - 1 : n));
+    }
+
+    /**
+     * Flattens the outline into a list of closed polygons, one per figure, dropping repeated points.
+     */
+    private static ArrayList<double[]> flatten (Shape outline)
+    {
+        ArrayList<double[]> polygons = new ArrayList<double[]>();
+        ArrayList<Double> current = new ArrayList<Double>();
+        double[] coords = new double[6];
+        for (PathIterator iter = outline.getPathIterator(null, FLATNESS); !iter.isDone(); iter.next())
+        {
+            int type = iter.currentSegment(coords);
+            if (type == PathIterator.SEG_MOVETO)
+            {
+                finishPolygon(current, polygons);
+                current.add(coords[0]);
+                current.add(coords[1]);
+            }
+            else if (type == PathIterator.SEG_LINETO)
+            {
+                int size = current.size();
+                if (size < 2 || current.get(size - 2) != coords[0] || current.get(size - 1) != coords[1])
+                {
+                    current.add(coords[0]);
+                    current.add(coords[1]);
+                }
+            }
+            else if (type == PathIterator.SEG_CLOSE)
+            {
+                finishPolygon(current, polygons);
+            }
+        }
+        finishPolygon(current, polygons);
+        return polygons;
+    }
+
+    /**
+     * Moves the points collected so far into a polygon, provided they enclose some area, and clears the points.
+     */
+    private static void finishPolygon (ArrayList<Double> points, ArrayList<double[]> polygons)
+    {
+        int size = points.size();
+
+        // The closing point duplicates the first one
+        if (size >= 4 && points.get(0).equals(points.get(size - 2)) && points.get(1).equals(points.get(size - 1)))
+        {
+            size -= 2;
+        }
+
+        double[] polygon = new double[size];
+        for (int i = 0; i < size; i++)
+        {
+            polygon[i] = points.get(i);
+        }
+        points.clear();
+
+        if (size >= 6 && Math.abs(signedArea(polygon)) > EPSILON)
+        {
+            polygons.add(polygon);
+        }
+    }
+
+    /**
+     * Adds convex pieces covering the simple polygon to pieces.
+     */
+    private static void decompose (double[] polygon, ArrayList<double[]> pieces)
+    {
+        // Points in a straight line with their neighbors, including the tips of
+        // zero-width spikes such as the tail fins of the ship, enclose no
+        // area. An Area made from the outline has none there either, until
+        // the outline is rotated, after which it keeps a sliver of no real
+        // width along each spike. The pieces leave those slivers out.
+        polygon = removeStraightPoints(polygon);
+        if (polygon.length < 6)
+        {
+            return;
+        }
+
+        // Work with vertices in counterclockwise order (positive area)
+        int n = polygon.length / 2;
+        double[] pts = polygon;
+        if (signedArea(polygon) < 0)
+        {
+            pts = new double[polygon.length];
+            for (int i = 0; i < n; i++)
+            {
+                pts[2 * i] = polygon[2 * (n - 1 - i)];
+                pts[2 * i + 1] = polygon[2 * (n - 1 - i) + 1];
+            }
+        }
+
+        int[] all = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            all[i] = i;
+        }
+        if (isConvex(pts, all))
+        {
+            pieces.add(coordinates(pts, all));
+            return;
+        }
+
+        // Cut into triangles, then merge neighboring triangles while they stay convex
+        ArrayList<int[]> parts = triangulate(pts, n);
+        merge(pts, parts);
+        for (int[] part : parts)
+        {
+            pieces.add(coordinates(pts, part));
+        }
+    }
+
+    /**
+     * Returns the polygon with every point removed that lies in a straight line with its neighbors, whether between
+     * them or beyond them. Removing a point can straighten its neighbors, so this repeats until nothing changes.
+     */
+    private static double[] removeStraightPoints (double[] polygon)
+    {
+        ArrayList<Integer> kept = new ArrayList<Integer>();
+        for (int i = 0; i < polygon.length / 2; i++)
+        {
+            kept.add(i);
+        }
+
+        boolean removed = true;
+        while (removed && kept.size() >= 3)
+        {
+            removed = false;
+            for (int i = 0; i < kept.size() && kept.size() >= 3; i++)
+            {
+                int size = kept.size();
+                int previous = kept.get((i + size - 1) % size);
+                int next = kept.get((i + 1) % size);
+                if (Math.abs(cross(polygon, previous, kept.get(i), next)) <= EPSILON)
+                {
+                    kept.remove(i);
+                    removed = true;
+                    i--;
+                }
+            }
+        }
+
+        double[] result = new double[kept.size() * 2];
+        for (int i = 0; i < kept.size(); i++)
+        {
+            result[2 * i] = polygon[2 * kept.get(i)];
+            result[2 * i + 1] = polygon[2 * kept.get(i) + 1];
+        }
+        return result;
+    }
+
+    /**
+     * Triangulates a counterclockwise simple polygon by ear clipping. The triangles are returned as vertex indices.
+     */
+    private static ArrayList<int[]> triangulate (double[] pts, int n)
+    {
+        ArrayList<int[]> triangles = new ArrayList<int[]>();
+        ArrayList<Integer> remaining = new ArrayList<Integer>();
+        for (int i = 0; i < n; i++)
+        {
+            remaining.add(i);
+        }
+
+        while (remaining.size() > 3)
+        {
+            int size = remaining.size();
+            boolean clipped = false;
+            for (int i = 0; i < size && !clipped; i++)
+            {
+                int prev = remaining.get((i + size - 1) % size);
+                int cur = remaining.get(i);
+                int next = remaining.get((i + 1) % size);
+                double turn = cross(pts, prev, cur, next);
+
+                // A point in a straight line with its neighbors contributes nothing
+                if (Math.abs(turn) <= EPSILON)
+                {
+                    remaining.remove(i);
+                    clipped = true;
+                }
+                else if (turn > 0 && isEar(pts, remaining, prev, cur, next))
+                {
+                    triangles.add(new int[] { prev, cur, next });
+                    remaining.remove(i);
+                    clipped = true;
+                }
+            }
+
+            // Only a self-intersecting outline has no ears. Cover what is left with a fan.
+            if (!clipped)
+            {
+                for (int i = 1; i + 1 < size; i++)
+                {
+                    triangles.add(new int[] { remaining.get(0), remaining.get(i), remaining.get(i + 1) });
+                }
+                return triangles;
+            }
+        }
+        if (remaining.size() == 3)
+        {
+            triangles.add(new int[] { remaining.get(0), remaining.get(1), remaining.get(2) });
+        }
+        return triangles;
+    }
+
+    /**
+     * Reports whether the triangle (prev,cur,next) contains none of the other remaining vertices.
+     */
+    private static boolean isEar (double[] pts, ArrayList<Integer> remaining, int prev, int cur, int next)
+    {
+        for (int v : remaining)
+        {
+            if (v != prev && v != cur && v != next && cross(pts, prev, cur, v) >= 0 && cross(pts, cur, next, v) >= 0
+                    && cross(pts, next, prev, v) >= 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Repeatedly joins two parts that share an edge whenever the joined part is convex.
+     */
+    private static void merge (double[] pts, ArrayList<int[]> parts)
+    {
+        boolean merged = true;
+        while (merged)
+        {
+            merged = false;
+            for (int i = 0; i < parts.size() && !merged; i++)
+            {
+                for (int j = i + 1; j < parts.size() && !merged; j++)
+                {
+                    int[] joined = join(parts.get(i), parts.get(j));
+                    if (joined != null && isConvex(pts, joined))
+                    {
+                        parts.set(i, joined);
+                        parts.remove(j);
+                        merged = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * If a has an edge (u,v) that b has as (v,u), returns the polygon made by removing that edge. Otherwise returns
+     * null.
+     */
+    private static int[] join (int[] a, int[] b)
+    {
+        for (int i = 0; i < a.length; i++)
+        {
+            int u = a[i];
+            int v = a[(i + 1) % a.length];
+            for (int j = 0; j < b.length; j++)
+            {
+                if (b[j] == v && b[(j + 1) % b.length] == u)
+                {
+                    // Walk a from v around to u, then b from u around to v, skipping the shared endpoints of b
+                    int[] joined = new int[a.length + b.length - 2];
+                    int k = 0;
+                    for (int step = 0; step < a.length; step++)
+                    {
+                        joined[k++] = a[(i + 1 + step) % a.length];
+                    }
+                    for (int step = 2; step < b.length; step++)
+                    {
+                        joined[k++] = b[(j + step) % b.length];
+                    }
+                    return joined;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reports whether the polygon made from the indexed points, in order, is convex and counterclockwise.
+     */
+    private static boolean isConvex (double[] pts, int[] polygon)
+    {
+        int n = polygon.length;
+        for (int i = 0; i < n; i++)
+        {
+            if (cross(pts, polygon[i], polygon[(i + 1) % n], polygon[(i + 2) % n]) < -EPSILON)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the interleaved coordinates of the indexed points.
+     */
+    private static double[] coordinates (double[] pts, int[] polygon)
+    {
+        double[] result = new double[polygon.length * 2];
+        for (int i = 0; i < polygon.length; i++)
+        {
+            result[2 * i] = pts[2 * polygon[i]];
+            result[2 * i + 1] = pts[2 * polygon[i] + 1];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the z component of (b - a) x (c - b), which is positive when a, b, c turn counterclockwise.
+     */
+    private static double cross (double[] pts, int a, int b, int c)
+    {
+        double abx = pts[2 * b] - pts[2 * a];
+        double aby = pts[2 * b + 1] - pts[2 * a + 1];
+        double bcx = pts[2 * c] - pts[2 * b];
+        double bcy = pts[2 * c + 1] - pts[2 * b + 1];
+        return abx * bcy - aby * bcx;
+    }
+
+    /**
+     * Returns the signed area of a polygon given as interleaved coordinates.
+     */
+    private static double signedArea (double[] polygon)
+    {
+        double sum = 0;
+        int n = polygon.length;
+        for (int i = 0; i < n; i += 2)
+        {
+            sum += polygon[i] * polygon[(i + 3) % n] - polygon[(i + 2) % n] * polygon[i + 1];
+        }
+        return sum / 2;
+    }
+}
@@ -0,0 +1,154 @@
+package asteroids.game;
+
+import java.awt.Rectangle;
+
+/**
+ * The parts of the screen that have to be redrawn for a frame, kept as a short list of rectangles. Rectangles that
+ * overlap, or nearly touch, are merged as they are added, so the list never holds two rectangles that overlap. If the
+ * list grows too long, everything in it is merged into one rectangle.
+ *
+ * Rectangles are clipped to the screen as they are added, and are reused from frame to frame.
+ */
+class DirtyRegions
+{
+    /** Most rectangles kept before they are all merged into one */
+    final static int MAX_REGIONS = 16;
+
+    /** Rectangles closer together than this many pixels are merged */
+    private final static int GAP = 8;
+
+    /** The width and height of the screen */
+    private final int width, height;
+
+    /** The rectangles, of which the first count are in use */
+    private final Rectangle[] regions;
+
+    /** Number of rectangles in use */
+    private int count;
+
+    /**
+     * Creates an empty list for a screen of the given size
+     */
+    DirtyRegions (int width, int height)
+    {
+        this.width = width;
+        this.height = height;
+        regions = new Rectangle[MAX_REGIONS];
+        for (int i = 0; i < MAX_REGIONS; i++)
+        {
+            regions[i] = new Rectangle();
+        }
+    }
+
+    /**
+     * Empties the list.
+     */
+    void clear ()
+    {
+        count = 0;
+    }
+
+    /**
+     * Adds the rectangle with the given corners, the first inclusive and the second exclusive.
+     */
+    void add (int left, int top, int right, int bottom)
+    {
+        // Keep to the screen
+        left = Math.max(left, 0);
+        top = Math.max(top, 0);
+        right = Math.min(right, width);
+        bottom = Math.min(bottom, height);
+        if (left >= right || top >= bottom)
+        {
+            return;
+        }
+
+        // Swallow every rectangle that is close enough, growing as they are
+        // swallowed, until none is left that is close enough
+        boolean merged = true;
+        while (merged)
+        {
+            merged = false;
+            for (int i = 0; i < count; i++)
+            {
+                Rectangle r = regions[i];
+                if (left <= r.x + r.width + GAP && r.x <= right + GAP && top <= r.y + r.height + GAP
+                        && r.y <= bottom + GAP)
+                {
+                    left = Math.min(left, r.x);
+                    top = Math.min(top, r.y);
+                    right = Math.max(right, r.x + r.width);
+                    bottom = Math.max(bottom, r.y + r.height);
+                    remove(i);
+                    merged = true;
+                    break;
+                }
+            }
+        }
+
+        // If there's no room for another, merge them all
+        if (count == MAX_REGIONS)
+        {
+            for (int i = 0; i < count; i++)
+            {
+                Rectangle r = regions[i];
+                left = Math.min(left, r.x);
+                top = Math.min(top, r.y);
+                right = Math.max(right, r.x + r.width);
+                bottom = Math.max(bottom, r.y + r.height);
+            }
+            count = 0;
+        }
+        regions[count++].setBounds(left, top, right - left, bottom - top);
+    }
+
+    /**
+     * Adds the rectangle, if it isn't null
+     */
+    void add (Rectangle r)
+    {
+        if (r != null)
+        {
+            add(r.x, r.y, r.x + r.width, r.y + r.height);
+        }
+    }
+
+    /**
+     * Returns the number of rectangles
+     */
+    int size ()
+    {
+        return count;
+    }
+
+    /**
+     * Returns the ith rectangle, which must not be modified and is only good until the list next changes
+     */
+    Rectangle get (int i)
+    {
+        return regions[i];
+    }
+
+    /**
+     * Returns the fraction of the screen covered by the rectangles
+     */
+    double getCoverage ()
+    {
+        long area = 0;
+        for (int i = 0; i < count; i++)
+        {
+            area += (long) regions[i].width * regions[i].height;
+        }
+        return (double) area / ((long) width * height);
+    }
+
+    /**
+     * Removes the ith rectangle, keeping its object for reuse.
+     */
+    private void remove (int i)
+    {
+        Rectangle r = regions[i];
+        regions[i] = regions[--count];
+        regions[count] = r;
+    }
+}
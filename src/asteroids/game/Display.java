@@ -3,17 +3,27 @@ package asteroids.game;
 import javax.swing.*;
 import static asteroids.game.Constants.*;
 import java.awt.*;
-import java.util.ArrayList;
 
 /**
  * Defines the top-level appearance of an Asteroids game.
+ *
+ * Frames are normally painted by Swing on the event thread, which repaints only the parts of the screen that changed.
+ * If the asteroids.activeRendering system property is "true", the screen's frames are instead drawn on an
+ * {@link asteroids.game.ActiveCanvas} and shown at once by whichever thread calls refresh. Active rendering is not
+ * used where there is no display to render to.
  */
 @SuppressWarnings("serial")
 public class Display extends JFrame
 {
+    /** System property that turns active rendering on when it is "true" */
+    public final static String ACTIVE_RENDERING_PROPERTY = "asteroids.activeRendering";
+
     /** The area where the action takes place */
     private Screen screen;
 
+    /** The canvas on which the screen's frames are shown, or null if Swing paints the screen */
+    private ActiveCanvas canvas;
+
     /**
      * Lays out the game and creates the controller
      */
@@ -27,12 +37,17 @@ public class Display extends JFrame
 
         // The main playing area and the controller
         screen = new Screen(controller);
+        boolean active = "true".equalsIgnoreCase(System.getProperty(ACTIVE_RENDERING_PROPERTY));
+        if (active && !GraphicsEnvironment.isHeadless())
+        {
+            canvas = new ActiveCanvas(screen);
+        }
 
-        // This panel contains the screen to prevent the screen from being
-        // resized
+        // This panel contains the screen, or the canvas that shows it, to
+        // prevent it from being resized
         JPanel screenPanel = new JPanel();
         screenPanel.setLayout(new GridBagLayout());
-        screenPanel.add(screen);
+        screenPanel.add(canvas == null ? screen : canvas);
 
         // This panel contains buttons and labels
         JPanel controls = new JPanel();
@@ -54,42 +69,45 @@ public class Display extends JFrame
     }
 
     /**
-     * Called when it is time to update the screen display. This is what drives the animation.
+     * Reports whether frames are drawn and shown directly by refresh rather than painted by Swing
      */
-    public void refresh ()
+    public boolean isActiveRendering ()
     {
-        screen.repaint();
+        return canvas != null;
     }
 
     /**
-     * Sets the large legend
+     * Reports whether frames are shown by page flipping. This is only ever true when rendering actively, and only once
+     * the first frame has been shown.
      */
-    public void setLegend (String s)
+    public boolean isPageFlipping ()
     {
-        screen.setLegend(s);
+        return canvas != null && canvas.isPageFlipping();
     }
-    
-    /**
-     * Sets the high scores
-     */
-    public void setHighScores (ArrayList<Integer> highScores)
-    {
-        this.screen.setHighScores(highScores);
-    }
-    
+
     /**
-     * Set the score
+     * Returns the timings of the frames that have reached the display
      */
-    public void setScore (int score)
+    public FrameTimings getFrameTimings ()
     {
-        this.screen.setScore(score);
+        return screen.getFrameTimings();
     }
 
     /**
-     * Set the level
+     * Called when it is time to update the screen display. This is what drives the animation. The screen draws the
+     * most recent snapshot of the game. When rendering actively, the frame is drawn and shown before this returns, and
+     * this must always be called from the same thread. Otherwise this must be called from the event thread, and the
+     * parts of the screen that changed are repainted before this returns.
      */
-    public void setLevel (int level)
+    public void refresh ()
     {
-        this.screen.setLevel(level);
+        if (canvas != null)
+        {
+            canvas.render();
+        }
+        else
+        {
+            screen.refresh();
+        }
     }
 }
@@ -0,0 +1,99 @@
+package asteroids.game;
+
+/**
+ * Decides how many game ticks to run each time the simulation wakes up (a "refresh"), so that the game advances at a
+ * steady number of ticks per second no matter how often or how late the refreshes come. The time that has passed since
+ * the last refresh is added to an accumulator, and one tick is run for every whole tick's worth of time in it. What is
+ * left over, as a fraction of a tick, is how long the simulation can sleep before the next tick is due.
+ *
+ * If the refreshes fall too far behind, the excess time is dropped rather than run all at once, so the game slows down
+ * instead of freezing while it catches up.
+ */
+class FixedTimestep
+{
+    /** Most ticks that are ever run for one refresh */
+    private final static int MAX_TICKS_PER_REFRESH = 5;
+
+    /** Length of a tick in nanoseconds, which may be changed from any thread */
+    private volatile long tickNanos;
+
+    /** Time in nanoseconds that has passed but has not been run as ticks */
+    private long accumulated;
+
+    /** Time in nanoseconds of the last refresh, or -1 before the first one */
+    private long last;
+
+    /**
+     * Creates a timestep that runs the given number of ticks per second.
+     */
+    FixedTimestep (double ticksPerSecond)
+    {
+        setTickRate(ticksPerSecond);
+        reset();
+    }
+
+    /**
+     * Sets the number of ticks per second, which must be positive.
+     */
+    void setTickRate (double ticksPerSecond)
+    {
+        if (!(ticksPerSecond > 0))
+        {
+            throw new IllegalArgumentException("Invalid tick rate: " + ticksPerSecond);
+        }
+        tickNanos = Math.max(1, Math.round(1e9 / ticksPerSecond));
+    }
+
+    /**
+     * Returns the number of ticks per second.
+     */
+    double getTickRate ()
+    {
+        return 1e9 / tickNanos;
+    }
+
+    /**
+     * Forgets any time that has passed, so that the next refresh runs no ticks.
+     */
+    void reset ()
+    {
+        accumulated = 0;
+        last = -1;
+    }
+
+    /**
+     * Records a refresh at the given time (from System.nanoTime) and returns the number of ticks that should be run.
+     */
+    int advance (long now)
+    {
+        if (last >= 0)
+        {
+            accumulated += Math.max(0, now - last);
+        }
+        last = now;
+
+        int ticks = (int) Math.min(MAX_TICKS_PER_REFRESH, accumulated / tickNanos);
+        accumulated -= ticks * tickNanos;
+        if (accumulated >= tickNanos)
+        {
+            accumulated %= tickNanos;
+        }
+        return ticks;
+    }
+
+    /**
+     * Returns the length of a tick in nanoseconds.
+     */
+    long getTickNanos ()
+    {
+        return tickNanos;
+    }
+
+    /**
+     * Returns the time in nanoseconds from the last refresh until the next tick is due.
+     */
+    long untilNextTick ()
+    {
+        return tickNanos - accumulated;
+    }
+}
@@ -0,0 +1,167 @@
+package asteroids.game;
+
+import java.util.Arrays;
+
+/**
+ * Measures how steadily frames reach the screen. Each time a frame is presented its time is recorded, and the intervals
+ * between the most recent frames are kept so that their mean, spread, and worst cases can be reported. A frame counts
+ * as presented when it has been handed to the display: after the buffer strategy shows it when rendering actively, or
+ * when the panel has finished painting it otherwise.
+ *
+ * Frames are recorded by the thread that paints the screen. The methods are synchronized so that the figures may be
+ * read from any thread.
+ */
+public class FrameTimings
+{
+    /** Number of intervals kept, by default */
+    public final static int DEFAULT_CAPACITY = 1024;
+
+    /** The most recent intervals in nanoseconds, oldest overwritten first */
+    private final long[] intervals;
+
+    /** Number of intervals recorded since the last reset, some of which may have been overwritten */
+    private long frames;
+
+    /** Time in nanoseconds of the last frame, or -1 if none has been recorded since the last reset */
+    private long last;
+
+    /** Time in nanoseconds of the first frame since the last reset */
+    private long first;
+
+    /**
+     * Creates timings that keep the default number of intervals
+     */
+    public FrameTimings ()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates timings that keep the given number of the most recent intervals
+     */
+    public FrameTimings (int capacity)
+    {
+        intervals = new long[capacity];
+        reset();
+    }
+
+    /**
+     * Records that a frame was presented at the given time (from System.nanoTime).
+     */
+    synchronized void presented (long now)
+    {
+        if (last < 0)
+        {
+            first = now;
+        }
+        else
+        {
+            intervals[(int) (frames++ % intervals.length)] = now - last;
+        }
+        last = now;
+    }
+
+    /**
+     * Forgets every frame recorded so far.
+     */
+    public synchronized void reset ()
+    {
+        frames = 0;
+        last = -1;
+        first = -1;
+    }
+
+    /**
+     * Returns the number of intervals between frames recorded since the last reset
+     */
+    public synchronized long getFrames ()
+    {
+        return frames;
+    }
+
+    /**
+     * Returns the seconds from the first frame to the last since the last reset
+     */
+    public synchronized double getSeconds ()
+    {
+        return last < 0 ? 0 : (last - first) / 1e9;
+    }
+
+    /**
+     * Returns the mean interval between the kept frames, in milliseconds
+     */
+    public synchronized double getMeanMillis ()
+    {
+        int kept = kept();
+        if (kept == 0)
+        {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < kept; i++)
+        {
+            total += intervals[i];
+        }
+        return total / 1e6 / kept;
+    }
+
+    /**
+     * Returns the standard deviation of the intervals between the kept frames, in milliseconds. A steadily paced
+     * display has a deviation near zero.
+     */
+    public synchronized double getDeviationMillis ()
+    {
+        int kept = kept();
+        if (kept == 0)
+        {
+            return 0;
+        }
+        double mean = getMeanMillis();
+        double sum = 0;
+        for (int i = 0; i < kept; i++)
+        {
+            double d = intervals[i] / 1e6 - mean;
+            sum += d * d;
+        }
+        return Math.sqrt(sum / kept);
+    }
+
+    /**
+     * Returns the interval, in milliseconds, that the given fraction (between 0 and 1) of the kept intervals do not
+     * exceed. A fraction of 1 gives the longest interval.
+     */
+    public synchronized double getPercentileMillis (double fraction)
+    {
+        int kept = kept();
+        if (kept == 0)
+        {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(intervals, kept);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(fraction * kept) - 1;
+        return sorted[Math.max(0, Math.min(kept - 1, index))] / 1e6;
+    }
+
+    /**
+     * Returns a summary of the kept intervals
+     */
+    @Override
+    public synchronized String toString ()
+    {
+        double mean = getMeanMillis();
+        return String.format(
+                "%d frames in %.2f s: mean %.2f ms (%.1f fps), deviation %.2f ms, median %.2f ms, 99th %.2f ms, "
+                        + "max %.2f ms",
+                frames, getSeconds(), mean, mean > 0 ? 1000 / mean : 0, getDeviationMillis(),
+                getPercentileMillis(0.5), getPercentileMillis(0.99), getPercentileMillis(1));
+    }
+
+    /**
+     * Returns the number of intervals kept
+     */
+    private int kept ()
+    {
+        return (int) Math.min(frames, intervals.length);
+    }
+}
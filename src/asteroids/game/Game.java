@@ -0,0 +1,837 @@
+package asteroids.game;
+
+import static asteroids.game.Constants.*;
+import asteroids.participants.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The rules of a game of Asteroids. A game depends only on its participants. It has no display, keyboard, sound, or
+ * clock of its own. Something else calls {@link #tick(InputState)} to move it forward, and hears about sounds and the
+ * end of the game through a {@link asteroids.game.GameListener}. The {@link asteroids.game.Controller} runs a game in
+ * a window in real time, and the {@link asteroids.game.HeadlessRunner} runs one as fast as it can.
+ *
+ * Every delay in the game, such as the beat and the wait before an alien ship appears, is counted in ticks of
+ * FRAME_INTERVAL milliseconds, so a game plays out the same way no matter how quickly its ticks are run. Random
+ * choices are drawn from {@link asteroids.game.RandomStream}s split from the game's seed, one for each part of the
+ * game, so a game is determined by its seed and the input given to each tick.
+ */
+public class Game
+{
+    /** The sound looped while an alien ship of each size is on the screen */
+    private final static Sound[] SAUCER_SOUNDS = { Sound.SAUCER_SMALL, Sound.SAUCER_BIG };
+
+    /** The state of all the Participants */
+    private ParticipantState pstate;
+
+    /** Hears about sounds and the end of the game, or null if nothing is listening */
+    private GameListener listener;
+
+    /** The seed from which every random choice in the game follows */
+    private final long seed;
+
+    /** The values that govern how the game plays, which belong to this game alone */
+    private final GameSettings settings;
+
+    /** Random choices made when placing the asteroids at the start of a level */
+    private RandomStream spawnRandom;
+
+    /** Random choices made by asteroids as they are created and split */
+    private RandomStream asteroidRandom;
+
+    /** Random choices made by debris as it scatters */
+    private RandomStream debrisRandom;
+
+    /** Random choices made by alien ships */
+    private RandomStream alienRandom;
+
+    /** The ship (if one is active) or null (otherwise) */
+    private Ship ship;
+
+    /** The AlienShip */
+    private AlienShip alienShip;
+
+    /** Number of ticks that have been run */
+    private long tick;
+
+    /** The tick on which the next alien ship may appear, or Long.MAX_VALUE if none is on its way */
+    private long alienShipSpawnTick;
+
+    /** The tick on which the next beat is played, or Long.MAX_VALUE if the beat is stopped */
+    private long beatTick;
+
+    /** Interval between beats in milliseconds */
+    private int beatInterval;
+
+    /** If beat1 was played last */
+    private boolean beat1Last;
+
+    /** Number of lives left */
+    private int lives;
+
+    /** List of the life objects */
+    private ArrayList<Lives> lifeList = new ArrayList<Lives>();
+
+    /** Keeps track of active bullets */
+    private int numBullets;
+
+    /** The current level */
+    private int level;
+
+    /** Players current score */
+    private int score;
+
+    /** Legend that is displayed across the screen */
+    private String legend;
+
+    /** Whether a game has begun, so that the score and level are displayed */
+    private boolean started;
+
+    /** Whether the game is over */
+    private boolean over;
+
+    /**
+     * The tick on which a transition to a new stage of the game should be made. A transition is scheduled a few
+     * seconds in the future to give the user time to see what has happened before doing something like going to a new
+     * level or resetting the current level.
+     */
+    private long transitionTick;
+
+    /**
+     * Creates a game with an empty screen and a seed that differs from one game to the next
+     */
+    public Game ()
+    {
+        this(System.nanoTime());
+    }
+
+    /**
+     * Creates a game with an empty screen, the given seed, and the settings in Constants
+     */
+    public Game (long seed)
+    {
+        this(seed, new GameSettings());
+    }
+
+    /**
+     * Creates a game with an empty screen, the given seed, and a copy of the given settings
+     */
+    public Game (long seed, GameSettings settings)
+    {
+        // Give each part of the game a stream of its own
+        this.seed = seed;
+        this.settings = new GameSettings(settings);
+        RandomStream root = new RandomStream(seed);
+        spawnRandom = root.split();
+        asteroidRandom = root.split();
+        debrisRandom = root.split();
+        alienRandom = root.split();
+
+        pstate = new ParticipantState();
+        legend = "";
+        transitionTick = Long.MAX_VALUE;
+        alienShipSpawnTick = Long.MAX_VALUE;
+        beatTick = Long.MAX_VALUE;
+    }
+
+    /**
+     * Sets the listener that hears about sounds and the end of the game, or null for none
+     */
+    public void setListener (GameListener listener)
+    {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the seed from which every random choice in the game follows
+     */
+    public long getSeed ()
+    {
+        return seed;
+    }
+
+    /**
+     * Returns the values that govern how this game plays. Changes made to them take effect as the game goes on.
+     */
+    public GameSettings getSettings ()
+    {
+        return settings;
+    }
+
+    /**
+     * Returns the stream of random choices made by asteroids as they are created and split
+     */
+    public RandomStream getAsteroidRandom ()
+    {
+        return asteroidRandom;
+    }
+
+    /**
+     * Returns the stream of random choices made by alien ships
+     */
+    public RandomStream getAlienRandom ()
+    {
+        return alienRandom;
+    }
+
+    /**
+     * Returns the state of the participants, which can be used to configure collision detection and read statistics
+     */
+    public ParticipantState getParticipantState ()
+    {
+        return pstate;
+    }
+
+    /**
+     * Returns the active participants, which can be iterated over but not removed
+     */
+    public Iterable<Participant> getParticipants ()
+    {
+        return pstate.getParticipants();
+    }
+
+    /**
+     * Returns the number of ticks that have been run
+     */
+    public long getTick ()
+    {
+        return tick;
+    }
+
+    /**
+     * Returns the ship, or null if there isn't one
+     *
+     * @return Current asteroids.participants.Ship
+     */
+    public Ship getShip ()
+    {
+        return ship;
+    }
+
+    /**
+     * Returns the AlienShip
+     *
+     * @return Current participants.AlienShip
+     */
+    public AlienShip getAlienShip ()
+    {
+        return this.alienShip;
+    }
+
+    /**
+     * Add to the score
+     */
+    public void addScore (int points)
+    {
+        this.score += points;
+    }
+
+    /**
+     * Get the current score
+     *
+     * @return score
+     */
+    public int getScore ()
+    {
+        return this.score;
+    }
+
+    /**
+     * Get the current level
+     *
+     * @return level
+     */
+    public int getLevel ()
+    {
+        return this.level;
+    }
+
+    /**
+     * Get the number of lives left
+     *
+     * @return lives
+     */
+    public int getLives ()
+    {
+        return this.lives;
+    }
+
+    /**
+     * Returns the legend that is displayed across the screen
+     */
+    public String getLegend ()
+    {
+        return legend;
+    }
+
+    /**
+     * Reports whether a game has begun, so that the score and level should be displayed
+     */
+    public boolean isStarted ()
+    {
+        return started;
+    }
+
+    /**
+     * Reports whether the game is over
+     */
+    public boolean isOver ()
+    {
+        return over;
+    }
+
+    /**
+     * Plays a sound, if anything is listening
+     */
+    public void playSound (Sound sound)
+    {
+        if (listener != null)
+        {
+            listener.playSound(sound);
+        }
+    }
+
+    /**
+     * Configures the game screen to display the splash screen
+     */
+    public void splashScreen ()
+    {
+        // Clear the screen, reset the level, and display the legend
+        clear();
+        legend = "Asteroids";
+
+        // Place four asteroids near the corners of the screen.
+        placeAsteroids();
+    }
+
+    /**
+     * The game is over. Displays a message to that effect.
+     */
+    private void finalScreen ()
+    {
+        legend = GAME_OVER;
+        over = true;
+
+        if (listener != null)
+        {
+            listener.gameOver(score);
+        }
+    }
+
+    /**
+     * Place a new ship in the center of the screen. Remove any existing ship first.
+     */
+    private void placeShip ()
+    {
+        // Place a new ship
+        Participant.expire(ship);
+        ship = new Ship(SIZE / 2, SIZE / 2, -Math.PI / 2, this);
+        addParticipant(ship);
+        legend = "";
+
+        // Reset all beat related vars, and start the beat
+        this.beatInterval = INITIAL_BEAT;
+        this.beat1Last = false;
+        this.beatTick = tick + ParticipantCountdownTimer.toTicks(beatInterval);
+    }
+
+    /**
+     * Creates the lives remaining visual and assigns them to lifeList
+     */
+    public void drawLives ()
+    {
+        for (Lives life : lifeList)
+        {
+            Participant.expire(life);
+        }
+        lifeList.clear();
+
+        for (int life = 0; life < this.lives; life++)
+        {
+            this.lifeList.add(new Lives(life));
+            addParticipant(this.lifeList.get(life));
+        }
+    }
+
+    /**
+     * Places an asteroid near one corner of the screen. Gives it a random velocity and rotation.
+     */
+    private void placeAsteroids ()
+    {
+        // distance from top left of the screen [ 0, 0 ]
+        int xOffSet;
+        int yOffSet;
+
+        for (int i = 0; i < 3 + this.level; i++)
+        {
+            // Depending on value from spawnRandom, Asteroids are randomly placed in the 4 corners of the screen.
+            // Asteroid will always be placed EDGE_OFFSET away from the edge of the screen
+            xOffSet = EDGE_OFFSET + ((SIZE - (EDGE_OFFSET * 2)) * spawnRandom.nextInt(2));
+            yOffSet = EDGE_OFFSET + ((SIZE - (EDGE_OFFSET * 2)) * spawnRandom.nextInt(2));
+
+            addParticipant(new Asteroid(spawnRandom.nextInt(4), 2, xOffSet, yOffSet, this));
+        }
+    }
+
+    /**
+     * Clears the screen so that nothing is displayed
+     */
+    private void clear ()
+    {
+        pstate.clear();
+        legend = "";
+        ship = null;
+        alienShip = null;
+    }
+
+    /**
+     * Sets things up and begins a new game.
+     */
+    public void newGame ()
+    {
+        // Reset statistics
+        this.lives = settings.getInitialLives();
+        this.score = 0;
+        this.level = 1;
+        this.started = true;
+        this.over = false;
+
+        // Clear the screen
+        clear();
+
+        // Place asteroids
+        placeAsteroids();
+
+        // Place the ship
+        placeShip();
+
+        // Place lives remaining
+        drawLives();
+    }
+
+    /**
+     * Go to the next level
+     */
+    public void nextLevel ()
+    {
+        // Clear Screen
+        clear();
+
+        // Update Level
+        this.level++;
+
+        // Place asteroids
+        placeAsteroids();
+
+        // Place the ship
+        placeShip();
+
+        // Place lives remaining
+        drawLives();
+
+        // Start the countdown for the alienShip arrival
+        startAlienShipSpawn();
+    }
+
+    /**
+     * Adds a new Participant
+     */
+    public void addParticipant (Participant p)
+    {
+        pstate.addParticipant(p);
+    }
+
+    /**
+     * The ship has been destroyed
+     */
+    public void shipDestroyed ()
+    {
+        // Null out the ship
+        ship = null;
+
+        // Decrement lives
+        lives--;
+
+        // Update lifeList
+        Participant.expire(lifeList.get(lives));
+        lifeList.remove(lives);
+
+        // Since the ship was destroyed, schedule a transition
+        scheduleTransition(END_DELAY);
+
+        // Play ship destroyed sound
+        playSound(Sound.BANG_SHIP);
+
+        // Stop the beat
+        this.beatTick = Long.MAX_VALUE;
+    }
+
+    /**
+     * AlienShip has been destroyed
+     */
+    public void alienShipDestroyed ()
+    {
+        // Stop alienShip sound
+        if (listener != null)
+        {
+            listener.stopSound(SAUCER_SOUNDS[alienShip.getAlienShipSize()]);
+        }
+
+        // Null out the AlienShip
+        this.alienShip = null;
+
+        // Restart the spawn countdown
+        startAlienShipSpawn();
+
+        // Play AlienShip destroyed sound
+        playSound(Sound.BANG_ALIEN_SHIP);
+    }
+
+    /**
+     * An asteroid has been destroyed
+     */
+    public void asteroidDestroyed ()
+    {
+        // If all the asteroids are gone, schedule a transition
+        if (pstate.countAsteroids() == 0)
+        {
+            this.alienShipSpawnTick = Long.MAX_VALUE;
+            scheduleTransition(END_DELAY);
+        }
+    }
+
+    /**
+     * A bullet has been destroyed
+     */
+    public void bulletDestroyed ()
+    {
+        numBullets--;
+    }
+
+    /**
+     * Schedules a transition m msecs in the future
+     */
+    private void scheduleTransition (int m)
+    {
+        transitionTick = tick + ParticipantCountdownTimer.toTicks(m);
+    }
+
+    /**
+     * Starts the countdown to the next alien ship, unless it is already running
+     */
+    private void startAlienShipSpawn ()
+    {
+        if (alienShipSpawnTick == Long.MAX_VALUE)
+        {
+            alienShipSpawnTick = tick + ParticipantCountdownTimer.toTicks(settings.getAlienDelay());
+        }
+    }
+
+    /**
+     * Creates Debris when a Ship (Ship or AlienShip) is destroyed
+     *
+     * @param x, y
+     */
+    public void createShipDebris (double x, double y)
+    {
+        createAsteroidDebris(x, y);
+
+        for (int i = 0; i < 2; i++)
+        {
+            addParticipant(new Debris(x, y, "line", debrisRandom));
+        }
+    }
+
+    /**
+     * Creates Debris when an Asteroid is destroyed
+     *
+     * @param x, y
+     */
+    public void createAsteroidDebris (double x, double y)
+    {
+        for (int i = 0; i < 5; i++)
+        {
+            addParticipant(new Debris(x, y, "Circle", debrisRandom));
+        }
+    }
+
+    /**
+     * Runs one tick of the game with the given input: starts a new game if the input asks for one, plays the beat and
+     * brings on the alien ship when they are due, acts on the rest of the input, makes any transition that is due, and
+     * moves the participants.
+     */
+    public void tick (InputState in)
+    {
+        tick++;
+
+        // The start button has been pressed. Stop whatever we're doing
+        // and bring up the initial screen
+        if (in.wasPressed(InputState.NEW_GAME))
+        {
+            newGame();
+        }
+
+        // Time for a beat
+        if (tick >= beatTick)
+        {
+            beat();
+        }
+
+        // If it's time to start UFO encounters
+        if (tick >= alienShipSpawnTick)
+        {
+            spawnAlienShip();
+        }
+
+        // Act on the player's input
+        applyInput(in);
+
+        // It may be time to make a game transition
+        performTransition();
+
+        // Move the participants to their new locations
+        pstate.moveParticipants();
+    }
+
+    /**
+     * Plays the next beat and schedules the one after, which comes a little sooner
+     */
+    private void beat ()
+    {
+        playSound(beat1Last ? Sound.BEAT2 : Sound.BEAT1);
+
+        beat1Last = beat1Last ? false : true;
+
+        this.beatInterval -= BEAT_DELTA;
+
+        if (this.beatInterval < BEAT_DELTA)
+        {
+            this.beatInterval = BEAT_DELTA;
+        }
+
+        this.beatTick = tick + ParticipantCountdownTimer.toTicks(beatInterval);
+    }
+
+    /**
+     * Brings on an alien ship if there isn't one and the level is past the first, or else tries again after another
+     * alien delay
+     */
+    private void spawnAlienShip ()
+    {
+        if (this.alienShip == null && this.level > 1)
+        {
+            // Stop the spawn countdown
+            this.alienShipSpawnTick = Long.MAX_VALUE;
+
+            // Create AlienShip with size in respect to current level
+            this.alienShip = this.getLevel() == 2 ? new AlienShip(1, this) : new AlienShip(0, this);
+            addParticipant(this.alienShip);
+
+            // Loop AlienShip sound
+            if (listener != null)
+            {
+                listener.loopSound(SAUCER_SOUNDS[alienShip.getAlienShipSize()]);
+            }
+        }
+        else
+        {
+            this.alienShipSpawnTick = tick + ParticipantCountdownTimer.toTicks(settings.getAlienDelay());
+        }
+    }
+
+    /**
+     * Acts on the input sampled for this tick.
+     */
+    private void applyInput (InputState in)
+    {
+        if (this.getShip() != null)
+        {
+            // Destroy all asteroids and advance
+            if (in.wasPressed(InputState.CLEAR_ASTEROIDS))
+            {
+                pstate.clearAsteroids();
+                this.asteroidDestroyed();
+            }
+
+            // Add more lives
+            if (in.wasPressed(InputState.ADD_LIFE))
+            {
+                this.lives++;
+                this.drawLives();
+            }
+
+            // Accelerating - UP_ARROW
+            if (in.wentDown(InputState.THRUST))
+            {
+                playSound(Sound.THRUST);
+            }
+
+            // Bullet Fired - SPACE_BAR
+            if (in.wasPressed(InputState.FIRE) && numBullets < settings.getBulletLimit())
+            {
+                // Increase bullets, add Bullet participant, play Bullet fired sound
+                numBullets++;
+                addParticipant(new Bullet(ship.getXNose(), ship.getYNose(), ship.getRotation(), this));
+                playSound(Sound.FIRE);
+            }
+
+            // Turn and accelerate
+            ship.applyInput(in);
+        }
+    }
+
+    /**
+     * If the transition time has been reached, transition to a new state
+     */
+    private void performTransition ()
+    {
+        // Do something only if the time has been reached
+        if (transitionTick <= tick)
+        {
+            // Clear the transition time
+            transitionTick = Long.MAX_VALUE;
+
+            // If there are no lives left, the game is over. Show the final screen.
+            if (lives <= 0)
+            {
+                finalScreen();
+            }
+            else if (pstate.countAsteroids() == 0)
+            {
+                this.nextLevel();
+            }
+            else
+            {
+                placeShip();
+            }
+        }
+    }
+
+    /**
+     * Writes everything about the game apart from its seed and settings: the counters and countdowns of the game
+     * itself, the state of its random streams, and then its participants and their countdowns. Throws a
+     * NotSerializableException if a participant or one of its countdowns can't be written.
+     */
+    void write (DataOutput out) throws IOException
+    {
+        // The game's own state
+        out.writeLong(tick);
+        out.writeLong(alienShipSpawnTick);
+        out.writeLong(beatTick);
+        out.writeInt(beatInterval);
+        out.writeBoolean(beat1Last);
+        out.writeInt(lives);
+        out.writeInt(numBullets);
+        out.writeInt(level);
+        out.writeInt(score);
+        out.writeUTF(legend);
+        out.writeBoolean(started);
+        out.writeBoolean(over);
+        out.writeLong(transitionTick);
+        for (RandomStream r : new RandomStream[] { spawnRandom, asteroidRandom, debrisRandom, alienRandom })
+        {
+            out.writeLong(r.getState());
+            out.writeLong(r.getGamma());
+        }
+
+        // The participants, and which of them are the ship, the alien ship, and the lives
+        Participant[] written = pstate.write(out);
+        out.writeInt(indexOf(written, ship));
+        out.writeInt(indexOf(written, alienShip));
+        out.writeInt(lifeList.size());
+        for (Lives life : lifeList)
+        {
+            out.writeInt(indexOf(written, life));
+        }
+    }
+
+    /**
+     * Reads what write wrote into this game, which must have just been created with the same seed and settings.
+     * Throws an IOException if what is read is not valid.
+     */
+    void read (DataInput in) throws IOException
+    {
+        // The game's own state, including the random streams that participants use as they are read
+        tick = in.readLong();
+        alienShipSpawnTick = in.readLong();
+        beatTick = in.readLong();
+        beatInterval = in.readInt();
+        beat1Last = in.readBoolean();
+        lives = in.readInt();
+        numBullets = in.readInt();
+        level = in.readInt();
+        score = in.readInt();
+        legend = in.readUTF();
+        started = in.readBoolean();
+        over = in.readBoolean();
+        transitionTick = in.readLong();
+        try
+        {
+            spawnRandom = new RandomStream(in.readLong(), in.readLong());
+            asteroidRandom = new RandomStream(in.readLong(), in.readLong());
+            debrisRandom = new RandomStream(in.readLong(), in.readLong());
+            alienRandom = new RandomStream(in.readLong(), in.readLong());
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IOException(e.getMessage());
+        }
+
+        // The participants, and which of them are the ship, the alien ship, and the lives
+        Participant[] read = pstate.read(in, this);
+        ship = participantAt(read, in.readInt(), Ship.class);
+        alienShip = participantAt(read, in.readInt(), AlienShip.class);
+        lifeList.clear();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++)
+        {
+            Lives life = participantAt(read, in.readInt(), Lives.class);
+            if (life == null)
+            {
+                throw new IOException("Missing life");
+            }
+            lifeList.add(life);
+        }
+    }
+
+    /**
+     * Returns the index of p in the array, or -1 if p is null or not in it
+     */
+    private static int indexOf (Participant[] participants, Participant p)
+    {
+        return p == null ? -1 : Arrays.asList(participants).indexOf(p);
+    }
+
+    /**
+     * Returns the participant at the index, or null if the index is -1. Throws an IOException if the index is out of
+     * range or the participant is not of the given class.
+     */
+    private static <T extends Participant> T participantAt (Participant[] participants, int index, Class<T> type)
+            throws IOException
+    {
+        if (index == -1)
+        {
+            return null;
+        }
+        if (index < 0 || index >= participants.length || participants[index].getClass() != type)
+        {
+            throw new IOException("Invalid reference to a " + type.getSimpleName());
+        }
+        return type.cast(participants[index]);
+    }
+
+    /**
+     * Fills in the participants and the legend, score, and level of a snapshot of what is to be drawn.
+     */
+    void capture (RenderSnapshot snapshot)
+    {
+        pstate.capture(snapshot);
+        snapshot.legend = legend;
+        snapshot.showStats = started;
+        snapshot.score = score;
+        snapshot.level = level;
+    }
+}
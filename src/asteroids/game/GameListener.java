@@ -0,0 +1,28 @@
+package asteroids.game;
+
+/**
+ * Hears about the things a {@link asteroids.game.Game} does that a front end may want to show or play. The methods
+ * are called on whatever thread is running the game's ticks.
+ */
+public interface GameListener
+{
+    /**
+     * Plays the sound once from the beginning, cutting off any earlier playing of it.
+     */
+    void playSound (Sound sound);
+
+    /**
+     * Plays the sound over and over until it is stopped.
+     */
+    void loopSound (Sound sound);
+
+    /**
+     * Stops the sound if it is playing.
+     */
+    void stopSound (Sound sound);
+
+    /**
+     * The game has ended with the given score.
+     */
+    void gameOver (int score);
+}
@@ -0,0 +1,371 @@
+package asteroids.game;
+
+import static asteroids.game.Constants.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The values that govern how a game plays, such as how fast asteroids move and how many bullets can be in flight. Each
+ * value starts out as its constant in {@link asteroids.game.Constants} and can be changed to try out a different
+ * balance. A {@link asteroids.game.Game} takes its own copy of the settings it is given, so games running side by side
+ * never share settings, and changing a GameSettings after creating a game has no effect on that game.
+ */
+public class GameSettings
+{
+    /** Number of lives at the start of a game */
+    private int initialLives;
+
+    /** Maximum speed of an asteroid of each size (0 = small, 1 = medium, 2 = large) */
+    private int[] asteroidSpeeds;
+
+    /** Points for destroying an asteroid of each size */
+    private int[] asteroidScores;
+
+    /** Points for destroying an alien ship of each size (0 = small, 1 = medium) */
+    private int[] alienShipScores;
+
+    /** Speed of a medium alien ship, with small ones a little slower */
+    private int alienShipSpeed;
+
+    /** Milliseconds between an alien ship's shots */
+    private int alienShipShotDelay;
+
+    /** Milliseconds between an alien ship's changes of direction */
+    private int alienShipMovementDelay;
+
+    /** Milliseconds before an alien ship appears */
+    private int alienDelay;
+
+    /** Most bullets the ship can have in flight */
+    private int bulletLimit;
+
+    /** Speed of a bullet */
+    private int bulletSpeed;
+
+    /** Milliseconds a bullet lasts */
+    private int bulletDuration;
+
+    /** Amount by which the ship accelerates */
+    private double shipAcceleration;
+
+    /** Friction applied to the ship */
+    private double shipFriction;
+
+    /**
+     * Creates settings with the values in Constants
+     */
+    public GameSettings ()
+    {
+        initialLives = 3;
+        asteroidSpeeds = ASTEROID_SPEED_LIST.clone();
+        asteroidScores = ASTEROID_SCORE.clone();
+        alienShipScores = ALIENSHIP_SCORE.clone();
+        alienShipSpeed = ALIENSHIP_SPEED;
+        alienShipShotDelay = ALIENSHIP_SHOT_DELAY;
+        alienShipMovementDelay = ALIENSHIP_MOVEMENT_DELAY;
+        alienDelay = ALIEN_DELAY;
+        bulletLimit = BULLET_LIMIT;
+        bulletSpeed = BULLET_SPEED;
+        bulletDuration = BULLET_DURATION;
+        shipAcceleration = SHIP_ACCELERATION;
+        shipFriction = SHIP_FRICTION;
+    }
+
+    /**
+     * Creates a copy of the settings
+     */
+    public GameSettings (GameSettings other)
+    {
+        initialLives = other.initialLives;
+        asteroidSpeeds = other.asteroidSpeeds.clone();
+        asteroidScores = other.asteroidScores.clone();
+        alienShipScores = other.alienShipScores.clone();
+        alienShipSpeed = other.alienShipSpeed;
+        alienShipShotDelay = other.alienShipShotDelay;
+        alienShipMovementDelay = other.alienShipMovementDelay;
+        alienDelay = other.alienDelay;
+        bulletLimit = other.bulletLimit;
+        bulletSpeed = other.bulletSpeed;
+        bulletDuration = other.bulletDuration;
+        shipAcceleration = other.shipAcceleration;
+        shipFriction = other.shipFriction;
+    }
+
+    /**
+     * Writes every setting, for a GameSnapshot
+     */
+    void write (DataOutput out) throws IOException
+    {
+        out.writeInt(initialLives);
+        writeInts(asteroidSpeeds, out);
+        writeInts(asteroidScores, out);
+        writeInts(alienShipScores, out);
+        out.writeInt(alienShipSpeed);
+        out.writeInt(alienShipShotDelay);
+        out.writeInt(alienShipMovementDelay);
+        out.writeInt(alienDelay);
+        out.writeInt(bulletLimit);
+        out.writeInt(bulletSpeed);
+        out.writeInt(bulletDuration);
+        out.writeDouble(shipAcceleration);
+        out.writeDouble(shipFriction);
+    }
+
+    /**
+     * Reads the settings as written by write. Throws an IOException if they are not valid.
+     */
+    static GameSettings read (DataInput in) throws IOException
+    {
+        GameSettings settings = new GameSettings();
+        settings.initialLives = in.readInt();
+        readInts(settings.asteroidSpeeds, in);
+        readInts(settings.asteroidScores, in);
+        readInts(settings.alienShipScores, in);
+        settings.alienShipSpeed = in.readInt();
+        settings.alienShipShotDelay = in.readInt();
+        settings.alienShipMovementDelay = in.readInt();
+        settings.alienDelay = in.readInt();
+        settings.bulletLimit = in.readInt();
+        settings.bulletSpeed = in.readInt();
+        settings.bulletDuration = in.readInt();
+        settings.shipAcceleration = in.readDouble();
+        settings.shipFriction = in.readDouble();
+        return settings;
+    }
+
+    /**
+     * Writes the length of the array and then its values
+     */
+    private static void writeInts (int[] values, DataOutput out) throws IOException
+    {
+        out.writeByte(values.length);
+        for (int v : values)
+        {
+            out.writeInt(v);
+        }
+    }
+
+    /**
+     * Reads values as written by writeInts into the array, which must be the same length
+     */
+    private static void readInts (int[] values, DataInput in) throws IOException
+    {
+        if (in.readUnsignedByte() != values.length)
+        {
+            throw new IOException("Wrong number of settings");
+        }
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = in.readInt();
+        }
+    }
+
+    /**
+     * Returns the number of lives at the start of a game
+     */
+    public int getInitialLives ()
+    {
+        return initialLives;
+    }
+
+    /**
+     * Sets the number of lives at the start of a game
+     */
+    public void setInitialLives (int initialLives)
+    {
+        this.initialLives = initialLives;
+    }
+
+    /**
+     * Returns the maximum speed of an asteroid of the given size (0 = small, 1 = medium, 2 = large)
+     */
+    public int getAsteroidSpeed (int size)
+    {
+        return asteroidSpeeds[size];
+    }
+
+    /**
+     * Sets the maximum speed of an asteroid of the given size (0 = small, 1 = medium, 2 = large)
+     */
+    public void setAsteroidSpeed (int size, int speed)
+    {
+        asteroidSpeeds[size] = speed;
+    }
+
+    /**
+     * Returns the points for destroying an asteroid of the given size
+     */
+    public int getAsteroidScore (int size)
+    {
+        return asteroidScores[size];
+    }
+
+    /**
+     * Sets the points for destroying an asteroid of the given size
+     */
+    public void setAsteroidScore (int size, int points)
+    {
+        asteroidScores[size] = points;
+    }
+
+    /**
+     * Returns the points for destroying an alien ship of the given size (0 = small, 1 = medium)
+     */
+    public int getAlienShipScore (int size)
+    {
+        return alienShipScores[size];
+    }
+
+    /**
+     * Sets the points for destroying an alien ship of the given size (0 = small, 1 = medium)
+     */
+    public void setAlienShipScore (int size, int points)
+    {
+        alienShipScores[size] = points;
+    }
+
+    /**
+     * Returns the speed of a medium alien ship
+     */
+    public int getAlienShipSpeed ()
+    {
+        return alienShipSpeed;
+    }
+
+    /**
+     * Sets the speed of a medium alien ship
+     */
+    public void setAlienShipSpeed (int alienShipSpeed)
+    {
+        this.alienShipSpeed = alienShipSpeed;
+    }
+
+    /**
+     * Returns the milliseconds between an alien ship's shots
+     */
+    public int getAlienShipShotDelay ()
+    {
+        return alienShipShotDelay;
+    }
+
+    /**
+     * Sets the milliseconds between an alien ship's shots
+     */
+    public void setAlienShipShotDelay (int alienShipShotDelay)
+    {
+        this.alienShipShotDelay = alienShipShotDelay;
+    }
+
+    /**
+     * Returns the milliseconds between an alien ship's changes of direction
+     */
+    public int getAlienShipMovementDelay ()
+    {
+        return alienShipMovementDelay;
+    }
+
+    /**
+     * Sets the milliseconds between an alien ship's changes of direction
+     */
+    public void setAlienShipMovementDelay (int alienShipMovementDelay)
+    {
+        this.alienShipMovementDelay = alienShipMovementDelay;
+    }
+
+    /**
+     * Returns the milliseconds before an alien ship appears
+     */
+    public int getAlienDelay ()
+    {
+        return alienDelay;
+    }
+
+    /**
+     * Sets the milliseconds before an alien ship appears
+     */
+    public void setAlienDelay (int alienDelay)
+    {
+        this.alienDelay = alienDelay;
+    }
+
+    /**
+     * Returns the most bullets the ship can have in flight
+     */
+    public int getBulletLimit ()
+    {
+        return bulletLimit;
+    }
+
+    /**
+     * Sets the most bullets the ship can have in flight
+     */
+    public void setBulletLimit (int bulletLimit)
+    {
+        this.bulletLimit = bulletLimit;
+    }
+
+    /**
+     * Returns the speed of a bullet
+     */
+    public int getBulletSpeed ()
+    {
+        return bulletSpeed;
+    }
+
+    /**
+     * Sets the speed of a bullet
+     */
+    public void setBulletSpeed (int bulletSpeed)
+    {
+        this.bulletSpeed = bulletSpeed;
+    }
+
+    /**
+     * Returns the milliseconds a bullet lasts
+     */
+    public int getBulletDuration ()
+    {
+        return bulletDuration;
+    }
+
+    /**
+     * Sets the milliseconds a bullet lasts
+     */
+    public void setBulletDuration (int bulletDuration)
+    {
+        this.bulletDuration = bulletDuration;
+    }
+
+    /**
+     * Returns the amount by which the ship accelerates
+     */
+    public double getShipAcceleration ()
+    {
+        return shipAcceleration;
+    }
+
+    /**
+     * Sets the amount by which the ship accelerates
+     */
+    public void setShipAcceleration (double shipAcceleration)
+    {
+        this.shipAcceleration = shipAcceleration;
+    }
+
+    /**
+     * Returns the friction applied to the ship
+     */
+    public double getShipFriction ()
+    {
+        return shipFriction;
+    }
+
+    /**
+     * Sets the friction applied to the ship
+     */
+    public void setShipFriction (double shipFriction)
+    {
+        this.shipFriction = shipFriction;
+    }
+}
@@ -0,0 +1,147 @@
+package asteroids.game;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Saves the complete state of a {@link asteroids.game.Game} between ticks, and restores it as a new game that carries
+ * on exactly as the saved one would have, given the same input. This is meant for checkpointing long runs, for
+ * starting a benchmark at a late level without playing up to it, and for picking a game up again after a crash.
+ *
+ * A snapshot is written in this format, with numbers stored high byte first:
+ *
+ * <pre>
+ * "ASNP"         four bytes
+ * version        one byte, currently 1
+ * seed           eight bytes
+ * settings       every value of the game's {@link asteroids.game.GameSettings}
+ * game           the tick, the lives, level, score, and legend, when the beat, alien ship, and next transition are
+ *                due, and the state and gamma of each of the game's random streams
+ * participants   the number in the game and the number waiting to be added, then for each one a byte giving its
+ *                class, whatever its class needs to recreate it, and its position, velocity, and rotation
+ * countdowns     the number of running countdowns, then for each one the index of its participant, the ticks it
+ *                has left, and its payload
+ * references     the indices of the ship, the alien ship, and each of the lives, with -1 for none
+ * </pre>
+ *
+ * Everything is copied, so a snapshot is unaffected by what happens to the game afterward. The game's listener,
+ * collision settings, and statistics are not part of a snapshot.
+ */
+public class GameSnapshot
+{
+    /** The bytes that begin every snapshot */
+    private final static byte[] MAGIC = { 'A', 'S', 'N', 'P' };
+
+    /** Version of the format that is written */
+    private final static int VERSION = 1;
+
+    /**
+     * There is no need to create a GameSnapshot.
+     */
+    private GameSnapshot ()
+    {
+    }
+
+    /**
+     * Writes a snapshot of the game to the stream. The game should be between ticks. Throws a
+     * NotSerializableException if a participant or countdown can't be written.
+     */
+    public static void write (Game game, OutputStream out) throws IOException
+    {
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+        data.writeLong(game.getSeed());
+        game.getSettings().write(data);
+        game.write(data);
+        data.flush();
+    }
+
+    /**
+     * Reads a snapshot from the stream and returns a new game restored from it. Throws an IOException if it can't be
+     * read or is not a snapshot.
+     */
+    public static Game read (InputStream in) throws IOException
+    {
+        DataInputStream data = new DataInputStream(in);
+        byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC))
+        {
+            throw new IOException("Not a game snapshot");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION)
+        {
+            throw new IOException("Unsupported game snapshot version: " + version);
+        }
+        long seed = data.readLong();
+        Game game = new Game(seed, GameSettings.read(data));
+        game.read(data);
+        return game;
+    }
+
+    /**
+     * Returns a snapshot of the game as an array of bytes.
+     */
+    public static byte[] toBytes (Game game) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        write(game, bytes);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns a new game restored from a snapshot held in an array of bytes.
+     */
+    public static Game fromBytes (byte[] bytes) throws IOException
+    {
+        return read(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Writes a snapshot of the game to the file, replacing anything already in it.
+     */
+    public static void save (Game game, File file) throws IOException
+    {
+        byte[] bytes = toBytes(game);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Returns a new game restored from the snapshot in the file. The file is read whole and closed before the game is
+     * restored, so it can be saved over straight away.
+     */
+    public static Game load (File file) throws IOException
+    {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+            {
+                throw new IOException("Snapshot too large: " + file);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining())
+            {
+                if (channel.read(buffer) < 0)
+                {
+                    throw new EOFException("Snapshot ended early: " + file);
+                }
+            }
+        }
+        return fromBytes(buffer.array());
+    }
+}
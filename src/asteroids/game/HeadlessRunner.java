@@ -0,0 +1,210 @@
+package asteroids.game;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Runs games of Asteroids without a window, sound, or clock, stepping ticks one after another as fast as the processor
+ * allows. This is meant for balancing and load tests on machines that have no display.
+ *
+ * The ship is flown by a simple pilot that keeps turning and fires every few ticks, so that there are bullets,
+ * explosions, and debris to keep the collision detection busy. When a game ends, another is started. Each game's
+ * seed is drawn from the runner's seed, so a run is determined by the runner's seed and the number of ticks.
+ *
+ * The runner can also play back a recording made by an {@link asteroids.game.InputRecorder}, to reproduce a session
+ * as fast as possible, and can start from or finish with a {@link asteroids.game.GameSnapshot}, so that a long run can
+ * be checkpointed and a benchmark can begin at a late level.
+ */
+public class HeadlessRunner
+{
+    /** Number of ticks between the pilot's shots */
+    private final static int FIRE_INTERVAL = 8;
+
+    /** The game being run */
+    private Game game;
+
+    /** The stream from which each game's seed is drawn */
+    private RandomStream seeds;
+
+    /** Number of games that have ended */
+    private int gamesOver;
+
+    /** Highest score reached by a game that has ended */
+    private int bestScore;
+
+    /** The agent that flies the ship, or null for the built-in pilot */
+    private Agent agent;
+
+    /** The input of the current game from the agent, or null for the built-in pilot */
+    private AgentInput agentInput;
+
+    /**
+     * Creates a runner with the given seed, and a new game that has begun
+     */
+    public HeadlessRunner (long seed)
+    {
+        seeds = new RandomStream(seed);
+        game = new Game(seeds.nextLong());
+        game.newGame();
+    }
+
+    /**
+     * Creates a runner that carries on with the given game, such as one restored from a snapshot, and draws the seeds
+     * of later games from the given seed
+     */
+    public HeadlessRunner (long seed, Game game)
+    {
+        seeds = new RandomStream(seed);
+        this.game = game;
+    }
+
+    /**
+     * Sets the agent that flies the ship from now on, or null for the built-in pilot
+     */
+    public void setAgent (Agent agent)
+    {
+        this.agent = agent;
+        this.agentInput = agent == null ? null : new AgentInput(game, agent);
+    }
+
+    /**
+     * Returns the game being run
+     */
+    public Game getGame ()
+    {
+        return game;
+    }
+
+    /**
+     * Returns the number of games that have ended
+     */
+    public int getGamesOver ()
+    {
+        return gamesOver;
+    }
+
+    /**
+     * Returns the highest score reached by a game that has ended
+     */
+    public int getBestScore ()
+    {
+        return bestScore;
+    }
+
+    /**
+     * Runs the given number of ticks, starting a new game whenever one ends.
+     */
+    public void run (long ticks)
+    {
+        for (long i = 0; i < ticks; i++)
+        {
+            long next = game.getTick() + 1;
+            game.tick(agentInput == null ? pilot(next) : agentInput.next(next));
+            if (game.isOver())
+            {
+                gamesOver++;
+                bestScore = Math.max(bestScore, game.getScore());
+                game = new Game(seeds.nextLong());
+                game.newGame();
+                setAgent(agent);
+            }
+        }
+    }
+
+    /**
+     * Plays back the whole recording in a new game with the recording's seed, and returns the game.
+     */
+    public static Game replay (InputPlayer player)
+    {
+        Game game = new Game(player.getSeed());
+        game.splashScreen();
+        while (!player.isFinished())
+        {
+            game.tick(player.next(game.getTick() + 1));
+        }
+        return game;
+    }
+
+    /**
+     * Returns the pilot's input for the given tick: always turning right, and firing every FIRE_INTERVAL ticks.
+     */
+    static InputState pilot (long tick)
+    {
+        int held = InputState.TURN_RIGHT;
+        int pressed = 0;
+        if (tick % FIRE_INTERVAL == 0)
+        {
+            pressed = InputState.FIRE;
+        }
+        return new InputState(tick, held, held, pressed, 0, 0);
+    }
+
+    /**
+     * Returns an agent that flies the ship just as the built-in pilot does
+     */
+    public static Agent pilotAgent ()
+    {
+        return (observation) -> {
+            long tick = (long) observation.get(Observation.TICK) + 1;
+            return tick % FIRE_INTERVAL == 0 ? InputState.TURN_RIGHT | InputState.FIRE : InputState.TURN_RIGHT;
+        };
+    }
+
+    /**
+     * Runs the number of ticks given as the first argument (100000 by default) with the seed given as the second
+     * (chosen from the clock by default) and reports how fast they ran. A third argument names a file to which a
+     * snapshot of the game being run is saved at the end. Given "-restore file", instead carries on from the snapshot
+     * in the file for the number of ticks that follows it. Given "-replay file", instead plays back the recording and
+     * reports how the game ended up.
+     */
+    public static void main (String[] args) throws IOException
+    {
+        if (args.length >= 2 && args[0].equals("-replay"))
+        {
+            InputPlayer player = InputPlayer.load(new File(args[1]));
+            long start = System.nanoTime();
+            Game game = replay(player);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("seed %d: %d ticks in %.3f s, level %d, score %d, lives %d%s%n", game.getSeed(),
+                    game.getTick(), seconds, game.getLevel(), game.getScore(), game.getLives(),
+                    game.isOver() ? ", game over" : "");
+            return;
+        }
+
+        HeadlessRunner runner;
+        long ticks;
+        long seed;
+        File snapshot = null;
+        if (args.length >= 2 && args[0].equals("-restore"))
+        {
+            Game game = GameSnapshot.load(new File(args[1]));
+            ticks = args.length > 2 ? Long.parseLong(args[2]) : 100000;
+            seed = game.getSeed();
+            runner = new HeadlessRunner(seed, game);
+            System.out.printf("restored seed %d at tick %d, level %d, score %d%n", seed, game.getTick(),
+                    game.getLevel(), game.getScore());
+        }
+        else
+        {
+            ticks = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+            seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+            snapshot = args.length > 2 ? new File(args[2]) : null;
+            runner = new HeadlessRunner(seed);
+        }
+
+        long start = System.nanoTime();
+        runner.run(ticks);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("seed %d: %d ticks in %.3f s (%.0f ticks/s), %d games over, best score %d%n", seed, ticks,
+                seconds, ticks / seconds, runner.getGamesOver(), runner.getBestScore());
+        System.out.println(runner.getGame().getParticipantState().getStatistics());
+
+        if (snapshot != null)
+        {
+            GameSnapshot.save(runner.getGame(), snapshot);
+            Game game = runner.getGame();
+            System.out.printf("saved tick %d of seed %d to %s%n", game.getTick(), game.getSeed(), snapshot);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package asteroids.game;
+
+import static asteroids.game.Constants.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * The text drawn over the game: the legend across the middle, the score and level at the top, and the high scores
+ * under the legend. Each piece of text is laid out and drawn into an image of its own only when its value changes, so
+ * painting a frame only copies a few images and never measures or shapes any text.
+ *
+ * The images are brought up to date by update, which also reports where the screen changed, and copied to the screen
+ * by draw. A HudLayer is used only from the thread that paints the screen.
+ */
+class HudLayer
+{
+    /** Pixels left around each piece of text so that its antialiased edges are not cut off */
+    private final static int MARGIN = 4;
+
+    /** Font of the legend */
+    private final Font legendFont;
+
+    /** Font of the score, level, and high scores */
+    private final Font statsFont;
+
+    /** Measures the text as it will be drawn into the images */
+    private final Graphics2D measure;
+
+    /** The configuration for which the images were made */
+    private GraphicsConfiguration configuration;
+
+    /** The color in which the images were drawn */
+    private Color color;
+
+    /** The legend shown by its image, or null if there is no image yet */
+    private String legend;
+
+    /** The score and level shown by their images, or -1 if they are not shown */
+    private int score = -1, level = -1;
+
+    /** The high scores shown by their image, or null if they are not shown */
+    private int[] highScores;
+
+    /** The images of the legend, score, level, and high scores, or null for those not shown */
+    private Stamp legendStamp, scoreStamp, levelStamp, highScoresStamp;
+
+    /**
+     * Creates a layer that draws the legend in one font and everything else in another
+     */
+    HudLayer (Font legendFont, Font statsFont)
+    {
+        this.legendFont = legendFont;
+        this.statsFont = statsFont;
+        this.measure = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        setHints(measure);
+    }
+
+    /**
+     * Brings the images up to date with the text of the snapshot, to be drawn to the given configuration in the given
+     * color. Wherever the text on the screen changes, both where the old images were and where the new ones go, is
+     * added to damage.
+     */
+    void update (RenderSnapshot snapshot, GraphicsConfiguration configuration, Color color, DirtyRegions damage)
+    {
+        // Images made for another screen or color are of no use
+        if (configuration != this.configuration || !color.equals(this.color))
+        {
+            this.configuration = configuration;
+            this.color = color;
+            damage.add(legendStamp);
+            damage.add(scoreStamp);
+            damage.add(levelStamp);
+            damage.add(highScoresStamp);
+            legend = null;
+            score = -1;
+            level = -1;
+            highScores = null;
+            legendStamp = null;
+            scoreStamp = null;
+            levelStamp = null;
+            highScoresStamp = null;
+        }
+
+        // Lay out whatever has changed since the last frame
+        if (!snapshot.legend.equals(legend))
+        {
+            damage.add(legendStamp);
+            legend = snapshot.legend;
+            legendStamp = layoutLegend();
+            damage.add(legendStamp);
+        }
+        int newScore = snapshot.showStats ? snapshot.score : -1;
+        if (newScore != score)
+        {
+            damage.add(scoreStamp);
+            score = newScore;
+            scoreStamp = score < 0 ? null : layoutScore();
+            damage.add(scoreStamp);
+        }
+        int newLevel = snapshot.showStats ? snapshot.level : -1;
+        if (newLevel != level)
+        {
+            damage.add(levelStamp);
+            level = newLevel;
+            levelStamp = level < 0 ? null : layoutLevel();
+            damage.add(levelStamp);
+        }
+        if (!Arrays.equals(snapshot.highScores, highScores))
+        {
+            damage.add(highScoresStamp);
+            highScores = snapshot.highScores == null ? null : snapshot.highScores.clone();
+            highScoresStamp = highScores == null ? null : layoutHighScores();
+            damage.add(highScoresStamp);
+        }
+    }
+
+    /**
+     * Copies the images, as of the last update, to g.
+     */
+    void draw (Graphics2D g)
+    {
+        drawStamp(g, legendStamp);
+        drawStamp(g, highScoresStamp);
+        drawStamp(g, levelStamp);
+        drawStamp(g, scoreStamp);
+    }
+
+    /**
+     * Lays out the legend across the middle of the screen
+     */
+    private Stamp layoutLegend ()
+    {
+        if (legend.isEmpty())
+        {
+            return null;
+        }
+        int width = measure.getFontMetrics(legendFont).stringWidth(legend);
+        return stamp(legendFont, new String[] { legend }, new int[] { (SIZE - width) / 2 }, new int[] { SIZE / 2 });
+    }
+
+    /**
+     * Lays out the score in the top left corner
+     */
+    private Stamp layoutScore ()
+    {
+        String text = "" + score;
+        FontMetrics fm = measure.getFontMetrics(statsFont);
+        int xOffset = (int) statsFont.getStringBounds(text, fm.getFontRenderContext()).getMinX();
+        return stamp(statsFont, new String[] { text }, new int[] { LABEL_HORIZONTAL_OFFSET + xOffset },
+                new int[] { LABEL_VERTICAL_OFFSET * 2 });
+    }
+
+    /**
+     * Lays out the level in the top right corner
+     */
+    private Stamp layoutLevel ()
+    {
+        String text = "" + level;
+        FontMetrics fm = measure.getFontMetrics(statsFont);
+        int xOffset = (int) statsFont.getStringBounds(text, fm.getFontRenderContext()).getMaxX();
+        return stamp(statsFont, new String[] { text }, new int[] { SIZE - LABEL_HORIZONTAL_OFFSET - xOffset },
+                new int[] { LABEL_VERTICAL_OFFSET * 2 });
+    }
+
+    /**
+     * Lays out the heading and up to three of the best scores, highest first, under the legend
+     */
+    private Stamp layoutHighScores ()
+    {
+        FontMetrics fm = measure.getFontMetrics(statsFont);
+        int headingWidth = (int) statsFont.getStringBounds("High Scores", fm.getFontRenderContext()).getWidth();
+        int count = Math.min(3, highScores.length);
+        String[] lines = new String[count + 1];
+        int[] xs = new int[count + 1];
+        int[] ys = new int[count + 1];
+        lines[0] = "High Scores";
+        xs[0] = (SIZE - headingWidth) / 2;
+        ys[0] = SIZE / 2 + 100;
+
+        // Line the scores up under the start of the highest one
+        if (count > 0)
+        {
+            String first = "" + highScores[highScores.length - 1];
+            int scoreWidth = (int) statsFont.getStringBounds(first, fm.getFontRenderContext()).getMaxX();
+            for (int i = 1; i <= count; i++)
+            {
+                lines[i] = "" + highScores[highScores.length - i];
+                xs[i] = (SIZE - scoreWidth) / 2;
+                ys[i] = SIZE / 2 + 120 + 50 * i;
+            }
+        }
+        return stamp(statsFont, lines, xs, ys);
+    }
+
+    /**
+     * Draws lines of text, each starting at the given x and with its baseline at the given y, into an image just big
+     * enough to hold them.
+     */
+    private Stamp stamp (Font font, String[] lines, int[] xs, int[] ys)
+    {
+        // Find the box around all the lines
+        FontMetrics fm = measure.getFontMetrics(font);
+        int left = Integer.MAX_VALUE, top = Integer.MAX_VALUE, right = Integer.MIN_VALUE, bottom = Integer.MIN_VALUE;
+        for (int i = 0; i < lines.length; i++)
+        {
+            left = Math.min(left, xs[i]);
+            right = Math.max(right, xs[i] + fm.stringWidth(lines[i]));
+            top = Math.min(top, ys[i] - fm.getAscent());
+            bottom = Math.max(bottom, ys[i] + fm.getDescent());
+        }
+        left -= MARGIN;
+        top -= MARGIN;
+
+        // Draw the lines into it
+        BufferedImage image = configuration.createCompatibleImage(right + MARGIN - left, bottom + MARGIN - top,
+                Transparency.TRANSLUCENT);
+        Graphics2D ig = image.createGraphics();
+        setHints(ig);
+        ig.setColor(color);
+        ig.setFont(font);
+        for (int i = 0; i < lines.length; i++)
+        {
+            ig.drawString(lines[i], xs[i] - left, ys[i] - top);
+        }
+        ig.dispose();
+        return new Stamp(image, left, top);
+    }
+
+    /**
+     * Sets the hints with which text is measured and drawn
+     */
+    private static void setHints (Graphics2D g)
+    {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+    }
+
+    /**
+     * Copies the image of a piece of text to its place, if there is one
+     */
+    private static void drawStamp (Graphics2D g, Stamp stamp)
+    {
+        if (stamp != null)
+        {
+            g.drawImage(stamp.image, stamp.x, stamp.y, null);
+        }
+    }
+
+    /**
+     * An image of some text, and the part of the screen it covers.
+     */
+    @SuppressWarnings("serial")
+    private static class Stamp extends Rectangle
+    {
+        /** The image */
+        final BufferedImage image;
+
+        /**
+         * Creates a stamp of the image with its top left corner at (x,y).
+         */
+        Stamp (BufferedImage image, int x, int y)
+        {
+            super(x, y, image.getWidth(), image.getHeight());
+            this.image = image;
+        }
+    }
+}
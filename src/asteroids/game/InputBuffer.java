@@ -0,0 +1,126 @@
+package asteroids.game;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carries key events from the event thread to the simulation thread. The event thread records each press or release of
+ * an action, along with the time at which it happened, in a ring buffer. Once per tick the simulation thread takes
+ * every event recorded since the last tick and sums them up in an {@link asteroids.game.InputState}.
+ *
+ * Exactly one thread may record events and exactly one may sample them. Neither waits for the other. If the buffer
+ * fills up because the simulation has stalled, further events are dropped and counted.
+ */
+class InputBuffer implements InputSource
+{
+    /** Number of events the buffer holds, which must be a power of two */
+    private final static int CAPACITY = 256;
+
+    /** Mask that turns a sequence number into an index */
+    private final static int MASK = CAPACITY - 1;
+
+    /** Time (from System.nanoTime) of each event */
+    private final long[] times;
+
+    /** Action of each event */
+    private final int[] actions;
+
+    /** Whether each event was a press rather than a release */
+    private final boolean[] presses;
+
+    /** Number of events ever recorded, which is advanced only by the recording thread */
+    private final AtomicLong written;
+
+    /** Number of events ever sampled, which is advanced only by the sampling thread */
+    private final AtomicLong read;
+
+    /** Number of events dropped because the buffer was full */
+    private final AtomicLong dropped;
+
+    /** Actions held as of the last sample, which only the sampling thread uses */
+    private int held;
+
+    /**
+     * Creates an empty buffer.
+     */
+    InputBuffer ()
+    {
+        times = new long[CAPACITY];
+        actions = new int[CAPACITY];
+        presses = new boolean[CAPACITY];
+        written = new AtomicLong();
+        read = new AtomicLong();
+        dropped = new AtomicLong();
+    }
+
+    /**
+     * Records that the action was pressed or released at the given time. Returns false if the buffer was full and the
+     * event was dropped.
+     */
+    boolean record (long time, int action, boolean press)
+    {
+        long w = written.get();
+        if (w - read.get() == CAPACITY)
+        {
+            dropped.incrementAndGet();
+            return false;
+        }
+        int i = (int) w & MASK;
+        times[i] = time;
+        actions[i] = action;
+        presses[i] = press;
+        written.lazySet(w + 1);
+        return true;
+    }
+
+    /**
+     * Takes every event recorded since the last sample and returns the input for the given tick, sampled at the given
+     * time (from System.nanoTime).
+     */
+    InputState sample (long tick, long now)
+    {
+        long r = read.get();
+        long w = written.get();
+        if (r == w)
+        {
+            return new InputState(tick, held, held, 0, 0, 0);
+        }
+
+        int previous = held;
+        int pressed = 0;
+        int released = 0;
+        long earliest = times[(int) r & MASK];
+        for (; r < w; r++)
+        {
+            int i = (int) r & MASK;
+            if (presses[i])
+            {
+                held |= actions[i];
+                pressed |= actions[i];
+            }
+            else
+            {
+                held &= ~actions[i];
+                released |= actions[i];
+            }
+        }
+        read.lazySet(w);
+        return new InputState(tick, previous, held, pressed, released, Math.max(0, now - earliest));
+    }
+
+    /**
+     * Takes every event recorded since the last sample and returns the input for the given tick, sampled now.
+     */
+    @Override
+    public InputState next (long tick)
+    {
+        return sample(tick, System.nanoTime());
+    }
+
+    /**
+     * Returns the number of events dropped because the buffer was full
+     */
+    long getDropped ()
+    {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,181 @@
+package asteroids.game;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Plays back a recording made by an {@link asteroids.game.InputRecorder}. A game created with the recording's seed and
+ * given the player's input for each tick plays out exactly as the recorded game did, at whatever speed its ticks are
+ * run.
+ */
+public class InputPlayer implements InputSource
+{
+    /** The seed of the recorded game */
+    private long seed;
+
+    /** The encoded events */
+    private byte[] events;
+
+    /** Position of the next varint in the events */
+    private int position;
+
+    /** The tick of the next event, or -1 once the end marker has been read */
+    private long nextEventTick;
+
+    /** The last tick of the recording */
+    private long endTick;
+
+    /** Actions held as of the last tick played */
+    private int held;
+
+    /** The last tick played */
+    private long lastTick;
+
+    /**
+     * Creates a player for a recording whose header has been read, with the rest of the recording in events.
+     */
+    private InputPlayer (long seed, byte[] events) throws IOException
+    {
+        this.seed = seed;
+        this.events = events;
+        readEvent(0);
+    }
+
+    /**
+     * Reads a recording from the stream. Throws an IOException if it can't be read or is not a recording.
+     */
+    public static InputPlayer read (InputStream in) throws IOException
+    {
+        DataInputStream data = new DataInputStream(in);
+        byte[] magic = new byte[InputRecorder.MAGIC.length];
+        data.readFully(magic);
+        if (!Arrays.equals(magic, InputRecorder.MAGIC))
+        {
+            throw new IOException("Not an input recording");
+        }
+        int version = data.readUnsignedByte();
+        if (version != InputRecorder.VERSION)
+        {
+            throw new IOException("Unsupported input recording version: " + version);
+        }
+        long seed = data.readLong();
+
+        ByteArrayOutputStream rest = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = data.read(buffer)) > 0)
+        {
+            rest.write(buffer, 0, n);
+        }
+        return new InputPlayer(seed, rest.toByteArray());
+    }
+
+    /**
+     * Reads a recording from the file. Throws an IOException if it can't be read or is not a recording.
+     */
+    public static InputPlayer load (File file) throws IOException
+    {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file)))
+        {
+            return read(in);
+        }
+    }
+
+    /**
+     * Returns the seed of the recorded game
+     */
+    public long getSeed ()
+    {
+        return seed;
+    }
+
+    /**
+     * Returns the last tick of the recording
+     */
+    public long getEndTick ()
+    {
+        return endTick;
+    }
+
+    /**
+     * Reports whether every tick of the recording has been played
+     */
+    public boolean isFinished ()
+    {
+        return nextEventTick < 0 && lastTick >= endTick;
+    }
+
+    /**
+     * Returns the recorded input for the tick. Past the end of the recording, nothing is held or pressed. Throws an
+     * IllegalArgumentException if the tick comes before one that has already been played.
+     */
+    @Override
+    public InputState next (long tick)
+    {
+        if (tick <= lastTick)
+        {
+            throw new IllegalArgumentException("Tick " + tick + " has already been played");
+        }
+        lastTick = tick;
+
+        // Nothing was pressed or released on this tick
+        if (tick != nextEventTick)
+        {
+            return new InputState(tick, held, held, 0, 0, 0);
+        }
+
+        // Play the event and read the next one
+        try
+        {
+            int previous = held;
+            held = (int) readVarint();
+            int pressed = (int) readVarint();
+            int released = (int) readVarint();
+            readEvent(tick);
+            return new InputState(tick, previous, held, pressed, released, 0);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Corrupt input recording: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the tick of the next event, which follows one on the given tick, or the end marker.
+     */
+    private void readEvent (long tick) throws IOException
+    {
+        long delta = readVarint();
+        if (delta == 0)
+        {
+            nextEventTick = -1;
+            endTick = tick + readVarint();
+        }
+        else
+        {
+            nextEventTick = tick + delta;
+        }
+    }
+
+    /**
+     * Reads a varint from the events. Throws an IOException if the events end first.
+     */
+    private long readVarint () throws IOException
+    {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            if (position == events.length)
+            {
+                throw new EOFException("Recording ends in the middle of a number");
+            }
+            int b = events[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Number is too long");
+    }
+}
@@ -0,0 +1,151 @@
+package asteroids.game;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Records the input of a game as it is played, so that the game can be played back exactly by an
+ * {@link asteroids.game.InputPlayer}. The recorder sits between a game and its real input source and passes every
+ * tick's input through unchanged. Because a game is determined by its seed and its input, the seed and the ticks on
+ * which the input changed are all that need to be kept.
+ *
+ * A recording is written in this format, where a varint is an unsigned number stored seven bits to a byte, low bits
+ * first, with the top bit of each byte set if another byte follows:
+ *
+ * <pre>
+ * "AREC"         four bytes
+ * version        one byte, currently 1
+ * seed           eight bytes, high byte first
+ * event*         for each tick on which an action was pressed or released:
+ *                  varint  ticks since the previous event (at least 1)
+ *                  varint  actions held at the end of the tick
+ *                  varint  actions pressed during the tick
+ *                  varint  actions released during the tick
+ * end            varint 0, then varint ticks from the last event to the end of the recording
+ * </pre>
+ *
+ * Ticks on which nothing was pressed or released take no space at all, and a typical event takes four bytes.
+ */
+public class InputRecorder implements InputSource
+{
+    /** The bytes that begin every recording */
+    final static byte[] MAGIC = { 'A', 'R', 'E', 'C' };
+
+    /** Version of the format that is written */
+    final static int VERSION = 1;
+
+    /** The source whose input is recorded */
+    private InputSource source;
+
+    /** The seed of the game being recorded */
+    private long seed;
+
+    /** The events recorded so far */
+    private byte[] events;
+
+    /** Number of bytes of events */
+    private int length;
+
+    /** The tick of the last event recorded */
+    private long lastEventTick;
+
+    /** The last tick that has been passed through */
+    private long lastTick;
+
+    /**
+     * Creates a recorder for a game with the given seed, whose input comes from source.
+     */
+    public InputRecorder (long seed, InputSource source)
+    {
+        this.seed = seed;
+        this.source = source;
+        this.events = new byte[256];
+    }
+
+    /**
+     * Returns the input for the tick from the source, recording it if anything was pressed or released.
+     */
+    @Override
+    public InputState next (long tick)
+    {
+        InputState state = source.next(tick);
+        if ((state.getPressed() | state.getReleased()) != 0)
+        {
+            writeVarint(tick - lastEventTick);
+            writeVarint(state.getHeld());
+            writeVarint(state.getPressed());
+            writeVarint(state.getReleased());
+            lastEventTick = tick;
+        }
+        lastTick = tick;
+        return state;
+    }
+
+    /**
+     * Returns the number of ticks recorded so far
+     */
+    public long getTicks ()
+    {
+        return lastTick;
+    }
+
+    /**
+     * Writes the recording so far to the stream. Recording may carry on afterward.
+     */
+    public void writeTo (OutputStream out) throws IOException
+    {
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+        data.writeLong(seed);
+        data.write(events, 0, length);
+
+        // The end marker can't be a real event, which is at least a tick after the last one
+        ByteArrayOutputStream end = new ByteArrayOutputStream();
+        writeVarint(end, 0);
+        writeVarint(end, lastTick - lastEventTick);
+        end.writeTo(data);
+        data.flush();
+    }
+
+    /**
+     * Writes the recording so far to the file, replacing anything already in it. Recording may carry on afterward.
+     */
+    public void save (File file) throws IOException
+    {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file)))
+        {
+            writeTo(out);
+        }
+    }
+
+    /**
+     * Appends a varint to the events.
+     */
+    private void writeVarint (long value)
+    {
+        if (length + 10 > events.length)
+        {
+            events = Arrays.copyOf(events, events.length * 2);
+        }
+        while ((value & ~0x7FL) != 0)
+        {
+            events[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        events[length++] = (byte) value;
+    }
+
+    /**
+     * Writes a varint to the stream.
+     */
+    static void writeVarint (OutputStream out, long value) throws IOException
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,12 @@
+package asteroids.game;
+
+/**
+ * Supplies the input for each tick of a game, whether it comes from the keyboard or from a recording.
+ */
+public interface InputSource
+{
+    /**
+     * Returns the input for the given tick. The ticks are asked for in order, one after another.
+     */
+    InputState next (long tick);
+}
@@ -0,0 +1,146 @@
+package asteroids.game;
+
+/**
+ * What the player asked of the game during one tick. Each action (thrusting, turning, firing, and so on) is a bit. The
+ * state records which actions were held down at the start and end of the tick, and which were pressed or released at
+ * some point during it, so that a key that was tapped between two ticks is not missed. Input states never change
+ * once they have been created.
+ */
+public final class InputState
+{
+    /** Action: accelerate the ship */
+    public final static int THRUST = 1;
+
+    /** Action: turn the ship clockwise */
+    public final static int TURN_RIGHT = 2;
+
+    /** Action: turn the ship counterclockwise */
+    public final static int TURN_LEFT = 4;
+
+    /** Action: fire a bullet */
+    public final static int FIRE = 8;
+
+    /** Action: destroy all asteroids and advance */
+    public final static int CLEAR_ASTEROIDS = 16;
+
+    /** Action: add a life */
+    public final static int ADD_LIFE = 32;
+
+    /** Action: start a new game, as the start button does */
+    public final static int NEW_GAME = 64;
+
+    /** An input state in which nothing is held or pressed */
+    public final static InputState NONE = new InputState(0, 0, 0, 0, 0, 0);
+
+    /** The tick to which this input belongs */
+    private final long tick;
+
+    /** Actions held at the start of the tick */
+    private final int previous;
+
+    /** Actions held at the end of the tick */
+    private final int held;
+
+    /** Actions pressed during the tick, counting repeats of a key that was already held */
+    private final int pressed;
+
+    /** Actions released during the tick */
+    private final int released;
+
+    /** Nanoseconds from the earliest key event of the tick until the tick sampled it, or 0 if there were none */
+    private final long latency;
+
+    /**
+     * Creates an input state for the given tick.
+     */
+    public InputState (long tick, int previous, int held, int pressed, int released, long latency)
+    {
+        this.tick = tick;
+        this.previous = previous;
+        this.held = held;
+        this.pressed = pressed;
+        this.released = released;
+        this.latency = latency;
+    }
+
+    /**
+     * Returns the tick to which this input belongs
+     */
+    public long getTick ()
+    {
+        return tick;
+    }
+
+    /**
+     * Returns the actions held at the end of the tick, as a bitmask
+     */
+    public int getHeld ()
+    {
+        return held;
+    }
+
+    /**
+     * Returns the actions pressed during the tick, as a bitmask
+     */
+    public int getPressed ()
+    {
+        return pressed;
+    }
+
+    /**
+     * Returns the actions released during the tick, as a bitmask
+     */
+    public int getReleased ()
+    {
+        return released;
+    }
+
+    /**
+     * Returns the nanoseconds from the earliest key event of the tick until it was sampled, or 0 if there were none
+     */
+    public long getLatency ()
+    {
+        return latency;
+    }
+
+    /**
+     * Reports whether the action was held down at any point during the tick
+     */
+    public boolean isDown (int action)
+    {
+        return ((previous | held | pressed) & action) != 0;
+    }
+
+    /**
+     * Reports whether the action was pressed during the tick, including by a key repeating
+     */
+    public boolean wasPressed (int action)
+    {
+        return (pressed & action) != 0;
+    }
+
+    /**
+     * Reports whether the action was pressed during the tick without having been held at its start
+     */
+    public boolean wentDown (int action)
+    {
+        return (pressed & ~previous & action) != 0;
+    }
+
+    /**
+     * Reports whether the action was released during the tick
+     */
+    public boolean wasReleased (int action)
+    {
+        return (released & action) != 0;
+    }
+
+    /**
+     * Returns a description of the held and pressed actions
+     */
+    @Override
+    public String toString ()
+    {
+        return String.format("InputState[tick=%d held=%x pressed=%x released=%x]", tick, held, pressed, released);
+    }
+}
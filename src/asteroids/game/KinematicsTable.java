@@ -0,0 +1,109 @@
+package asteroids.game;
+
+import java.util.Arrays;
+
+/**
+ * Holds the position, velocity, and rotation of a group of participants as parallel columns, one slot per participant.
+ * Participants read and write their own slot, and the whole group is moved by {@link #integrate(int)}, which is a
+ * single loop over plain arrays with no branches.
+ *
+ * Every Participant starts out with a private table of its own. When it joins a ParticipantState its values are
+ * copied into the table of the state, and when it leaves they are copied back out to a private table again.
+ */
+class KinematicsTable
+{
+    /** Position of each participant's center */
+    double[] x, y;
+
+    /** Speed of each participant in pixels per frame in the horizontal and vertical directions */
+    double[] speedX, speedY;
+
+    /** Rotation of each participant's outline in radians */
+    double[] rotation;
+
+    /** 1 for each participant that moves when the table is integrated, 0 for each expired participant */
+    double[] moving;
+
+    /**
+     * Creates a table with room for capacity participants, all at rest at (0,0).
+     */
+    KinematicsTable (int capacity)
+    {
+        x = new double[capacity];
+        y = new double[capacity];
+        speedX = new double[capacity];
+        speedY = new double[capacity];
+        rotation = new double[capacity];
+        moving = new double[capacity];
+        Arrays.fill(moving, 1);
+    }
+
+    /**
+     * Returns the number of slots in the table.
+     */
+    int capacity ()
+    {
+        return x.length;
+    }
+
+    /**
+     * Makes sure that the table has at least capacity slots. The columns are replaced when the table grows, so they
+     * should be fetched again afterwards.
+     */
+    void ensureCapacity (int capacity)
+    {
+        if (capacity > x.length)
+        {
+            int size = Math.max(capacity, x.length * 2);
+            x = Arrays.copyOf(x, size);
+            y = Arrays.copyOf(y, size);
+            speedX = Arrays.copyOf(speedX, size);
+            speedY = Arrays.copyOf(speedY, size);
+            rotation = Arrays.copyOf(rotation, size);
+            moving = Arrays.copyOf(moving, size);
+        }
+    }
+
+    /**
+     * Copies slot from of the source table into slot to of this table.
+     */
+    void copy (KinematicsTable source, int from, int to)
+    {
+        x[to] = source.x[from];
+        y[to] = source.y[from];
+        speedX[to] = source.speedX[from];
+        speedY[to] = source.speedY[from];
+        rotation[to] = source.rotation[from];
+        moving[to] = source.moving[from];
+    }
+
+    /**
+     * Advances the participant in slot by one frame of its velocity, unless it has stopped moving.
+     */
+    void advance (int slot)
+    {
+        x[slot] += speedX[slot] * moving[slot];
+        y[slot] += speedY[slot] * moving[slot];
+    }
+
+    /**
+     * Advances the participants in the first count slots by one frame of their velocities. Stopped participants are
+     * multiplied by zero rather than skipped, so the loop has no branches and can be vectorized.
+     */
+    void integrate (int count)
+    {
+        double[] x = this.x;
+        double[] y = this.y;
+        double[] speedX = this.speedX;
+        double[] speedY = this.speedY;
+        double[] moving = this.moving;
+        for (int i = 0; i < count; i++)
+        {
+            x[i] += speedX[i] * moving[i];
+        }
+        for (int i = 0; i < count; i++)
+        {
+            y[i] += speedY[i] * moving[i];
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package asteroids.game;
+
+/**
+ * The ways in which a {@link asteroids.game.ParticipantState} can decide whether two participants whose bounds
+ * intersect really overlap.
+ */
+public enum NarrowPhase
+{
+    /**
+     * Test the convex pieces of the outlines with the separating axis theorem. This allocates nothing. Zero-width
+     * spikes, such as the tail fins of the ship, have no pieces, so unlike AREA this never reports a hit on the fins
+     * alone once the ship has turned: there the Area test finds a sliver of no real width and counts it as a hit.
+     */
+    POLYGON,
+
+    /** Intersect java.awt.geom.Area objects built from the borders, as the game originally did. */
+    AREA,
+
+    /**
+     * Run both tests, act on the Area result, and count every pair on which the two disagree in
+     * {@link asteroids.game.TickStatistics#getMismatches()}. A hit found only by the Area test is not counted if the
+     * Area overlap is smaller than half a square pixel, since that is the sliver along a zero-width spike.
+     */
+    VERIFY
+}
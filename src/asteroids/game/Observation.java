@@ -0,0 +1,293 @@
+package asteroids.game;
+
+import java.util.Arrays;
+import asteroids.participants.*;
+
+/**
+ * What an {@link asteroids.game.Agent} can see of a game, as a flat array of doubles that is filled in again before
+ * every tick. Nothing is allocated when it is filled in, so an agent can run for millions of ticks without creating
+ * garbage.
+ *
+ * The array begins with a header whose entries are given by the constants below: the tick, lives, level, and score,
+ * then the ship's position, velocity, and rotation, then the alien ship's position and velocity. After the header come
+ * entries for the nearest asteroids and then the nearest alien bullets, nearest first, each ENTRY values long. Within
+ * an entry, PRESENT is 1 for a real participant and 0 for padding, and the other values are given by the constants
+ * DX through SIZE.
+ *
+ * Positions of other participants are measured from the ship, or from the middle of the screen if there is no ship,
+ * and take the shorter way around the edges of the screen. Distances are in pixels, velocities in pixels per tick, and
+ * rotations in radians.
+ */
+public final class Observation
+{
+    /** Header: the number of ticks the game has run */
+    public final static int TICK = 0;
+
+    /** Header: the number of lives left */
+    public final static int LIVES = 1;
+
+    /** Header: the current level */
+    public final static int LEVEL = 2;
+
+    /** Header: the score */
+    public final static int SCORE = 3;
+
+    /** Header: 1 if there is a ship, otherwise 0 along with the rest of the ship's values */
+    public final static int SHIP = 4;
+
+    /** Header: the position of the ship */
+    public final static int SHIP_X = 5, SHIP_Y = 6;
+
+    /** Header: the velocity of the ship */
+    public final static int SHIP_SPEED_X = 7, SHIP_SPEED_Y = 8;
+
+    /** Header: the rotation of the ship */
+    public final static int SHIP_ROTATION = 9;
+
+    /** Header: 1 if there is an alien ship, otherwise 0 along with the rest of the alien ship's values */
+    public final static int ALIEN_SHIP = 10;
+
+    /** Header: the position of the alien ship, measured like the entries */
+    public final static int ALIEN_SHIP_DX = 11, ALIEN_SHIP_DY = 12;
+
+    /** Header: the velocity of the alien ship */
+    public final static int ALIEN_SHIP_SPEED_X = 13, ALIEN_SHIP_SPEED_Y = 14;
+
+    /** Number of values in the header */
+    public final static int HEADER = 15;
+
+    /** Entry: 1 for a participant and 0 for padding */
+    public final static int PRESENT = 0;
+
+    /** Entry: the position of the participant */
+    public final static int DX = 1, DY = 2;
+
+    /** Entry: the velocity of the participant */
+    public final static int SPEED_X = 3, SPEED_Y = 4;
+
+    /** Entry: the size of an asteroid (0 = small, 1 = medium, 2 = large), or 0 for a bullet */
+    public final static int SIZE = 5;
+
+    /** Number of values in an entry */
+    public final static int ENTRY = 6;
+
+    /** Number of asteroids and alien bullets observed by default */
+    public final static int DEFAULT_ASTEROIDS = 8, DEFAULT_BULLETS = 4;
+
+    /** The values */
+    private final double[] values;
+
+    /** Number of asteroid and alien bullet entries */
+    private final int asteroids, bullets;
+
+    /** Squared distances of the nearest participants found so far, nearest first */
+    private final double[] nearestDistance;
+
+    /** Indices in the store of the nearest participants found so far */
+    private final int[] nearestIndex;
+
+    /**
+     * Creates an observation of the default number of asteroids and alien bullets
+     */
+    public Observation ()
+    {
+        this(DEFAULT_ASTEROIDS, DEFAULT_BULLETS);
+    }
+
+    /**
+     * Creates an observation of the given number of nearest asteroids and alien bullets
+     */
+    public Observation (int asteroids, int bullets)
+    {
+        this.asteroids = asteroids;
+        this.bullets = bullets;
+        this.values = new double[HEADER + (asteroids + bullets) * ENTRY];
+        this.nearestDistance = new double[Math.max(asteroids, bullets)];
+        this.nearestIndex = new int[Math.max(asteroids, bullets)];
+    }
+
+    /**
+     * Returns the array of values, which is the same array every tick. It may be handed straight to a learned policy.
+     */
+    public double[] getValues ()
+    {
+        return values;
+    }
+
+    /**
+     * Returns the value at the given index of the array
+     */
+    public double get (int index)
+    {
+        return values[index];
+    }
+
+    /**
+     * Returns the number of asteroid entries
+     */
+    public int getAsteroids ()
+    {
+        return asteroids;
+    }
+
+    /**
+     * Returns the number of alien bullet entries
+     */
+    public int getBullets ()
+    {
+        return bullets;
+    }
+
+    /**
+     * Returns a value of the entry for the ith nearest asteroid, where field is PRESENT, DX, DY, SPEED_X, SPEED_Y, or
+     * SIZE
+     */
+    public double getAsteroid (int i, int field)
+    {
+        return values[HEADER + i * ENTRY + field];
+    }
+
+    /**
+     * Returns a value of the entry for the ith nearest alien bullet, where field is PRESENT, DX, DY, SPEED_X, or
+     * SPEED_Y
+     */
+    public double getBullet (int i, int field)
+    {
+        return values[HEADER + (asteroids + i) * ENTRY + field];
+    }
+
+    /**
+     * Fills in the values from the game as it stands between ticks.
+     */
+    void fill (Game game)
+    {
+        Arrays.fill(values, 0);
+        values[TICK] = game.getTick();
+        values[LIVES] = game.getLives();
+        values[LEVEL] = game.getLevel();
+        values[SCORE] = game.getScore();
+
+        // Measure everything from the ship, or from the middle if there is none
+        ParticipantStore store = game.getParticipantState().getStore();
+        KinematicsTable k = store.kinematics();
+        double originX = Constants.SIZE / 2;
+        double originY = Constants.SIZE / 2;
+        int ship = slotOf(store, game.getShip());
+        if (ship >= 0)
+        {
+            originX = k.x[ship];
+            originY = k.y[ship];
+            values[SHIP] = 1;
+            values[SHIP_X] = originX;
+            values[SHIP_Y] = originY;
+            values[SHIP_SPEED_X] = k.speedX[ship];
+            values[SHIP_SPEED_Y] = k.speedY[ship];
+            values[SHIP_ROTATION] = k.rotation[ship];
+        }
+        int alien = slotOf(store, game.getAlienShip());
+        if (alien >= 0)
+        {
+            values[ALIEN_SHIP] = 1;
+            values[ALIEN_SHIP_DX] = wrap(k.x[alien] - originX);
+            values[ALIEN_SHIP_DY] = wrap(k.y[alien] - originY);
+            values[ALIEN_SHIP_SPEED_X] = k.speedX[alien];
+            values[ALIEN_SHIP_SPEED_Y] = k.speedY[alien];
+        }
+
+        fillNearest(store, Asteroid.class, asteroids, HEADER, originX, originY);
+        fillNearest(store, AlienBullet.class, bullets, HEADER + asteroids * ENTRY, originX, originY);
+    }
+
+    /**
+     * Fills in entries, starting at offset, for up to count of the participants of the given class that are nearest to
+     * the origin, nearest first.
+     */
+    private void fillNearest (ParticipantStore store, Class<? extends Participant> type, int count, int offset,
+            double originX, double originY)
+    {
+        if (count == 0)
+        {
+            return;
+        }
+
+        // Keep the nearest ones found so far in order, nearest first
+        KinematicsTable k = store.kinematics();
+        int found = 0;
+        for (int i = 0; i < store.size(); i++)
+        {
+            Participant p = store.get(i);
+            if (p.getClass() != type || p.isExpired())
+            {
+                continue;
+            }
+            double dx = wrap(k.x[i] - originX);
+            double dy = wrap(k.y[i] - originY);
+            double distance = dx * dx + dy * dy;
+            if (found == count && distance >= nearestDistance[count - 1])
+            {
+                continue;
+            }
+            int j = found < count ? found++ : count - 1;
+            while (j > 0 && nearestDistance[j - 1] > distance)
+            {
+                nearestDistance[j] = nearestDistance[j - 1];
+                nearestIndex[j] = nearestIndex[j - 1];
+                j--;
+            }
+            nearestDistance[j] = distance;
+            nearestIndex[j] = i;
+        }
+
+        // Write them out
+        for (int j = 0; j < found; j++)
+        {
+            int i = nearestIndex[j];
+            int base = offset + j * ENTRY;
+            values[base + PRESENT] = 1;
+            values[base + DX] = wrap(k.x[i] - originX);
+            values[base + DY] = wrap(k.y[i] - originY);
+            values[base + SPEED_X] = k.speedX[i];
+            values[base + SPEED_Y] = k.speedY[i];
+            Participant p = store.get(i);
+            if (p instanceof Asteroid)
+            {
+                values[base + SIZE] = ((Asteroid) p).getSize();
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of p in the store, or -1 if p is null, expired, or not in the game.
+     */
+    private static int slotOf (ParticipantStore store, Participant p)
+    {
+        if (p == null || p.isExpired())
+        {
+            return -1;
+        }
+        for (int i = 0; i < store.size(); i++)
+        {
+            if (store.get(i) == p)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset along one axis that takes the shorter way around the screen
+     */
+    private static double wrap (double d)
+    {
+        if (d > Constants.SIZE / 2)
+        {
+            return d - Constants.SIZE;
+        }
+        else if (d < -Constants.SIZE / 2)
+        {
+            return d + Constants.SIZE;
+        }
+        return d;
+    }
+}
@@ -0,0 +1,107 @@
+package asteroids.game;
+
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * An outline that has been prepared once so that it can be shared by every participant that looks the same. The shape
+ * is flattened into straight lines when the Outline is made, and the bounding radius and the convex pieces used for
+ * collisions are worked out at the same time. An Outline is never modified after it is made, so it can be used from
+ * any number of participants and threads at once.
+ *
+ * Outlines are usually obtained from {@link asteroids.game.OutlineCache}.
+ */
+public final class Outline
+{
+    /** The flattened shape */
+    private final Shape shape;
+
+    /** Radius of the smallest circle about (0,0) that contains the bounding box of the shape */
+    private final double radius;
+
+    /** The shape broken into convex pieces */
+    private final ConvexOutline convex;
+
+    /**
+     * Prepares an outline from a shape whose center is at (0,0). The shape is copied, so later changes to it have no
+     * effect.
+     */
+    public Outline (Shape original)
+    {
+        shape = flatten(original);
+        radius = boundingRadius(shape);
+        convex = new ConvexOutline(shape);
+    }
+
+    /**
+     * Returns the flattened shape. The shape must not be modified.
+     */
+    public Shape getShape ()
+    {
+        return shape;
+    }
+
+    /**
+     * Returns the radius of a circle about (0,0) that contains the shape however it is rotated.
+     */
+    public double getRadius ()
+    {
+        return radius;
+    }
+
+    /**
+     * Returns the number of convex pieces that the shape was broken into for collision tests.
+     */
+    public int getPieceCount ()
+    {
+        return convex.getPieceCount();
+    }
+
+    /**
+     * Returns the convex pieces of the shape.
+     */
+    ConvexOutline getConvex ()
+    {
+        return convex;
+    }
+
+    /**
+     * Returns the radius of the smallest circle about (0,0) that contains the bounding box of the shape. The circle
+     * contains the shape however it is rotated.
+     */
+    static double boundingRadius (Shape shape)
+    {
+        Rectangle2D box = shape.getBounds2D();
+        double dx = Math.max(Math.abs(box.getMinX()), Math.abs(box.getMaxX()));
+        double dy = Math.max(Math.abs(box.getMinY()), Math.abs(box.getMaxY()));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Returns a copy of the shape with its curves replaced by straight lines, just as they are for collision tests.
+     */
+    private static Shape flatten (Shape original)
+    {
+        Path2D.Double path = new Path2D.Double();
+        double[] coords = new double[6];
+        for (PathIterator iter = original.getPathIterator(null, ConvexOutline.FLATNESS); !iter.isDone(); iter.next())
+        {
+            int type = iter.currentSegment(coords);
+            if (type == PathIterator.SEG_MOVETO)
+            {
+                path.moveTo(coords[0], coords[1]);
+            }
+            else if (type == PathIterator.SEG_LINETO)
+            {
+                path.lineTo(coords[0], coords[1]);
+            }
+            else if (type == PathIterator.SEG_CLOSE)
+            {
+                path.closePath();
+            }
+        }
+        return path;
+    }
+}
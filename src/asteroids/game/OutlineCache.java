@@ -0,0 +1,116 @@
+package asteroids.game;
+
+import java.awt.Shape;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares prepared outlines among all of the participants that look the same. An outline is identified by the class of
+ * participant it belongs to, a variety, a size, and whether it shows thrust. Classes that don't use some of these
+ * should always pass the same value for them (such as 0 or false).
+ *
+ * The usual pattern is to ask for an outline with get, and if there is none yet, to build the shape and hand it to
+ * put. If two participants race to put the same outline, the first one wins and both get it back.
+ *
+ * The cache can be used from any number of threads.
+ */
+public class OutlineCache
+{
+    /** The outlines, by what they are for */
+    private final static ConcurrentHashMap<Key, Outline> outlines = new ConcurrentHashMap<Key, Outline>();
+
+    /** The outlines, by their flattened shapes */
+    private final static ConcurrentHashMap<Shape, Outline> shapes = new ConcurrentHashMap<Shape, Outline>();
+
+    /**
+     * There is no need to create an OutlineCache.
+     */
+    private OutlineCache ()
+    {
+    }
+
+    /**
+     * Returns the outline that has been put for the given class, variety, size and thrust, or null if there is none.
+     */
+    public static Outline get (Class<? extends Participant> type, int variety, int size, boolean thrust)
+    {
+        return outlines.get(new Key(type, variety, size, thrust));
+    }
+
+    /**
+     * Prepares an outline from shape and caches it for the given class, variety, size and thrust, unless there already
+     * is one. Returns the cached outline.
+     */
+    public static Outline put (Class<? extends Participant> type, int variety, int size, boolean thrust, Shape shape)
+    {
+        Key key = new Key(type, variety, size, thrust);
+        Outline outline = outlines.get(key);
+        if (outline == null)
+        {
+            Outline prepared = new Outline(shape);
+            outline = outlines.putIfAbsent(key, prepared);
+            if (outline == null)
+            {
+                shapes.put(prepared.getShape(), prepared);
+                outline = prepared;
+            }
+        }
+        return outline;
+    }
+
+    /**
+     * Returns the cached outline whose flattened shape is shape, or null if shape did not come from the cache.
+     */
+    static Outline forShape (Shape shape)
+    {
+        return shapes.get(shape);
+    }
+
+    /**
+     * Identifies an outline.
+     */
+    private static class Key
+    {
+        /** The class of participant that the outline belongs to */
+        private final Class<?> type;
+
+        /** The variety, size, and thrust of the outline */
+        private final int variety, size;
+
+        /** Whether the outline shows thrust */
+        private final boolean thrust;
+
+        /**
+         * Creates a key.
+         */
+        Key (Class<?> type, int variety, int size, boolean thrust)
+        {
+            this.type = type;
+            this.variety = variety;
+            this.size = size;
+            this.thrust = thrust;
+        }
+
+        /**
+         * Keys are equal when all of their parts are.
+         */
+        @Override
+        public boolean equals (Object o)
+        {
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+            Key k = (Key) o;
+            return type == k.type && variety == k.variety && size == k.size && thrust == k.thrust;
+        }
+
+        /**
+         * Combines the hash codes of the parts.
+         */
+        @Override
+        public int hashCode ()
+        {
+            return ((type.hashCode() * 31 + variety) * 31 + size) * 2 + (thrust ? 1 : 0);
+        }
+    }
+}
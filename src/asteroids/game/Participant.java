@@ -3,6 +3,10 @@ package asteroids.game;
 import static asteroids.game.Constants.*;
 import java.awt.*;
 import java.awt.geom.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import asteroids.destroyers.OnscreenLabel;
 
 /**
  * Represents a single moving element in an asteroids game. Each Participant object has an outline (used for drawing
@@ -15,36 +19,95 @@ import java.awt.geom.*;
  */
 public abstract class Participant
 {
-    /** Speed in pixels per second in the horizontal (x) and vertical (y) directions */
-    private double speedX, speedY;
+    /**
+     * The table that holds this Participant's position, speed in pixels per frame, and rotation in radians. This is a
+     * private table until the Participant joins a ParticipantState.
+     */
+    private KinematicsTable kinematics;
+
+    /** This Participant's slot in the kinematics table */
+    private int slot;
+
+    /** Number of times the Participant has moved, which tells whether the placed geometry below is current */
+    private int moves;
+
+    /** Position and rotation at which the last move placed the outline, before any wrapping around the screen */
+    private double placedX, placedY, placedRotation;
+
+    /** Position and rotation at which the move before the last one placed the outline, used for interpolation */
+    private double previousX, previousY, previousRotation;
+
+    /** True if the position has jumped since the last move, so that the next move should not be interpolated */
+    private boolean jumped;
+
+    /** Takes the outline to where it was placed by the last move, brought up to date only when needed */
+    private AffineTransform transform;
+
+    /** Value of moves when the transform was last brought up to date */
+    private int transformMoves;
+
+    /** Bounding box of the placed outline, or null if the Participant has never moved */
+    private Rectangle2D.Double bounds;
+
+    /** Bounding box of the outline about its center when rotated by extentRotation */
+    private Rectangle2D.Double extent;
+
+    /** The rotation for which extent was computed */
+    private double extentRotation;
+
+    /** True if extent was computed for the current outline */
+    private boolean extentCurrent;
+
+    /** Center of the bounding circle of the placed outline */
+    private double circleX, circleY;
 
-    /** Amount by which this Participant's outline is rotated in radians */
-    private double rotation;
+    /** Radius of a circle about the outline's center that contains the whole outline */
+    private double radius;
 
-    /** Current x-coordinate of the Participant's center */
-    private double x;
+    /** The outline as of the last move, from which radius and convex were computed */
+    private Shape outline;
 
-    /** Current y-coordinate of the Participant's center */
-    private double y;
+    /** The outline broken into convex pieces */
+    private ConvexOutline convex;
 
-    /** Border of the Participant that is used for drawing */
-    private Shape border;
+    /** The convex pieces as placed by the last move, brought up to date only when needed */
+    private double[][] worldPieces;
+
+    /** Value of moves when worldPieces was last brought up to date */
+    private int piecesMoves;
 
     /** True if the Participant is expired */
     private boolean expired;
 
+    /** Collision layer of the Participant's class, assigned when it is added to a ParticipantState */
+    private int collisionLayer;
+
+    /** True while the Participant is waiting to be added to a ParticipantState */
+    private boolean pending;
+
+    /** The first of the Participant's running countdowns */
+    private ParticipantCountdownTimer timers;
+
+    /** The wheel that counts down the Participant's countdowns, or null until it joins a ParticipantState */
+    private TimingWheel wheel;
+
     /**
-     * Constructs an active Participant with no velocity, rotation, or border.
+     * Constructs an active Participant with no velocity, rotation, or outline.
      */
     protected Participant ()
     {
-        speedX = 0;
-        speedY = 0;
-        rotation = 0;
-        x = 0;
-        y = 0;
-        border = null;
+        kinematics = new KinematicsTable(1);
+        slot = 0;
+        moves = 0;
+        transform = new AffineTransform();
+        transformMoves = 0;
+        piecesMoves = 0;
+        bounds = null;
+        extent = new Rectangle2D.Double();
+        extentCurrent = false;
+        outline = null;
         expired = false;
+        collisionLayer = -1;
     }
 
     /**
@@ -64,6 +127,11 @@ public abstract class Participant
     private void setExpired ()
     {
         expired = true;
+        kinematics.moving[slot] = 0;
+        while (timers != null)
+        {
+            timers.cancel();
+        }
     }
 
     /**
@@ -80,8 +148,8 @@ public abstract class Participant
     public void setVelocity (double speed, double direction)
     {
         direction = normalize(direction);
-        speedX = Math.cos(direction) * speed;
-        speedY = Math.sin(direction) * speed;
+        kinematics.speedX[slot] = Math.cos(direction) * speed;
+        kinematics.speedY[slot] = Math.sin(direction) * speed;
     }
 
     /**
@@ -91,8 +159,8 @@ public abstract class Participant
     {
         direction = normalize(direction);
         double speed = getSpeed();
-        speedX = Math.cos(direction) * speed;
-        speedY = Math.sin(direction) * speed;
+        kinematics.speedX[slot] = Math.cos(direction) * speed;
+        kinematics.speedY[slot] = Math.sin(direction) * speed;
     }
 
     /**
@@ -101,8 +169,8 @@ public abstract class Participant
     public void setSpeed (double speed)
     {
         double direction = getDirection();
-        speedX = Math.cos(direction) * speed;
-        speedY = Math.sin(direction) * speed;
+        kinematics.speedX[slot] = Math.cos(direction) * speed;
+        kinematics.speedY[slot] = Math.sin(direction) * speed;
     }
 
     /**
@@ -110,7 +178,7 @@ public abstract class Participant
      */
     public double getDirection ()
     {
-        return normalize(Math.atan2(speedY, speedX));
+        return normalize(Math.atan2(kinematics.speedY[slot], kinematics.speedX[slot]));
     }
 
     /**
@@ -118,6 +186,8 @@ public abstract class Participant
      */
     public double getSpeed ()
     {
+        double speedX = kinematics.speedX[slot];
+        double speedY = kinematics.speedY[slot];
         return Math.sqrt(speedX * speedX + speedY * speedY);
     }
 
@@ -126,7 +196,7 @@ public abstract class Participant
      */
     public void setRotation (double radians)
     {
-        rotation = normalize(radians);
+        kinematics.rotation[slot] = normalize(radians);
     }
 
     /**
@@ -134,7 +204,7 @@ public abstract class Participant
      */
     public void rotate (double delta)
     {
-        rotation = normalize(rotation + delta);
+        kinematics.rotation[slot] = normalize(kinematics.rotation[slot] + delta);
     }
 
     /**
@@ -142,7 +212,7 @@ public abstract class Participant
      */
     public double getRotation ()
     {
-        return rotation;
+        return kinematics.rotation[slot];
     }
 
     /**
@@ -168,15 +238,16 @@ public abstract class Participant
     public void accelerate (double delta)
     {
         // Compute new speeds
-        speedX += delta * Math.cos(rotation);
-        speedY += delta * Math.sin(rotation);
+        double rotation = kinematics.rotation[slot];
+        kinematics.speedX[slot] += delta * Math.cos(rotation);
+        kinematics.speedY[slot] += delta * Math.sin(rotation);
 
         // Enforce the speed limit
         if (getSpeed() > SPEED_LIMIT)
         {
             double direction = getDirection();
-            speedX = SPEED_LIMIT * Math.cos(direction);
-            speedY = SPEED_LIMIT * Math.sin(direction);
+            kinematics.speedX[slot] = SPEED_LIMIT * Math.cos(direction);
+            kinematics.speedY[slot] = SPEED_LIMIT * Math.sin(direction);
         }
     }
 
@@ -185,13 +256,15 @@ public abstract class Participant
      */
     public void applyFriction (double coefficientOfFriction)
     {
+        double speedX = kinematics.speedX[slot];
+        double speedY = kinematics.speedY[slot];
         if (speedX != 0 || speedY != 0)
         {
             double speed = getSpeed();
             double deltaX = coefficientOfFriction * speedX / speed;
             double deltaY = coefficientOfFriction * speedY / speed;
-            speedX = (Math.abs(deltaX) > Math.abs(speedX)) ? 0 : (speedX + deltaX);
-            speedY = (Math.abs(deltaY) > Math.abs(speedY)) ? 0 : (speedY + deltaY);
+            kinematics.speedX[slot] = (Math.abs(deltaX) > Math.abs(speedX)) ? 0 : (speedX + deltaX);
+            kinematics.speedY[slot] = (Math.abs(deltaY) > Math.abs(speedY)) ? 0 : (speedY + deltaY);
         }
     }
 
@@ -200,8 +273,9 @@ public abstract class Participant
      */
     public void setPosition (double x, double y)
     {
-        this.x = x;
-        this.y = y;
+        kinematics.x[slot] = x;
+        kinematics.y[slot] = y;
+        jumped = true;
     }
 
     /**
@@ -209,7 +283,7 @@ public abstract class Participant
      */
     public double getX ()
     {
-        return x;
+        return kinematics.x[slot];
     }
 
     /**
@@ -217,7 +291,7 @@ public abstract class Participant
      */
     public double getY ()
     {
-        return y;
+        return kinematics.y[slot];
     }
 
     /**
@@ -225,6 +299,8 @@ public abstract class Participant
      * coordinate (0,0). The center is the reference used when the Shape is moved or rotated. This method is called
      * frequently, so it should be efficient. The Shape that is returned will not be modified, so it can be cached.
      * The Shape must have a non-zero area or no collisions will be detected.  (E.g., a point or line has zero area.)
+     * Shapes obtained from an {@link asteroids.game.OutlineCache} need no further preparation when a Participant starts
+     * using them.
      */
     protected abstract Shape getOutline ();
 
@@ -233,6 +309,19 @@ public abstract class Participant
      */
     public abstract void collidedWith (Participant p);
 
+    /**
+     * Reports whether collidedWith can ever take any action when this Participant collides with a Participant of the
+     * given class. Pairs of participants that don't react to each other are never tested for collision, so this must
+     * not report false for a class that collidedWith cares about. The answer must depend only on the classes involved.
+     * 
+     * By default, an {@link asteroids.destroyers.OnscreenLabel} reacts to nothing and every other Participant reacts to
+     * everything. Subclasses should narrow this down to match their collidedWith methods.
+     */
+    protected boolean reactsTo (Class<? extends Participant> other)
+    {
+        return !(this instanceof OnscreenLabel);
+    }
+
     /**
      * This method is called when a {@link asteroids.game.ParticipantCountdownTimer} that was constructed for this
      * Participant completes its countdown, so long as this Participant is not expired. The method should take
@@ -243,25 +332,107 @@ public abstract class Participant
     }
 
     /**
-     * Moves this participant to reflect one tick of the clock.
+     * Called once per tick, before this participant's position is advanced by its velocity. Subclasses override this to
+     * adjust their velocity, for example by applying friction. By default, does nothing.
+     */
+    protected void applyForces ()
+    {
+    }
+
+    /**
+     * Writes whatever a subclass needs, apart from the position, velocity, rotation, and countdowns, to recreate this
+     * participant when a {@link asteroids.game.GameSnapshot} is restored. By default, writes nothing.
+     */
+    protected void writeState (DataOutput out) throws IOException
+    {
+    }
+
+    /**
+     * Moves this participant to reflect one tick of the clock. A ParticipantState does not call this method, but
+     * instead calls applyForces on every participant, advances all of their positions together, and then calls
+     * finishMove on every participant. Subclasses should therefore override applyForces rather than this method.
      */
     public void move ()
+    {
+        applyForces();
+        kinematics.advance(slot);
+        finishMove();
+    }
+
+    /**
+     * Brings the bounds up to date with a position that has just been advanced, then wraps the position around the
+     * screen if the participant has gone far enough out of bounds. The transform and the placed convex pieces are
+     * only marked as out of date. They are brought up to date when something needs them.
+     */
+    void finishMove ()
     {
         // Get the original outline
         Shape original = getOutline();
+        double x = kinematics.x[slot];
+        double y = kinematics.y[slot];
+        double rotation = kinematics.rotation[slot];
+
+        // Remember where the original was placed. Counting the move makes the
+        // transform and the placed pieces out of date. The previous placement is
+        // kept for drawing between the two, unless the participant jumped to
+        // where it is now.
+        moves++;
+        if (moves == 1 || jumped)
+        {
+            previousX = x;
+            previousY = y;
+            previousRotation = rotation;
+        }
+        else
+        {
+            previousX = placedX;
+            previousY = placedY;
+            previousRotation = placedRotation;
+        }
+        placedX = x;
+        placedY = y;
+        placedRotation = rotation;
+        jumped = false;
+
+        // The radius, the decomposition, and the extent about the center depend
+        // only on the outline and the rotation, so they are recomputed only when
+        // those change. Outlines from the OutlineCache come with the radius and
+        // decomposition already worked out.
+        if (original != outline)
+        {
+            Outline shared = OutlineCache.forShape(original);
+            if (shared != null)
+            {
+                radius = shared.getRadius();
+                convex = shared.getConvex();
+            }
+            else
+            {
+                radius = Outline.boundingRadius(original);
+                convex = new ConvexOutline(original);
+            }
+            worldPieces = convex.createBuffers();
+            outline = original;
+            extentCurrent = false;
+        }
+        if (!extentCurrent || rotation != extentRotation)
+        {
+            convex.bounds(0, 0, rotation, extent);
+            extentRotation = rotation;
+            extentCurrent = true;
+        }
 
-        // Change the position to reflect participant motion
-        x += speedX;
-        y += speedY;
-
-        // Translate and rotate the original to reflect the accumulated motion
-        AffineTransform trans = AffineTransform.getTranslateInstance(x, y);
-        trans.concatenate(AffineTransform.getRotateInstance(rotation));
-        border = trans.createTransformedShape(original);
+        // Keep the bounding circle and bounds in step with the position
+        circleX = x;
+        circleY = y;
+        if (bounds == null)
+        {
+            bounds = new Rectangle2D.Double();
+        }
+        bounds.setRect(x + extent.x, y + extent.y, extent.width, extent.height);
 
         // If the element has gone sufficiently far out of bounds, move it to
         // the other side of the screen. This change will take effect next time.
-        Rectangle2D bounds = border.getBounds2D();
         if (bounds.getMaxX() < 0)
         {
             x += SIZE + (bounds.getMaxX() - bounds.getMinX());
@@ -278,6 +449,12 @@ public abstract class Participant
         {
             y += -SIZE - (bounds.getMaxY() - bounds.getMinY());
         }
+        if (x != kinematics.x[slot] || y != kinematics.y[slot])
+        {
+            jumped = true;
+        }
+        kinematics.x[slot] = x;
+        kinematics.y[slot] = y;
     }
 
     /**
@@ -287,9 +464,251 @@ public abstract class Participant
      */
     public void transformPoint (Point2D.Double point)
     {
-        AffineTransform trans = AffineTransform.getTranslateInstance(x, y);
-        trans.concatenate(AffineTransform.getRotateInstance(rotation));
-        trans.transform(point, point);
+        double cos = Math.cos(kinematics.rotation[slot]);
+        double sin = Math.sin(kinematics.rotation[slot]);
+        double px = point.x;
+        double py = point.y;
+        point.x = kinematics.x[slot] + px * cos - py * sin;
+        point.y = kinematics.y[slot] + px * sin + py * cos;
+    }
+
+    /**
+     * Brings the placed convex pieces up to date with the last move, if they are not already. Returns true if they had
+     * to be brought up to date. Once this has been called, collision tests involving this participant change nothing,
+     * so they can be run from any thread until the participant moves again.
+     */
+    boolean ensureBorder ()
+    {
+        if (outline == null || piecesMoves == moves)
+        {
+            return false;
+        }
+        convex.transform(placedX, placedY, placedRotation, worldPieces);
+        piecesMoves = moves;
+        return true;
+    }
+
+    /**
+     * Brings the transform up to date with the last move, if it is not already.
+     */
+    void ensureTransform ()
+    {
+        if (outline != null && transformMoves != moves)
+        {
+            transform.setToTranslation(placedX, placedY);
+            transform.rotate(placedRotation);
+            transformMoves = moves;
+        }
+    }
+
+    /**
+     * Writes this Participant's position, velocity, and rotation, exactly as they are held.
+     */
+    void writeKinematics (DataOutput out) throws IOException
+    {
+        out.writeDouble(kinematics.x[slot]);
+        out.writeDouble(kinematics.y[slot]);
+        out.writeDouble(kinematics.speedX[slot]);
+        out.writeDouble(kinematics.speedY[slot]);
+        out.writeDouble(kinematics.rotation[slot]);
+    }
+
+    /**
+     * Reads this Participant's position, velocity, and rotation as written by writeKinematics. The next move is not
+     * interpolated from wherever the Participant was before.
+     */
+    void readKinematics (DataInput in) throws IOException
+    {
+        kinematics.x[slot] = in.readDouble();
+        kinematics.y[slot] = in.readDouble();
+        kinematics.speedX[slot] = in.readDouble();
+        kinematics.speedY[slot] = in.readDouble();
+        kinematics.rotation[slot] = in.readDouble();
+        jumped = true;
+    }
+
+    /**
+     * Returns the Participant's running countdowns, in the order in which they were created.
+     */
+    ParticipantCountdownTimer[] getTimers ()
+    {
+        int count = 0;
+        ParticipantCountdownTimer last = null;
+        for (ParticipantCountdownTimer t = timers; t != null; t = t.participantNext)
+        {
+            last = t;
+            count++;
+        }
+        ParticipantCountdownTimer[] result = new ParticipantCountdownTimer[count];
+        for (ParticipantCountdownTimer t = last; t != null; t = t.participantPrev)
+        {
+            result[--count] = t;
+        }
+        return result;
+    }
+
+    /**
+     * Records a new countdown for this Participant. The countdown starts right away if the Participant has joined a
+     * ParticipantState, and otherwise waits until it does. A countdown for an expired Participant is cancelled at
+     * once.
+     */
+    void addTimer (ParticipantCountdownTimer timer)
+    {
+        // An expired Participant has no running countdowns and gets no new ones
+        if (expired)
+        {
+            timer.cancel();
+            return;
+        }
+
+        timer.participantPrev = null;
+        timer.participantNext = timers;
+        if (timers != null)
+        {
+            timers.participantPrev = timer;
+        }
+        timers = timer;
+        if (wheel != null)
+        {
+            wheel.schedule(timer);
+        }
+    }
+
+    /**
+     * Forgets a countdown that has completed or been cancelled.
+     */
+    void removeTimer (ParticipantCountdownTimer timer)
+    {
+        if (timer.participantPrev == null)
+        {
+            timers = timer.participantNext;
+        }
+        else
+        {
+            timer.participantPrev.participantNext = timer.participantNext;
+        }
+        if (timer.participantNext != null)
+        {
+            timer.participantNext.participantPrev = timer.participantPrev;
+        }
+        timer.participantPrev = null;
+        timer.participantNext = null;
+    }
+
+    /**
+     * Starts the countdowns that were waiting for this Participant to join a ParticipantState, using the state's wheel
+     * from then on. The countdowns start in the order in which they were created.
+     */
+    void startTimers (TimingWheel wheel)
+    {
+        this.wheel = wheel;
+        ParticipantCountdownTimer last = timers;
+        while (last != null && last.participantNext != null)
+        {
+            last = last.participantNext;
+        }
+        for (ParticipantCountdownTimer t = last; t != null; t = t.participantPrev)
+        {
+            wheel.schedule(t);
+        }
+    }
+
+    /**
+     * Copies this Participant's position, velocity, and rotation into the given slot of table, which it uses from then
+     * on.
+     */
+    void attach (KinematicsTable table, int slot)
+    {
+        table.copy(kinematics, this.slot, slot);
+        this.kinematics = table;
+        this.slot = slot;
+    }
+
+    /**
+     * Records that this Participant's values have been moved to another slot of the same table.
+     */
+    void setSlot (int slot)
+    {
+        this.slot = slot;
+    }
+
+    /**
+     * Copies this Participant's position, velocity, and rotation out of the shared table into a private one, which it
+     * uses from then on.
+     */
+    void detach ()
+    {
+        KinematicsTable table = new KinematicsTable(1);
+        table.copy(kinematics, slot, 0);
+        this.kinematics = table;
+        this.slot = 0;
+    }
+
+    /**
+     * Reports whether the Participant is waiting to be added to a ParticipantState.
+     */
+    boolean isPending ()
+    {
+        return pending;
+    }
+
+    /**
+     * Records whether the Participant is waiting to be added to a ParticipantState.
+     */
+    void setPending (boolean pending)
+    {
+        this.pending = pending;
+    }
+
+    /**
+     * Returns the collision layer assigned by the ParticipantState, or -1 if none has been assigned.
+     */
+    int getCollisionLayer ()
+    {
+        return collisionLayer;
+    }
+
+    /**
+     * Records the collision layer assigned by the ParticipantState.
+     */
+    void setCollisionLayer (int layer)
+    {
+        collisionLayer = layer;
+    }
+
+    /**
+     * Returns the bounding box of the outline as of the last move, or null if the participant has never moved. The
+     * returned rectangle must not be modified.
+     */
+    Rectangle2D getBounds ()
+    {
+        return bounds;
+    }
+
+    /**
+     * Reports whether the bounding box and bounding circle of this participant intersect those of p. If they do not,
+     * the participants cannot overlap. If either participant has never moved, reports true so that the exact test
+     * makes the decision.
+     */
+    boolean boundsIntersect (Participant p)
+    {
+        if (bounds == null || p.bounds == null)
+        {
+            return true;
+        }
+
+        // Boxes first, since they are cheapest
+        if (bounds.getMaxX() < p.bounds.getMinX() || p.bounds.getMaxX() < bounds.getMinX()
+                || bounds.getMaxY() < p.bounds.getMinY() || p.bounds.getMaxY() < bounds.getMinY())
+        {
+            return false;
+        }
+
+        // Then circles, which reject diagonal near misses that the boxes let through
+        double dx = circleX - p.circleX;
+        double dy = circleY - p.circleY;
+        double reach = radius + p.radius;
+        return dx * dx + dy * dy <= reach * reach;
     }
 
     /**
@@ -297,22 +716,124 @@ public abstract class Participant
      */
     public boolean overlaps (Participant p)
     {
-        Area a = new Area(border);
-        a.intersect(new Area(p.border));
-        return !a.isEmpty();
+        return boundsIntersect(p) && polygonsIntersect(p);
+    }
+
+    /**
+     * Reports whether the convex pieces of this participant and p intersect, without first checking their bounds.
+     * Nothing is allocated. A participant that has never moved overlaps nothing.
+     */
+    boolean polygonsIntersect (Participant p)
+    {
+        if (outline == null || p.outline == null)
+        {
+            return false;
+        }
+        ensureBorder();
+        p.ensureBorder();
+        return ConvexOutline.intersect(worldPieces, p.worldPieces);
+    }
+
+    /**
+     * Reports whether the placed outlines of this participant and p intersect by building and intersecting Area
+     * objects, without first checking their bounds. A participant that has never moved overlaps nothing.
+     */
+    boolean areasIntersect (Participant p)
+    {
+        Area a = overlap(p);
+        return a != null && !a.isEmpty();
+    }
+
+    /**
+     * Returns the area, in square pixels, of the Area intersection of the placed outlines of this participant and p,
+     * without first checking their bounds. A participant that has never moved overlaps nothing.
+     */
+    double overlapArea (Participant p)
+    {
+        Area a = overlap(p);
+        if (a == null)
+        {
+            return 0;
+        }
+
+        // Add up the signed areas of the figures, whose holes run the other way
+        double[] coords = new double[6];
+        double area = 0, startX = 0, startY = 0, lastX = 0, lastY = 0;
+        for (PathIterator i = a.getPathIterator(null, 0.1); !i.isDone(); i.next())
+        {
+            int type = i.currentSegment(coords);
+            if (type == PathIterator.SEG_MOVETO)
+            {
+                startX = lastX = coords[0];
+                startY = lastY = coords[1];
+            }
+            else if (type == PathIterator.SEG_LINETO)
+            {
+                area += lastX * coords[1] - coords[0] * lastY;
+                lastX = coords[0];
+                lastY = coords[1];
+            }
+            else if (type == PathIterator.SEG_CLOSE)
+            {
+                area += lastX * startY - startX * lastY;
+                lastX = startX;
+                lastY = startY;
+            }
+        }
+        return Math.abs(area) / 2;
+    }
+
+    /**
+     * Returns the Area intersection of the placed outlines of this participant and p, or null if either has never
+     * moved.
+     */
+    private Area overlap (Participant p)
+    {
+        if (outline == null || p.outline == null)
+        {
+            return null;
+        }
+        ensureTransform();
+        p.ensureTransform();
+        Area a = new Area(transform.createTransformedShape(outline));
+        a.intersect(new Area(p.transform.createTransformedShape(p.outline)));
+        return a;
     }
 
     /**
-     * Draws this participant
+     * Draws this participant where the last move placed it
      */
     public void draw (Graphics2D g)
     {
         g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY); 
-        if (border == null)
+        if (outline == null)
+        {
+            g.draw(getOutline());
+            return;
+        }
+
+        ensureTransform();
+        AffineTransform saved = g.getTransform();
+        g.transform(transform);
+        g.draw(outline);
+        g.setTransform(saved);
+    }
+
+    /**
+     * Adds this participant to the snapshot, along with where the last two moves placed it. A participant that jumped,
+     * such as by wrapping around the screen, is given the same place for both. One that has never moved is given its
+     * outline as it is.
+     */
+    void capture (RenderSnapshot snapshot)
+    {
+        if (outline == null)
+        {
+            snapshot.add(getOutline(), 0, 0, 0, 0, 0, 0);
+        }
+        else
         {
-            border = getOutline();
+            snapshot.add(outline, previousX, previousY, previousRotation, placedX, placedY, placedRotation);
         }
-        g.draw(border);
     }
 }
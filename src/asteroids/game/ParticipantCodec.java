@@ -0,0 +1,87 @@
+package asteroids.game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import asteroids.participants.*;
+
+/**
+ * Writes and reads single participants for a {@link asteroids.game.GameSnapshot}. A participant is written as a byte
+ * giving its class, then whatever its class writes in {@link asteroids.game.Participant#writeState(DataOutput)}, then
+ * its position, velocity, and rotation as five doubles. Its countdowns are written separately.
+ *
+ * The type numbers are part of the snapshot format. New classes may be added to the end of the list, but the existing
+ * numbers must not change without changing the snapshot version.
+ */
+final class ParticipantCodec
+{
+    /** The classes of participant that can be written, indexed by their type numbers */
+    private final static Class<?>[] TYPES = { Ship.class, Asteroid.class, AlienShip.class, Bullet.class,
+            AlienBullet.class, Debris.class, Lives.class };
+
+    /**
+     * There is no need to create a ParticipantCodec.
+     */
+    private ParticipantCodec ()
+    {
+    }
+
+    /**
+     * Writes the participant. Throws a NotSerializableException if its class can't be written.
+     */
+    static void write (Participant p, DataOutput out) throws IOException
+    {
+        int type = 0;
+        while (type < TYPES.length && TYPES[type] != p.getClass())
+        {
+            type++;
+        }
+        if (type == TYPES.length)
+        {
+            throw new NotSerializableException(p.getClass().getName());
+        }
+
+        out.writeByte(type);
+        p.writeState(out);
+        p.writeKinematics(out);
+    }
+
+    /**
+     * Reads a participant of the given game, as written by write. The participant has not joined the game. Throws an
+     * IOException if the type number is unknown.
+     */
+    static Participant read (DataInput in, Game game) throws IOException
+    {
+        int type = in.readUnsignedByte();
+        Participant p;
+        switch (type)
+        {
+        case 0:
+            p = Ship.readState(in, game);
+            break;
+        case 1:
+            p = Asteroid.readState(in, game);
+            break;
+        case 2:
+            p = AlienShip.readState(in, game);
+            break;
+        case 3:
+            p = Bullet.readState(in, game);
+            break;
+        case 4:
+            p = AlienBullet.readState(in);
+            break;
+        case 5:
+            p = Debris.readState(in);
+            break;
+        case 6:
+            p = Lives.readState(in);
+            break;
+        default:
+            throw new IOException("Unknown participant type: " + type);
+        }
+        p.readKinematics(in);
+        return p;
+    }
+}
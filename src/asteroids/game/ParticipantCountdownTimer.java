@@ -1,23 +1,45 @@
 package asteroids.game;
 
-import javax.swing.*;
-import java.awt.event.*;
+import static asteroids.game.Constants.*;
 
 /**
  * Provides objects that wait for a certain amount of time to pass before making a callback to a Participant's
  * countdownComplete method.
+ *
+ * Time is measured in game ticks rather than by the wall clock. The number of milliseconds is rounded up to a whole
+ * number of ticks of FRAME_INTERVAL milliseconds, and is never less than one tick. The countdown starts once the
+ * Participant has joined a {@link asteroids.game.ParticipantState}, whose timing wheel counts the ticks down. If the
+ * Participant expires first, the countdown is cancelled.
  */
-public class ParticipantCountdownTimer implements ActionListener
+public class ParticipantCountdownTimer
 {
     /** Payload that is passed to the countdownComplete method when it is called */
     private Object payload;
 
-    /** Internal timer */
-    private Timer timer;
-
     /** Participant to be notified when time expires */
     private Participant participant;
 
+    /** Number of ticks to wait */
+    final int ticks;
+
+    /** True once the callback has been made or the countdown has been cancelled */
+    private boolean done;
+
+    /** The wheel on which the countdown is scheduled, or null if it isn't scheduled */
+    TimingWheel wheel;
+
+    /** The slot of the wheel in which the countdown is scheduled */
+    int slot;
+
+    /** Number of times around the wheel to wait before the countdown completes */
+    int rounds;
+
+    /** Neighbors in the wheel's slot */
+    ParticipantCountdownTimer wheelPrev, wheelNext;
+
+    /** Neighbors among the participant's countdowns */
+    ParticipantCountdownTimer participantPrev, participantNext;
+
     /**
      * Constructs an object that waits for the given number of milliseconds to pass before invoking the
      * countdownComplete method on p, passing null as its parameter. The call is not made if p has expired.
@@ -35,20 +57,94 @@ public class ParticipantCountdownTimer implements ActionListener
     {
         this.participant = p;
         this.payload = payload;
-        timer = new Timer(msecs, this);
-        timer.start();
+        this.ticks = toTicks(msecs);
+        p.addTimer(this);
+    }
+
+    /**
+     * Constructs an object that waits for the given number of ticks, rather than milliseconds, to pass before invoking
+     * the countdownComplete method on p. This is how countdowns are restored from a
+     * {@link asteroids.game.GameSnapshot}.
+     */
+    ParticipantCountdownTimer (int ticks, Participant p, Object payload)
+    {
+        this.participant = p;
+        this.payload = payload;
+        this.ticks = Math.max(1, ticks);
+        p.addTimer(this);
+    }
+
+    /**
+     * Returns the number of ticks needed for msecs milliseconds to pass, which is always at least one.
+     */
+    static int toTicks (int msecs)
+    {
+        return Math.max(1, (msecs + FRAME_INTERVAL - 1) / FRAME_INTERVAL);
+    }
+
+    /**
+     * Returns the participant to be notified when the countdown completes
+     */
+    Participant getParticipant ()
+    {
+        return participant;
+    }
+
+    /**
+     * Returns the payload passed to the countdownComplete method
+     */
+    Object getPayload ()
+    {
+        return payload;
+    }
+
+    /**
+     * Returns the number of ticks left before the countdown completes. A countdown that has not started yet has all of
+     * its ticks left.
+     */
+    int getTicksLeft ()
+    {
+        return wheel == null ? ticks : wheel.ticksLeft(this);
+    }
+
+    /**
+     * Reports whether the countdown is still running, which it is until the callback has been made or the countdown
+     * has been cancelled.
+     */
+    public boolean isRunning ()
+    {
+        return !done;
+    }
+
+    /**
+     * Stops the countdown without making the callback. Does nothing if the countdown is not running.
+     */
+    public void cancel ()
+    {
+        if (!done)
+        {
+            done = true;
+            if (wheel != null)
+            {
+                wheel.remove(this);
+            }
+            participant.removeTimer(this);
+        }
     }
 
     /**
-     * When the interval has passed, stops the timer and makes the callback, as long as the participant has not expired.
+     * When the countdown has completed, makes the callback, as long as the participant has not expired.
      */
-    @Override
-    public void actionPerformed (ActionEvent e)
+    void complete ()
     {
-        timer.stop();
-        if (!participant.isExpired())
+        if (!done)
         {
-            participant.countdownComplete(payload);
+            done = true;
+            participant.removeTimer(this);
+            if (!participant.isExpired())
+            {
+                participant.countdownComplete(payload);
+            }
         }
     }
 }
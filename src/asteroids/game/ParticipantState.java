@@ -1,9 +1,13 @@
 package asteroids.game;
 
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Set;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import asteroids.participants.Asteroid;
 
 /**
@@ -11,20 +15,140 @@ import asteroids.participants.Asteroid;
  */
 public class ParticipantState
 {
-    /** The participants (asteroids, ships, etc.) that are involved in the game */
-    private LinkedList<Participant> participants;
+    /** Outcome of a pair test: the bounds didn't intersect */
+    private final static byte REJECTED = 1;
 
-    /** Participants that are waiting to be added to the game */
-    private Set<Participant> pendingAdds;
+    /** Outcome of a pair test: the participants overlap */
+    private final static byte HIT = 2;
+
+    /** Outcome of a pair test: the polygon and Area tests disagreed */
+    private final static byte MISMATCH = 4;
+
+    /** Square pixels of Area overlap below which a hit that the polygon test misses is not counted as a mismatch */
+    private final static double MISMATCH_AREA = 0.5;
+
+    /** Number of pairs below which collisions are never tested in parallel */
+    private final static int PARALLEL_THRESHOLD = 256;
+
+    /** The participants (asteroids, ships, etc.) that are involved in the game, and those waiting to be added */
+    private ParticipantStore participants;
+
+    /** Finds the pairs of participants that might be colliding */
+    private BroadPhase broadPhase;
+
+    /** The kind of broad phase in use */
+    private BroadPhaseType broadPhaseType;
+
+    /** Which classes of participants react to colliding with which others */
+    private CollisionLayers layers;
+
+    /** The participants in iteration order, as held by the store during a collision check */
+    private Participant[] ordered;
+
+    /** Scratch space that receives the collision candidates of one participant */
+    private int[] candidates;
+
+    /** Where the pairs of each participant begin in the pair arrays */
+    private int[] pairStart;
+
+    /** The indices of the two participants in each pair, with pairOwner the earlier one */
+    private int[] pairOwner, pairOther;
+
+    /** The outcome of testing each pair, when the pairs are tested up front */
+    private byte[] outcomes;
+
+    /** Whether pairs may be tested on the fork/join pool */
+    private boolean parallelCollisions;
+
+    /** Counts of the work done during the most recent tick */
+    private TickStatistics statistics;
+
+    /** How pairs whose bounds intersect are tested for overlap */
+    private NarrowPhase narrowPhase;
+
+    /** Counts down the participants' countdown timers, one step per tick */
+    private TimingWheel timers;
 
     /**
-     * Creates an empty ParticipantState.
+     * Creates an empty ParticipantState that uses the default broad phase, as given by
+     * {@link asteroids.game.BroadPhaseType#getDefault()}.
      */
     public ParticipantState ()
+    {
+        this(BroadPhaseType.getDefault());
+    }
+
+    /**
+     * Creates an empty ParticipantState that uses the given broad phase to find colliding participants.
+     */
+    public ParticipantState (BroadPhaseType broadPhaseType)
     {
         // No participants at the start
-        participants = new LinkedList<Participant>();
-        pendingAdds = new HashSet<Participant>();
+        participants = new ParticipantStore();
+
+        // Collision bookkeeping, grown as the number of participants grows
+        setBroadPhase(broadPhaseType);
+        layers = new CollisionLayers();
+        candidates = new int[64];
+        pairStart = new int[65];
+        pairOwner = new int[64];
+        pairOther = new int[64];
+        outcomes = new byte[64];
+        parallelCollisions = Runtime.getRuntime().availableProcessors() > 1;
+        statistics = new TickStatistics();
+        narrowPhase = NarrowPhase.POLYGON;
+        timers = new TimingWheel();
+    }
+
+    /**
+     * Selects the broad phase used to find the pairs of participants that might be colliding.
+     */
+    public void setBroadPhase (BroadPhaseType broadPhaseType)
+    {
+        this.broadPhaseType = broadPhaseType;
+        this.broadPhase = broadPhaseType.create();
+    }
+
+    /**
+     * Returns the kind of broad phase used to find the pairs of participants that might be colliding.
+     */
+    public BroadPhaseType getBroadPhase ()
+    {
+        return broadPhaseType;
+    }
+
+    /**
+     * Enables or disables testing collisions in parallel. When enabled, a tick with many candidate pairs tests them on
+     * the common fork/join pool. Either way, collisions are reported in the same order with the same results. Parallel
+     * collisions are enabled by default on machines with more than one processor.
+     */
+    public void setParallelCollisions (boolean parallel)
+    {
+        this.parallelCollisions = parallel;
+    }
+
+    /**
+     * Reports whether collisions may be tested in parallel.
+     */
+    public boolean isParallelCollisions ()
+    {
+        return parallelCollisions;
+    }
+
+    /**
+     * Selects how pairs whose bounds intersect are tested for overlap.
+     */
+    public void setNarrowPhase (NarrowPhase narrowPhase)
+    {
+        this.narrowPhase = narrowPhase;
+    }
+
+    /**
+     * Returns how pairs whose bounds intersect are tested for overlap.
+     */
+    public NarrowPhase getNarrowPhase ()
+    {
+        return narrowPhase;
     }
     
     /**
@@ -46,7 +170,6 @@ public class ParticipantState
      */
     public void clear ()
     {
-        pendingAdds.clear();
         for (Participant p : participants)
         {
             Participant.expire(p);
@@ -55,19 +178,168 @@ public class ParticipantState
     }
     
     /**
-     * Adds a new Participant
+     * Adds a new Participant. Participants join the game in the order in which they are added.
      */
     public void addParticipant (Participant p)
     {
-        pendingAdds.add(p);
+        participants.addPending(p);
+    }
+
+    /**
+     * Returns the active participants, in the order in which they joined the game. The participants can be iterated
+     * over but not removed.
+     */
+    public Iterable<Participant> getParticipants ()
+    {
+        return participants;
+    }
+
+    /**
+     * Returns the store that holds the participants and their kinematics, which must not be changed from outside.
+     */
+    ParticipantStore getStore ()
+    {
+        return participants;
+    }
+
+    /**
+     * Adds every active participant to the snapshot, in the order in which they joined the game.
+     */
+    void capture (RenderSnapshot snapshot)
+    {
+        snapshot.clear();
+        for (int i = 0; i < participants.size(); i++)
+        {
+            Participant p = participants.get(i);
+            if (!p.isExpired())
+            {
+                p.capture(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Writes every participant that has not expired, first those in the game and then those waiting to be added, and
+     * then every running countdown. Returns the participants in the order in which they were written. Throws a
+     * NotSerializableException if a participant's class can't be written or a countdown's payload is not a String.
+     */
+    Participant[] write (DataOutput out) throws IOException
+    {
+        // The participants, numbered in the order written
+        Participant[] written = new Participant[participants.size() + participants.pendingSize()];
+        IdentityHashMap<Participant, Integer> index = new IdentityHashMap<Participant, Integer>();
+        int active = 0;
+        for (int i = 0; i < participants.size(); i++)
+        {
+            Participant p = participants.get(i);
+            if (!p.isExpired())
+            {
+                index.put(p, active);
+                written[active++] = p;
+            }
+        }
+        int count = active;
+        for (int i = 0; i < participants.pendingSize(); i++)
+        {
+            Participant p = participants.getPending(i);
+            if (!p.isExpired())
+            {
+                index.put(p, count);
+                written[count++] = p;
+            }
+        }
+        out.writeInt(active);
+        out.writeInt(count - active);
+        for (int i = 0; i < count; i++)
+        {
+            ParticipantCodec.write(written[i], out);
+        }
+
+        // The countdowns on the wheel, in an order that keeps those due on the same tick in order, and then those of
+        // the waiting participants, in the order in which they were created
+        ParticipantCountdownTimer[] scheduled = timers.toArray();
+        int waiting = 0;
+        for (int i = active; i < count; i++)
+        {
+            waiting += written[i].getTimers().length;
+        }
+        out.writeInt(scheduled.length + waiting);
+        for (ParticipantCountdownTimer t : scheduled)
+        {
+            writeTimer(t, index, out);
+        }
+        for (int i = active; i < count; i++)
+        {
+            for (ParticipantCountdownTimer t : written[i].getTimers())
+            {
+                writeTimer(t, index, out);
+            }
+        }
+
+        return Arrays.copyOf(written, count);
     }
 
     /**
-     * Returns an iterator over the active participants
+     * Writes the index of the countdown's participant, the ticks it has left, and its payload.
      */
-    public Iterator<Participant> getParticipants ()
+    private static void writeTimer (ParticipantCountdownTimer timer, IdentityHashMap<Participant, Integer> index,
+            DataOutput out) throws IOException
     {
-        return participants.iterator();
+        Object payload = timer.getPayload();
+        if (payload != null && !(payload instanceof String))
+        {
+            throw new NotSerializableException(payload.getClass().getName());
+        }
+        out.writeInt(index.get(timer.getParticipant()));
+        out.writeInt(timer.getTicksLeft());
+        out.writeBoolean(payload != null);
+        if (payload != null)
+        {
+            out.writeUTF((String) payload);
+        }
+    }
+
+    /**
+     * Reads participants and countdowns as written by write into this state, which must be empty, and returns the
+     * participants in the order in which they were read. The participants that were in the game join it at once, and
+     * those that were waiting to be added are waiting again. Throws an IOException if what is read is not valid.
+     */
+    Participant[] read (DataInput in, Game game) throws IOException
+    {
+        int active = in.readInt();
+        int count = active + in.readInt();
+        if (active < 0 || count < active)
+        {
+            throw new IOException("Invalid number of participants");
+        }
+
+        // Bring the participants in, leaving the waiting ones waiting
+        Participant[] read = new Participant[count];
+        for (int i = 0; i < count; i++)
+        {
+            read[i] = ParticipantCodec.read(in, game);
+            participants.addPending(read[i]);
+            if (i == active - 1)
+            {
+                completeAddsAndRemoves();
+            }
+        }
+
+        // Start the countdowns, which are scheduled on the wheel for participants in the game
+        int timerCount = in.readInt();
+        for (int i = 0; i < timerCount; i++)
+        {
+            int owner = in.readInt();
+            int ticks = in.readInt();
+            String payload = in.readBoolean() ? in.readUTF() : null;
+            if (owner < 0 || owner >= count || ticks < 1)
+            {
+                throw new IOException("Invalid countdown");
+            }
+            new ParticipantCountdownTimer(ticks, read[owner], payload);
+        }
+
+        return read;
     }
 
     /**
@@ -83,8 +355,9 @@ public class ParticipantState
                 count++;
             }
         }
-        for (Participant p : pendingAdds)
+        for (int i = 0; i < participants.pendingSize(); i++)
         {
+            Participant p = participants.getPending(i);
             if (p instanceof Asteroid && !p.isExpired())
             {
                 count++;
@@ -94,16 +367,55 @@ public class ParticipantState
     }
 
     /**
-     * Moves each of the active participants to simulate the passage of time.
+     * Returns the number of countdown timers that are running for the participants in the game.
+     */
+    public int countTimers ()
+    {
+        return timers.size();
+    }
+
+    /**
+     * Returns the counts of the work done during the most recent call to moveParticipants. The same object is reused
+     * for every tick.
+     */
+    public TickStatistics getStatistics ()
+    {
+        return statistics;
+    }
+
+    /**
+     * Moves each of the active participants to simulate the passage of time. Countdown timers that are due complete
+     * first.
      */
     public void moveParticipants ()
     {
-        // Move all of the active participants
-        for (Participant p : participants)
+        statistics.reset();
+
+        // Complete the countdowns that are due. Like collisions, this may add
+        // participants or expire them.
+        timers.advance();
+
+        // Move all of the active participants. Each participant first adjusts
+        // its own velocity, then all of the positions are advanced in one pass
+        // over the kinematics table, and finally each participant brings its
+        // border up to date.
+        int count = participants.size();
+        for (int i = 0; i < count; i++)
+        {
+            Participant p = participants.get(i);
+            if (!p.isExpired())
+            {
+                p.applyForces();
+            }
+        }
+        participants.kinematics().integrate(count);
+        for (int i = 0; i < count; i++)
         {
+            Participant p = participants.get(i);
             if (!p.isExpired())
             {
-                p.move();
+                p.finishMove();
+                statistics.participantMoved();
             }
         }
 
@@ -123,48 +435,250 @@ public class ParticipantState
     {
         // Note: These updates are saved up and done later to avoid modifying
         // the participants list while it is being iterated over
-        for (Participant p : pendingAdds)
+        for (int i = participants.commitPending(); i < participants.size(); i++)
         {
-            participants.add(p);
-        }
-        pendingAdds.clear();
-
-        Iterator<Participant> iter = participants.iterator();
-        while (iter.hasNext())
-        {
-            Participant p = iter.next();
-            if (p.isExpired())
-            {
-                iter.remove();
-            }
+            Participant p = participants.get(i);
+            p.setCollisionLayer(layers.layerOf(p));
+            p.startTimers(timers);
         }
+        participants.removeExpired();
     }
 
     /**
      * Compares each pair of elements to detect collisions, then notifies all listeners of any found. Deals with each
      * pair only once. Never deals with (p1,p2) and then again with (p2,p1).
+     * 
+     * Only pairs reported by the broad phase are compared, and only if one of the two can react to the other.
+     * Participants that react to nothing and that nothing reacts to are left out of the broad phase altogether. For
+     * each p1 the candidates are visited from the end of the list backwards, just as if every later participant were
+     * compared, so collisions are reported in the same order and the comparisons for p1 stop as soon as it expires.
+     * 
+     * When parallel collisions are enabled and there are enough pairs, every pair is tested for overlap on the
+     * fork/join pool first. Collisions are then reported one at a time, in the same order as above, so the results are
+     * exactly the same as when each pair is tested as it is reached.
      */
     private void checkForCollisions ()
     {
-        for (Participant p1 : participants)
+        // Hand the participants to the broad phase. Collisions only add waiting
+        // participants and expire others, so the array stays the same throughout.
+        int count = participants.size();
+        ordered = participants.array();
+        if (candidates.length < count)
+        {
+            candidates = new int[count * 2];
+            pairStart = new int[count * 2 + 1];
+        }
+        broadPhase.rebuild(ordered, count, layers);
+        statistics.setBroadPhase(broadPhase instanceof AdaptiveBroadPhase
+                ? ((AdaptiveBroadPhase) broadPhase).getChosenType() : broadPhaseType);
+
+        // List the pairs in the order in which they will be dealt with
+        int pairs = gatherPairs(count);
+
+        // Test them all up front if that is worthwhile. Borders are built lazily,
+        // so every one that the tests could need is built here first, one at a
+        // time, leaving the tests nothing to change.
+        boolean tested = parallelCollisions && pairs >= PARALLEL_THRESHOLD;
+        if (tested)
+        {
+            for (int k = 0; k < pairs; k++)
+            {
+                prepare(ordered[pairOwner[k]], ordered[pairOther[k]]);
+            }
+            ForkJoinPool.commonPool().invoke(new PairTest(this, 0, pairs));
+        }
+
+        for (int i = 0; i < count; i++)
         {
-            if (!p1.isExpired())
+            Participant p1 = ordered[i];
+            for (int k = pairStart[i]; k < pairStart[i + 1] && !p1.isExpired(); k++)
             {
-                Iterator<Participant> iter = participants.descendingIterator();
-                while (iter.hasNext())
+                Participant p2 = ordered[pairOther[k]];
+                if (!p2.isExpired())
                 {
-                    Participant p2 = iter.next();
-                    if (p1 == p2)
-                        break;
-                    if (!p2.isExpired() && p1.overlaps(p2))
+                    if (!tested)
                     {
+                        prepare(p1, p2);
+                    }
+                    int outcome = tested ? outcomes[k] : test(p1, p2);
+                    record(outcome);
+                    if ((outcome & HIT) != 0)
+                    {
+                        statistics.collision();
                         p1.collidedWith(p2);
                         p2.collidedWith(p1);
                     }
-                    if (p1.isExpired())
-                        break;
                 }
             }
         }
+
+        // Don't hold on to the array, which may be replaced
+        ordered = null;
+    }
+
+    /**
+     * Lists the candidate pairs, skipping pairs in which neither participant reacts to the other. The pairs of each
+     * p1 are stored from pairStart[i] up to pairStart[i + 1], with the later participants first. Returns the number of
+     * pairs.
+     */
+    private int gatherPairs (int count)
+    {
+        int pairs = 0;
+        for (int i = 0; i < count; i++)
+        {
+            pairStart[i] = pairs;
+            Participant p1 = ordered[i];
+            if (p1.isExpired())
+            {
+                continue;
+            }
+
+            int found = broadPhase.candidates(i, candidates);
+            Arrays.sort(candidates, 0, found);
+            if (pairOwner.length < pairs + found)
+            {
+                int size = (pairs + found) * 2;
+                pairOwner = Arrays.copyOf(pairOwner, size);
+                pairOther = Arrays.copyOf(pairOther, size);
+                outcomes = Arrays.copyOf(outcomes, size);
+            }
+            for (int c = found - 1; c >= 0; c--)
+            {
+                Participant p2 = ordered[candidates[c]];
+                if (layers.mayInteract(p1.getCollisionLayer(), p2.getCollisionLayer()))
+                {
+                    pairOwner[pairs] = i;
+                    pairOther[pairs] = candidates[c];
+                    pairs++;
+                }
+                else
+                {
+                    statistics.pairFiltered();
+                }
+            }
+        }
+        pairStart[count] = pairs;
+        return pairs;
+    }
+
+    /**
+     * Builds the borders of p1 and p2 if their bounds intersect, since only then will testing the pair look at them.
+     */
+    private void prepare (Participant p1, Participant p2)
+    {
+        if (p1.boundsIntersect(p2))
+        {
+            if (p1.ensureBorder())
+            {
+                statistics.borderBuilt();
+            }
+            if (p2.ensureBorder())
+            {
+                statistics.borderBuilt();
+            }
+            if (narrowPhase != NarrowPhase.POLYGON)
+            {
+                p1.ensureTransform();
+                p2.ensureTransform();
+            }
+        }
+    }
+
+    /**
+     * Tests whether p1 and p2 overlap, ruling the pair out cheaply by bounds when possible. Returns a combination of
+     * REJECTED, HIT and MISMATCH describing the outcome. Changes nothing, so it can be called from any thread.
+     */
+    private byte test (Participant p1, Participant p2)
+    {
+        if (!p1.boundsIntersect(p2))
+        {
+            return REJECTED;
+        }
+
+        if (narrowPhase == NarrowPhase.POLYGON)
+        {
+            return p1.polygonsIntersect(p2) ? HIT : 0;
+        }
+        else if (narrowPhase == NarrowPhase.AREA)
+        {
+            return p1.areasIntersect(p2) ? HIT : 0;
+        }
+        else
+        {
+            // The Area of a rotated outline keeps a sliver of no real width
+            // along each zero-width spike, which the polygons leave out, so a
+            // hit on nothing but such slivers is not a mismatch
+            boolean exact = p1.areasIntersect(p2);
+            byte outcome = exact ? HIT : 0;
+            if (exact != p1.polygonsIntersect(p2) && (!exact || p1.overlapArea(p2) >= MISMATCH_AREA))
+            {
+                outcome |= MISMATCH;
+            }
+            return outcome;
+        }
+    }
+
+    /**
+     * Adds the outcome of a test to the statistics.
+     */
+    private void record (int outcome)
+    {
+        statistics.pairConsidered();
+        if ((outcome & REJECTED) != 0)
+        {
+            statistics.pairRejected();
+        }
+        if ((outcome & MISMATCH) != 0)
+        {
+            statistics.mismatch();
+        }
+    }
+
+    /**
+     * Tests a range of the gathered pairs, splitting the range among the threads of the fork/join pool.
+     */
+    @SuppressWarnings("serial")
+    private static class PairTest extends RecursiveAction
+    {
+        /** Number of pairs below which a range is tested without being split */
+        private final static int GRAIN = 64;
+
+        /** The state whose pairs are being tested */
+        private final ParticipantState state;
+
+        /** The range of pairs to test */
+        private final int from, to;
+
+        /**
+         * Creates a task that tests pairs from up to (but not including) to.
+         */
+        PairTest (ParticipantState state, int from, int to)
+        {
+            this.state = state;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Tests the pairs, or splits the range in two if it is large.
+         */
+        @Override
+        protected void compute ()
+        {
+            if (to - from <= GRAIN)
+            {
+                for (int k = from; k < to; k++)
+                {
+                    Participant p1 = state.ordered[state.pairOwner[k]];
+                    Participant p2 = state.ordered[state.pairOther[k]];
+                    state.outcomes[k] = state.test(p1, p2);
+                }
+            }
+            else
+            {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PairTest(state, from, middle), new PairTest(state, middle, to));
+            }
+        }
     }
 }
@@ -0,0 +1,214 @@
+package asteroids.game;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Holds the participants of a game in a plain array, in the order in which they were added, along with the
+ * participants waiting to be added. Waiting participants are kept in the order in which they were requested, so they
+ * join the game in a predictable order.
+ *
+ * The order of the participants decides the order in which collisions are reported, so expired participants are
+ * removed by sliding the survivors down rather than by moving the last participant into the gap.
+ *
+ * The positions, velocities, and rotations of the participants in the game are kept in a KinematicsTable, with each
+ * participant in the slot that matches its index.
+ *
+ * Iterating over a ParticipantStore visits the participants in the game and cannot change the store.
+ */
+class ParticipantStore implements Iterable<Participant>
+{
+    /** The participants in the game, in the first size elements */
+    private Participant[] items;
+
+    /** Number of participants in the game */
+    private int size;
+
+    /** Participants waiting to be added, in the first pendingSize elements */
+    private Participant[] pending;
+
+    /** Number of participants waiting to be added */
+    private int pendingSize;
+
+    /** The kinematics of the participants in the game, one slot per index */
+    private KinematicsTable kinematics;
+
+    /**
+     * Creates an empty store.
+     */
+    ParticipantStore ()
+    {
+        items = new Participant[64];
+        pending = new Participant[16];
+        kinematics = new KinematicsTable(64);
+        size = 0;
+        pendingSize = 0;
+    }
+
+    /**
+     * Returns the number of participants in the game.
+     */
+    int size ()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the participant at index, which must be less than size().
+     */
+    Participant get (int index)
+    {
+        return items[index];
+    }
+
+    /**
+     * Returns the array that holds the participants. Only the first size() elements are used. The array is replaced
+     * when the store grows, so it should not be kept beyond the current tick.
+     */
+    Participant[] array ()
+    {
+        return items;
+    }
+
+    /**
+     * Returns the table holding the kinematics of the participants in the game. Only the first size() slots are used.
+     */
+    KinematicsTable kinematics ()
+    {
+        return kinematics;
+    }
+
+    /**
+     * Returns the number of participants waiting to be added.
+     */
+    int pendingSize ()
+    {
+        return pendingSize;
+    }
+
+    /**
+     * Returns the waiting participant at index, which must be less than pendingSize().
+     */
+    Participant getPending (int index)
+    {
+        return pending[index];
+    }
+
+    /**
+     * Puts p at the end of the participants waiting to be added. A participant that is already waiting is not added a
+     * second time.
+     */
+    void addPending (Participant p)
+    {
+        if (p.isPending())
+        {
+            return;
+        }
+        if (pendingSize == pending.length)
+        {
+            pending = Arrays.copyOf(pending, pendingSize * 2);
+        }
+        p.setPending(true);
+        pending[pendingSize++] = p;
+    }
+
+    /**
+     * Moves the waiting participants into the game, in the order in which they were added, and returns the index of
+     * the first one.
+     */
+    int commitPending ()
+    {
+        int first = size;
+        if (size + pendingSize > items.length)
+        {
+            items = Arrays.copyOf(items, Math.max(items.length * 2, size + pendingSize));
+        }
+        kinematics.ensureCapacity(items.length);
+        for (int i = 0; i < pendingSize; i++)
+        {
+            pending[i].setPending(false);
+            pending[i].attach(kinematics, size);
+            items[size++] = pending[i];
+            pending[i] = null;
+        }
+        pendingSize = 0;
+        return first;
+    }
+
+    /**
+     * Removes the expired participants, keeping the others in the same order. The removed participants take their
+     * kinematics with them.
+     */
+    void removeExpired ()
+    {
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+        {
+            Participant p = items[i];
+            if (p.isExpired())
+            {
+                p.detach();
+            }
+            else
+            {
+                if (kept != i)
+                {
+                    kinematics.copy(kinematics, i, kept);
+                    p.setSlot(kept);
+                }
+                items[kept++] = p;
+            }
+        }
+        Arrays.fill(items, kept, size, null);
+        size = kept;
+    }
+
+    /**
+     * Empties the store, including the waiting participants.
+     */
+    void clear ()
+    {
+        for (int i = 0; i < size; i++)
+        {
+            items[i].detach();
+        }
+        for (int i = 0; i < pendingSize; i++)
+        {
+            pending[i].setPending(false);
+        }
+        Arrays.fill(items, 0, size, null);
+        Arrays.fill(pending, 0, pendingSize, null);
+        size = 0;
+        pendingSize = 0;
+    }
+
+    /**
+     * Returns an iterator over the participants in the game. The iterator cannot remove participants.
+     */
+    @Override
+    public Iterator<Participant> iterator ()
+    {
+        return new Iterator<Participant>()
+        {
+            /** Index of the next participant to visit */
+            private int next = 0;
+
+            @Override
+            public boolean hasNext ()
+            {
+                return next < size;
+            }
+
+            @Override
+            public Participant next ()
+            {
+                if (next >= size)
+                {
+                    throw new NoSuchElementException();
+                }
+                return items[next++];
+            }
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package asteroids.game;
+
+/**
+ * A stream of pseudorandom numbers that belongs to one part of a game. Each stream is entirely determined by its seed,
+ * and {@link #split()} creates a new stream whose numbers are independent of its parent's. A game splits one stream
+ * per part of the game from a single seed, so the game is determined by that seed and the player's input, and no two
+ * parts (or two games running side by side) ever share a generator.
+ *
+ * This is the SplitMix64 algorithm used by java.util.SplittableRandom, written out here so that the state of a stream
+ * can be read and later restored. A stream is not safe to use from more than one thread at once.
+ */
+public final class RandomStream
+{
+    /** Increment used by a stream created directly from a seed */
+    private final static long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /** The current state, which advances by gamma for every number drawn */
+    private long state;
+
+    /** The amount by which the state advances, which is always odd */
+    private final long gamma;
+
+    /**
+     * Creates a stream from the given seed.
+     */
+    public RandomStream (long seed)
+    {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    /**
+     * Creates a stream with the given state and gamma, as returned by {@link #getState()} and {@link #getGamma()}.
+     * Throws an IllegalArgumentException if the gamma is even.
+     */
+    public RandomStream (long state, long gamma)
+    {
+        if ((gamma & 1) == 0)
+        {
+            throw new IllegalArgumentException("Invalid gamma: " + gamma);
+        }
+        this.state = state;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Returns the current state of the stream
+     */
+    public long getState ()
+    {
+        return state;
+    }
+
+    /**
+     * Returns the amount by which the state advances for every number drawn
+     */
+    public long getGamma ()
+    {
+        return gamma;
+    }
+
+    /**
+     * Creates a new stream, drawing its seed from this one. The two streams' numbers are independent of each other.
+     */
+    public RandomStream split ()
+    {
+        return new RandomStream(mix64(nextSeed()), mixGamma(nextSeed()));
+    }
+
+    /**
+     * Returns a pseudorandom long
+     */
+    public long nextLong ()
+    {
+        return mix64(nextSeed());
+    }
+
+    /**
+     * Returns a pseudorandom int from 0 (inclusive) up to bound (exclusive). Throws an IllegalArgumentException if
+     * bound is not positive.
+     */
+    public int nextInt (int bound)
+    {
+        if (bound <= 0)
+        {
+            throw new IllegalArgumentException("Invalid bound: " + bound);
+        }
+
+        // Powers of two take the low bits. Anything else rejects the values
+        // that would make some results more likely than others.
+        int r = mix32(nextSeed());
+        int m = bound - 1;
+        if ((bound & m) == 0)
+        {
+            return r & m;
+        }
+        for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = mix32(nextSeed()) >>> 1)
+        {
+        }
+        return r;
+    }
+
+    /**
+     * Returns a pseudorandom double from 0 (inclusive) up to 1 (exclusive)
+     */
+    public double nextDouble ()
+    {
+        return (mix64(nextSeed()) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Returns a pseudorandom boolean
+     */
+    public boolean nextBoolean ()
+    {
+        return mix32(nextSeed()) < 0;
+    }
+
+    /**
+     * Advances the state and returns it
+     */
+    private long nextSeed ()
+    {
+        return state += gamma;
+    }
+
+    /**
+     * Scrambles the bits of z into a well-distributed long
+     */
+    private static long mix64 (long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Scrambles the bits of z into a well-distributed int
+     */
+    private static int mix32 (long z)
+    {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    /**
+     * Turns z into an odd gamma with enough bit transitions to make a good stream
+     */
+    private static long mixGamma (long z)
+    {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
@@ -0,0 +1,128 @@
+package asteroids.game;
+
+import java.awt.Shape;
+import java.util.Arrays;
+
+/**
+ * Everything the screen needs to draw one game tick: where each participant was placed by the last two moves, its
+ * outline, and the values shown around the edge of the screen. The simulation thread fills in a snapshot after each
+ * tick and hands it over through a {@link asteroids.game.SnapshotExchange}. Once handed over, a snapshot is only read,
+ * so the screen never needs to look at the participants themselves.
+ *
+ * Snapshots are reused rather than created for every tick, so their arrays only grow.
+ */
+class RenderSnapshot
+{
+    /** Increases with every snapshot filled in, so the newest can be told apart */
+    long sequence;
+
+    /** Time (from System.nanoTime) at which the tick finished */
+    long tickTime;
+
+    /** Length of a tick in nanoseconds */
+    long tickNanos;
+
+    /** Number of participants */
+    int count;
+
+    /** Outline of each participant, which is never modified */
+    Shape[] outlines;
+
+    /** Position and rotation of each participant as of the move before the last one */
+    double[] previousX, previousY, previousRotation;
+
+    /** Position and rotation of each participant as of the last move */
+    double[] x, y, rotation;
+
+    /** Legend displayed across the screen */
+    String legend;
+
+    /** Whether the score and level are displayed */
+    boolean showStats;
+
+    /** The score and level */
+    int score, level;
+
+    /** High scores from lowest to highest, or null if they are not displayed */
+    int[] highScores;
+
+    /**
+     * Creates an empty snapshot.
+     */
+    RenderSnapshot ()
+    {
+        outlines = new Shape[64];
+        previousX = new double[64];
+        previousY = new double[64];
+        previousRotation = new double[64];
+        x = new double[64];
+        y = new double[64];
+        rotation = new double[64];
+        legend = "";
+    }
+
+    /**
+     * Empties the participants from the snapshot.
+     */
+    void clear ()
+    {
+        Arrays.fill(outlines, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * Adds a participant with the given outline, drawn between the two given placements.
+     */
+    void add (Shape outline, double previousX, double previousY, double previousRotation, double x, double y,
+            double rotation)
+    {
+        if (count == outlines.length)
+        {
+            int size = count * 2;
+            outlines = Arrays.copyOf(outlines, size);
+            this.previousX = Arrays.copyOf(this.previousX, size);
+            this.previousY = Arrays.copyOf(this.previousY, size);
+            this.previousRotation = Arrays.copyOf(this.previousRotation, size);
+            this.x = Arrays.copyOf(this.x, size);
+            this.y = Arrays.copyOf(this.y, size);
+            this.rotation = Arrays.copyOf(this.rotation, size);
+        }
+        outlines[count] = outline;
+        this.previousX[count] = previousX;
+        this.previousY[count] = previousY;
+        this.previousRotation[count] = previousRotation;
+        this.x[count] = x;
+        this.y[count] = y;
+        this.rotation[count] = rotation;
+        count++;
+    }
+
+    /**
+     * Records the high scores to display, from lowest to highest, or null for none.
+     */
+    void setHighScores (int[] scores)
+    {
+        if (scores == null)
+        {
+            highScores = null;
+            return;
+        }
+        if (highScores == null || highScores.length != scores.length)
+        {
+            highScores = new int[scores.length];
+        }
+        System.arraycopy(scores, 0, highScores, 0, scores.length);
+    }
+
+    /**
+     * Returns how far the given time (from System.nanoTime) is into the tick after this one, from 0 to 1.
+     */
+    double alphaAt (long now)
+    {
+        if (tickNanos <= 0)
+        {
+            return 1;
+        }
+        return Math.max(0, Math.min(1, (double) (now - tickTime) / tickNanos));
+    }
+}
@@ -2,30 +2,56 @@ package asteroids.game;
 
 import static asteroids.game.Constants.*;
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
 import javax.swing.*;
 
 /**
- * The area of the display in which the game takes place.
+ * The area of the display in which the game takes place. It paints the most recent snapshot published by the
+ * simulation thread, and never looks at the participants themselves.
+ *
+ * Participants are drawn from pre-drawn images kept in a {@link asteroids.game.SpriteCache}, unless the
+ * asteroids.sprites system property is "false" or sprites have been turned off, in which case their outlines are
+ * stroked as vectors.
+ *
+ * Each refresh places the participants for the frame once, and then repaints only the parts of the screen that changed
+ * since the last frame: where each participant was drawn last frame and where it is drawn now, and where the text
+ * changed. If those parts cover more than FULL_REPAINT_COVERAGE of the screen, or if the asteroids.dirtyRegions system
+ * property is "false", the whole screen is repainted instead.
  */
 @SuppressWarnings("serial")
 public class Screen extends JPanel
 {
-    /** Legend that is displayed across the screen */
-    private String legend;
-
     /** Game controller */
     private Controller controller;
 
-    /** Current Score */
-    private String score;
+    /** System property that turns sprite drawing off when it is "false" */
+    public final static String SPRITES_PROPERTY = "asteroids.sprites";
+
+    /** System property that, when "true", prints the frame timings every few seconds */
+    public final static String FRAME_TIMINGS_PROPERTY = "asteroids.frameTimings";
+
+    /** System property that turns repainting only the changed parts of the screen off when it is "false" */
+    public final static String DIRTY_REGIONS_PROPERTY = "asteroids.dirtyRegions";
+
+    /** Fraction of the screen beyond which the whole screen is repainted rather than just the parts that changed */
+    public final static double FULL_REPAINT_COVERAGE = 0.5;
 
-    /** Current Level */
-    private String level;
+    /** Pixels added around each participant so that its antialiased edges are repainted along with it */
+    private final static int BOUNDS_MARGIN = 3;
 
-    /** HighScores */
-    private ArrayList<Integer> highScores;
+    /** Seconds between reports of the frame timings */
+    private final static double REPORT_SECONDS = 5;
+
+    /** Takes an outline to where it is drawn, reused for every participant */
+    private AffineTransform placement;
+
+    /** Pre-drawn images of the outlines */
+    private SpriteCache sprites;
+
+    /** Whether participants are drawn from the sprite cache rather than stroked */
+    private boolean spriteRendering;
 
     /** Legend Font */
     private Font legendFont = new Font(Font.SANS_SERIF, Font.PLAIN, 120);
@@ -33,8 +59,44 @@ public class Screen extends JPanel
     /** Score and Level Font */
     private Font scoreLevelFont = new Font(Font.SANS_SERIF, Font.PLAIN, 60);
 
-    // /** HighScores Font */
-    // private Font highScoresFont = new Font(Font.SANS_SERIF)
+    /** Pre-drawn images of the legend, score, level, and high scores */
+    private HudLayer hud;
+
+    /** When frames reached the display */
+    private FrameTimings frameTimings;
+
+    /** Whether the frame timings are printed every few seconds */
+    private boolean reportFrameTimings;
+
+    /** Whether only the parts of the screen that changed are repainted */
+    private boolean dirtyRegions;
+
+    /** Whether the whole screen must be repainted at the next refresh */
+    private boolean fullRepaint;
+
+    /** The snapshot from which the current frame is drawn, or null before the first frame */
+    private RenderSnapshot frame;
+
+    /** Number of participants in the current frame and in the one before it */
+    private int frameCount, previousCount;
+
+    /** Where each participant is drawn in the current frame and in the one before it */
+    private double[] frameX, frameY, frameRotation, previousX, previousY, previousRotation;
+
+    /** The outline of each participant in the one frame before the current one */
+    private Shape[] previousOutlines;
+
+    /** The left, top, right, and bottom of each participant in the current frame and in the one before it */
+    private int[] bounds, previousBounds;
+
+    /** The parts of the screen that changed since the last frame */
+    private DirtyRegions damage;
+
+    /** Sum over the frames since the timings were last reported of the fraction of the screen repainted */
+    private double coverage;
+
+    /** Number of frames since the timings were last reported */
+    private int coveredFrames;
 
     /**
      * Creates an empty screen
@@ -42,8 +104,24 @@ public class Screen extends JPanel
     public Screen (Controller controller)
     {
         this.controller = controller;
-        this.legend = "";
-        this.highScores = null;
+        this.placement = new AffineTransform();
+        this.sprites = new SpriteCache();
+        this.hud = new HudLayer(legendFont, scoreLevelFont);
+        this.frameTimings = new FrameTimings();
+        this.spriteRendering = !"false".equalsIgnoreCase(System.getProperty(SPRITES_PROPERTY));
+        this.reportFrameTimings = "true".equalsIgnoreCase(System.getProperty(FRAME_TIMINGS_PROPERTY));
+        this.dirtyRegions = !"false".equalsIgnoreCase(System.getProperty(DIRTY_REGIONS_PROPERTY));
+        this.fullRepaint = true;
+        this.frameX = new double[64];
+        this.frameY = new double[64];
+        this.frameRotation = new double[64];
+        this.previousX = new double[64];
+        this.previousY = new double[64];
+        this.previousRotation = new double[64];
+        this.previousOutlines = new Shape[64];
+        this.bounds = new int[4 * 64];
+        this.previousBounds = new int[4 * 64];
+        this.damage = new DirtyRegions(SIZE, SIZE);
 
         setPreferredSize(new Dimension(SIZE, SIZE));
         setMinimumSize(new Dimension(SIZE, SIZE));
@@ -53,141 +131,252 @@ public class Screen extends JPanel
     }
 
     /**
-     * Set the legend
+     * Selects whether participants are drawn from pre-drawn images (true) or stroked as vectors (false)
      */
-    public void setLegend (String legend)
+    public void setSpriteRendering (boolean spriteRendering)
     {
-        this.legend = legend;
+        this.spriteRendering = spriteRendering;
+        fullRepaint = true;
+        repaint();
     }
 
     /**
-     * Set the score
+     * Reports whether participants are drawn from pre-drawn images rather than stroked as vectors
      */
-    public void setScore (int score)
+    public boolean isSpriteRendering ()
     {
-        this.score = "" + score;
+        return spriteRendering;
     }
 
     /**
-     * Set the level
+     * Returns the timings of the frames that have reached the display
      */
-    public void setLevel (int level)
+    public FrameTimings getFrameTimings ()
     {
-        this.level = "" + level;
+        return frameTimings;
     }
 
     /**
-     * Set the high scores
+     * Draws the next frame. Called on the event thread each time the display is refreshed, this places the
+     * participants and then repaints, before returning, whatever changed on the screen since the last frame.
      */
-    public void setHighScores (ArrayList<Integer> highScores)
+    void refresh ()
     {
-        if (highScores != null)
+        prepareFrame(getGraphicsConfiguration());
+
+        // Repaint what changed, or everything if that's nearly as much
+        double covered = damage.getCoverage();
+        if (!dirtyRegions || fullRepaint || covered > FULL_REPAINT_COVERAGE)
         {
-            this.highScores = highScores;
+            paintImmediately(0, 0, getWidth(), getHeight());
+            fullRepaint = !isShowing();
+            covered = 1;
         }
         else
         {
-            this.highScores = null;
+            for (int i = 0; i < damage.size(); i++)
+            {
+                Rectangle r = damage.get(i);
+                paintImmediately(r.x, r.y, r.width, r.height);
+            }
         }
+
+        coverage += covered;
+        coveredFrames++;
+        framePresented(System.nanoTime());
     }
 
     /**
-     * Paint the participants onto this panel
+     * Paint the participants onto this panel, or whatever part of it is to be painted
      */
     @Override
     public void paintComponent (Graphics graphics)
     {
-        // Use better resolution
-        Graphics2D g = (Graphics2D) graphics;
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-
         // Do the default painting
-        super.paintComponent(g);
+        super.paintComponent(graphics);
 
-        // Draw each participant in its proper place
-        Iterator<Participant> iter = controller.getParticipants();
-        while (iter.hasNext())
+        // Draw the frame, which Swing then copies to the display
+        if (frame == null)
         {
-            iter.next().draw(g);
+            prepareFrame(getGraphicsConfiguration());
         }
+        drawFrame((Graphics2D) graphics);
+    }
+
+    /**
+     * Takes the most recent snapshot and works out where each participant is drawn in the frame made from it, part of
+     * the way from where the move before last placed it to where the last move placed it according to how far along
+     * the next tick is. Also brings the images of the text up to date for the configuration, and records which parts of
+     * the screen changed since the last frame.
+     */
+    void prepareFrame (GraphicsConfiguration configuration)
+    {
+        frame = controller.getSnapshot();
+        double alpha = frame.alphaAt(System.nanoTime());
+        damage.clear();
 
-        // Draw the Label Legend
-        setFont(legendFont);
-        drawLegend(g);
+        // What is now the current frame becomes the one before it
+        double[] swap = previousX;
+        previousX = frameX;
+        frameX = swap;
+        swap = previousY;
+        previousY = frameY;
+        frameY = swap;
+        swap = previousRotation;
+        previousRotation = frameRotation;
+        frameRotation = swap;
+        int[] swapBounds = previousBounds;
+        previousBounds = bounds;
+        bounds = swapBounds;
+        previousCount = frameCount;
+        frameCount = frame.count;
+        if (frameCount > frameX.length)
+        {
+            int length = Math.max(frameCount, 2 * frameX.length);
+            frameX = new double[length];
+            frameY = new double[length];
+            frameRotation = new double[length];
+            bounds = new int[4 * length];
+        }
 
-        // Draw the highScores
-        if (highScores != null)
+        for (int i = 0; i < frameCount; i++)
         {
-            setFont(scoreLevelFont);
-            drawHighScores(g);
+            // Turn the short way around
+            double turn = frame.rotation[i] - frame.previousRotation[i];
+            if (turn > Math.PI)
+            {
+                turn -= 2 * Math.PI;
+            }
+            else if (turn < -Math.PI)
+            {
+                turn += 2 * Math.PI;
+            }
+
+            double x = frame.previousX[i] + (frame.x[i] - frame.previousX[i]) * alpha;
+            double y = frame.previousY[i] + (frame.y[i] - frame.previousY[i]) * alpha;
+            double rotation = frame.previousRotation[i] + turn * alpha;
+            frameX[i] = x;
+            frameY[i] = y;
+            frameRotation[i] = rotation;
+
+            double radius = radiusOf(frame.outlines[i]);
+            bounds[4 * i] = (int) Math.floor(x - radius) - BOUNDS_MARGIN;
+            bounds[4 * i + 1] = (int) Math.floor(y - radius) - BOUNDS_MARGIN;
+            bounds[4 * i + 2] = (int) Math.ceil(x + radius) + BOUNDS_MARGIN;
+            bounds[4 * i + 3] = (int) Math.ceil(y + radius) + BOUNDS_MARGIN;
         }
 
-        // Draw Labels Score and Level If game has Begun
-        if (this.score != null && this.level != null)
+        // A participant with a shared outline that was drawn in the same
+        // place last frame needn't be repainted. Everything else is repainted
+        // where it was and where it is now.
+        for (int i = 0; i < Math.max(frameCount, previousCount); i++)
         {
-            setFont(scoreLevelFont);
-            drawLevel(g);
-            drawScore(g);
+            if (i < frameCount && i < previousCount && frame.outlines[i] == previousOutlines[i]
+                    && frameX[i] == previousX[i] && frameY[i] == previousY[i]
+                    && frameRotation[i] == previousRotation[i] && OutlineCache.forShape(frame.outlines[i]) != null)
+            {
+                continue;
+            }
+            if (i < previousCount)
+            {
+                damage.add(previousBounds[4 * i], previousBounds[4 * i + 1], previousBounds[4 * i + 2],
+                        previousBounds[4 * i + 3]);
+            }
+            if (i < frameCount)
+            {
+                damage.add(bounds[4 * i], bounds[4 * i + 1], bounds[4 * i + 2], bounds[4 * i + 3]);
+            }
         }
-    }
 
-    /**
-     * Draws text across the middle of the panel
-     */
-    private void drawLegend (Graphics g)
-    {
-        int size = g.getFontMetrics().stringWidth(legend);
+        // Remember the outlines for the next frame
+        if (frameCount > previousOutlines.length)
+        {
+            previousOutlines = new Shape[frameX.length];
+        }
+        System.arraycopy(frame.outlines, 0, previousOutlines, 0, frameCount);
+        if (previousCount > frameCount)
+        {
+            Arrays.fill(previousOutlines, frameCount, previousCount, null);
+        }
 
-        // Draw text
-        g.drawString(legend, (SIZE - size) / 2, SIZE / 2);
+        // Lay out the text that changed
+        if (configuration == null)
+        {
+            configuration = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDefaultConfiguration();
+        }
+        hud.update(frame, configuration, getForeground(), damage);
     }
 
     /**
-     * Draws the current score in the top left corner
+     * Draws the frame over a background that has already been cleared, leaving out the participants that lie wholly
+     * outside the clip of g. This is used both when the panel is painted and, when rendering actively, to draw into the
+     * buffers of the display's canvas.
      */
-    private void drawScore (Graphics g)
+    void drawFrame (Graphics2D g)
     {
-        // Get really good consistent spacing from wall
-        FontMetrics fm = g.getFontMetrics(g.getFont());
-        Double xOffset = g.getFont().getStringBounds(this.score, fm.getFontRenderContext()).getMinX();
+        // Use better resolution
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.setColor(getForeground());
 
-        // Draw text
-        g.drawString(this.score, LABEL_HORIZONTAL_OFFSET + xOffset.intValue(), LABEL_VERTICAL_OFFSET * 2);
+        // Draw each participant that is at least partly in the clip
+        Rectangle area = g.getClipBounds();
+        AffineTransform saved = g.getTransform();
+        for (int i = 0; i < frameCount; i++)
+        {
+            if (area != null && (bounds[4 * i] >= area.x + area.width || bounds[4 * i + 2] <= area.x
+                    || bounds[4 * i + 1] >= area.y + area.height || bounds[4 * i + 3] <= area.y))
+            {
+                continue;
+            }
+            if (spriteRendering)
+            {
+                sprites.draw(g, frame.outlines[i], frameX[i], frameY[i], frameRotation[i]);
+            }
+            else
+            {
+                placement.setToTranslation(frameX[i], frameY[i]);
+                placement.rotate(frameRotation[i]);
+                g.transform(placement);
+                g.draw(frame.outlines[i]);
+                g.setTransform(saved);
+            }
+        }
+
+        // Draw the legend, score, level, and high scores, whose text is laid
+        // out only when it changes
+        hud.draw(g);
     }
 
     /**
-     * Draws the current Level in the top right corner
+     * Records that a frame reached the display at the given time, and prints the frame timings if it is time to.
      */
-    private void drawLevel (Graphics g)
+    void framePresented (long now)
     {
-        // Get really good consistent spacing from wall
-        FontMetrics fm = g.getFontMetrics(g.getFont());
-        Double xOffset = g.getFont().getStringBounds(this.level, fm.getFontRenderContext()).getMaxX();
-
-        // Draw text
-        g.drawString(this.level, SIZE - LABEL_HORIZONTAL_OFFSET - xOffset.intValue(), LABEL_VERTICAL_OFFSET * 2);
+        frameTimings.presented(now);
+        if (reportFrameTimings && frameTimings.getSeconds() >= REPORT_SECONDS)
+        {
+            String repainted = coveredFrames == 0 ? ""
+                    : String.format(", %.1f%% of the screen repainted", 100 * coverage / coveredFrames);
+            System.out.println(frameTimings + repainted);
+            frameTimings.reset();
+            coverage = 0;
+            coveredFrames = 0;
+        }
     }
 
     /**
-     * Draws the highScores underneath GameOver text
+     * Returns the distance from the center of the outline to its farthest point
      */
-    private void drawHighScores (Graphics g)
+    private static double radiusOf (Shape outline)
     {
-        FontMetrics fm = g.getFontMetrics(g.getFont());
-        Double xOffset = g.getFont().getStringBounds("High Scores", fm.getFontRenderContext()).getWidth();
-
-        // Draw "High Scores"
-        g.drawString("High Scores", (SIZE - xOffset.intValue()) / 2, SIZE / 2 + 100);
-
-        // Get Spacing
-        Integer firstScore = this.highScores.get(2);
-        fm = g.getFontMetrics(g.getFont());
-        xOffset = g.getFont().getStringBounds(firstScore.toString(), fm.getFontRenderContext()).getMaxX();
-
-        // Draw each Score
-        g.drawString(firstScore.toString(), (SIZE - xOffset.intValue()) / 2, SIZE / 2 + 170);
-        g.drawString(this.highScores.get(1).toString(), (SIZE - xOffset.intValue()) / 2, SIZE / 2 + 220);
-        g.drawString(this.highScores.get(0).toString(), (SIZE - xOffset.intValue()) / 2, SIZE / 2 + 270);
+        Outline shared = OutlineCache.forShape(outline);
+        if (shared != null)
+        {
+            return shared.getRadius();
+        }
+        Rectangle2D box = outline.getBounds2D();
+        return Math.hypot(Math.max(-box.getMinX(), box.getMaxX()), Math.max(-box.getMinY(), box.getMaxY()));
     }
 }
@@ -0,0 +1,67 @@
+package asteroids.game;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands render snapshots from the simulation thread to the painting thread without either one waiting for the other.
+ * There are three snapshots. The simulation thread fills in its back snapshot, and the painting thread draws its front
+ * snapshot. The third sits in the middle, and each thread swaps its own snapshot with the middle one in a single atomic
+ * step: the simulation thread to publish a newly filled snapshot, and the painting thread to pick up a snapshot newer
+ * than the one it has. Neither thread ever touches a snapshot that the other one holds.
+ */
+class SnapshotExchange
+{
+    /** The snapshot most recently published, or an older one returned by the painting thread */
+    private final AtomicReference<RenderSnapshot> middle;
+
+    /** The snapshot being filled in by the simulation thread */
+    private RenderSnapshot back;
+
+    /** The snapshot being drawn by the painting thread */
+    private RenderSnapshot front;
+
+    /** Sequence number of the next snapshot to be published */
+    private long sequence;
+
+    /**
+     * Creates an exchange with three empty snapshots.
+     */
+    SnapshotExchange ()
+    {
+        middle = new AtomicReference<RenderSnapshot>(new RenderSnapshot());
+        back = new RenderSnapshot();
+        front = new RenderSnapshot();
+        sequence = 1;
+    }
+
+    /**
+     * Returns the snapshot for the simulation thread to fill in. Only the simulation thread may call this.
+     */
+    RenderSnapshot back ()
+    {
+        return back;
+    }
+
+    /**
+     * Publishes the back snapshot, which has been filled in, and takes another to fill in next time. Only the
+     * simulation thread may call this.
+     */
+    void publish ()
+    {
+        back.sequence = sequence++;
+        back = middle.getAndSet(back);
+    }
+
+    /**
+     * Returns the newest snapshot that has been published. The snapshot may be read until the next call. Only the
+     * painting thread may call this.
+     */
+    RenderSnapshot front ()
+    {
+        if (middle.get().sequence > front.sequence)
+        {
+            front = middle.getAndSet(front);
+        }
+        return front;
+    }
+}
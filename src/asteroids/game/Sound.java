@@ -0,0 +1,60 @@
+package asteroids.game;
+
+/**
+ * The sounds that a game asks to have played. A game only names the sound. A front end such as the
+ * {@link asteroids.game.Controller} decides how, or whether, to play it.
+ */
+public enum Sound
+{
+    /** An alien ship blows up */
+    BANG_ALIEN_SHIP("/sounds/bangAlienShip.wav"),
+
+    /** A large asteroid blows up */
+    BANG_LARGE("/sounds/bangLarge.wav"),
+
+    /** A medium asteroid blows up */
+    BANG_MEDIUM("/sounds/bangMedium.wav"),
+
+    /** A small asteroid blows up */
+    BANG_SMALL("/sounds/bangSmall.wav"),
+
+    /** The ship blows up */
+    BANG_SHIP("/sounds/bangShip.wav"),
+
+    /** The ship fires a bullet */
+    FIRE("/sounds/fire.wav"),
+
+    /** The first of the two alternating beats */
+    BEAT1("/sounds/beat1.wav"),
+
+    /** The second of the two alternating beats */
+    BEAT2("/sounds/beat2.wav"),
+
+    /** A small alien ship is on the screen */
+    SAUCER_SMALL("/sounds/saucerSmall.wav"),
+
+    /** A medium alien ship is on the screen */
+    SAUCER_BIG("/sounds/saucerBig.wav"),
+
+    /** The ship accelerates */
+    THRUST("/sounds/thrust.wav");
+
+    /** The resource from which the sound is loaded */
+    private final String resource;
+
+    /**
+     * Creates a sound that is loaded from the given resource.
+     */
+    private Sound (String resource)
+    {
+        this.resource = resource;
+    }
+
+    /**
+     * Returns the name of the resource from which the sound is loaded
+     */
+    public String getResource ()
+    {
+        return resource;
+    }
+}
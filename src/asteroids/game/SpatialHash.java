@@ -0,0 +1,185 @@
+package asteroids.game;
+
+import static asteroids.game.Constants.*;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+/**
+ * A uniform grid laid over the SIZE x SIZE playing field that is used to find the participants that might be touching
+ * a given participant. Each participant is placed into every cell that its bounds cover, so only participants that
+ * share at least one cell need to be compared.
+ *
+ * The field wraps around at its edges, and a participant that is partly off the screen has bounds that extend past
+ * the edges. Cell coordinates are therefore wrapped as well, so a participant hanging off the left edge lands in the
+ * same column as participants near the right edge. This can only add candidates, never lose them.
+ */
+class SpatialHash implements BroadPhase
+{
+    /** Number of columns (and rows) in the grid */
+    private final int cells;
+
+    /** Width and height of each cell in pixels */
+    private final double cellSize;
+
+    /** Index into members where each cell's list begins. Cell c occupies [cellStart[c], cellStart[c + 1]) */
+    private int[] cellStart;
+
+    /** Participant indices for every cell, stored back to back */
+    private int[] members;
+
+    /** Number of indices written so far into each cell while filling */
+    private int[] cellFill;
+
+    /** Bounds of each indexed participant: { minCol, maxCol, minRow, maxRow }, four ints per participant */
+    private int[] span;
+
+    /** Query stamp for each participant, used to report each candidate only once per query */
+    private int[] seen;
+
+    /** Stamp of the current query */
+    private int query;
+
+    /** Number of participants indexed by the last rebuild */
+    private int count;
+
+    /**
+     * Creates a grid whose cells are roughly cellSize pixels on a side.
+     */
+    SpatialHash (double cellSize)
+    {
+        this.cells = Math.max(1, (int) Math.round(SIZE / cellSize));
+        this.cellSize = (double) SIZE / cells;
+        this.cellStart = new int[cells * cells + 1];
+        this.cellFill = new int[cells * cells];
+        this.members = new int[64];
+        this.span = new int[64];
+        this.seen = new int[16];
+    }
+
+    /**
+     * Places every indexed participant into each cell that its bounds cover.
+     */
+    @Override
+    public void rebuild (Participant[] participants, int count, CollisionLayers layers)
+    {
+        this.count = count;
+        if (span.length < count * 4)
+        {
+            span = new int[count * 8];
+        }
+        if (seen.length < count)
+        {
+            seen = new int[count * 2];
+            query = 0;
+        }
+
+        // Count the members of each cell
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < count; i++)
+        {
+            Participant p = participants[i];
+            if (!BroadPhase.isIndexed(p, layers))
+            {
+                span[i * 4] = 0;
+                span[i * 4 + 1] = -1;
+                continue;
+            }
+            computeSpan(i, p.getBounds());
+            for (int col = span[i * 4]; col <= span[i * 4 + 1]; col++)
+            {
+                for (int row = span[i * 4 + 2]; row <= span[i * 4 + 3]; row++)
+                {
+                    cellStart[cellOf(col, row) + 1]++;
+                }
+            }
+        }
+
+        // Turn the counts into starting offsets
+        for (int c = 0; c < cells * cells; c++)
+        {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int total = cellStart[cells * cells];
+        if (members.length < total)
+        {
+            members = new int[total * 2];
+        }
+
+        // Fill in the members of each cell
+        Arrays.fill(cellFill, 0);
+        for (int i = 0; i < count; i++)
+        {
+            for (int col = span[i * 4]; col <= span[i * 4 + 1]; col++)
+            {
+                for (int row = span[i * 4 + 2]; row <= span[i * 4 + 3]; row++)
+                {
+                    int c = cellOf(col, row);
+                    members[cellStart[c] + cellFill[c]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reports the participants after index that share a cell with it.
+     */
+    @Override
+    public int candidates (int index, int[] out)
+    {
+        int found = 0;
+        if (index >= count || span[index * 4] > span[index * 4 + 1])
+        {
+            return found;
+        }
+
+        // Start a new query, clearing the stamps if they ever wrap around
+        query++;
+        if (query == Integer.MAX_VALUE)
+        {
+            Arrays.fill(seen, 0);
+            query = 1;
+        }
+
+        for (int col = span[index * 4]; col <= span[index * 4 + 1]; col++)
+        {
+            for (int row = span[index * 4 + 2]; row <= span[index * 4 + 3]; row++)
+            {
+                int c = cellOf(col, row);
+                for (int m = cellStart[c]; m < cellStart[c + 1]; m++)
+                {
+                    int other = members[m];
+                    if (other > index && seen[other] != query)
+                    {
+                        seen[other] = query;
+                        out[found++] = other;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Records the range of cells covered by the bounds of participant i. The range is kept unwrapped here and wrapped
+     * when cells are looked up. A range that covers the whole grid is clamped so that no cell is visited twice.
+     */
+    private void computeSpan (int i, Rectangle2D bounds)
+    {
+        int minCol = (int) Math.floor(bounds.getMinX() / cellSize);
+        int maxCol = (int) Math.floor(bounds.getMaxX() / cellSize);
+        int minRow = (int) Math.floor(bounds.getMinY() / cellSize);
+        int maxRow = (int) Math.floor(bounds.getMaxY() / cellSize);
+        span[i * 4] = minCol;
+        span[i * 4 + 1] = Math.min(maxCol, minCol + cells - 1);
+        span[i * 4 + 2] = minRow;
+        span[i * 4 + 3] = Math.min(maxRow, minRow + cells - 1);
+    }
+
+    /**
+     * Returns the cell number of a possibly out-of-range column and row, wrapping both around the field.
+     */
+    private int cellOf (int col, int row)
+    {
+        return Math.floorMod(row, cells) * cells + Math.floorMod(col, cells);
+    }
+}
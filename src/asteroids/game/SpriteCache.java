@@ -0,0 +1,109 @@
+package asteroids.game;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+
+/**
+ * Draws the outlines of participants by copying pre-drawn images rather than stroking them as vectors. Each outline
+ * from the {@link asteroids.game.OutlineCache} is drawn, antialiased, into an image for each of a fixed number of
+ * rotations the first time it is shown at that rotation, and from then on drawing it is a single image copy. Outlines
+ * that did not come from the OutlineCache might change, so they are still stroked.
+ *
+ * The images are compatible with the screen they are drawn to, which lets Java2D keep them in video memory where it
+ * can. They are drawn at whole-pixel positions and at the nearest of the fixed rotations.
+ *
+ * A SpriteCache is used only from the thread that paints the screen.
+ */
+class SpriteCache
+{
+    /** Number of rotations at which each outline is drawn, evenly spaced around the circle */
+    final static int ROTATIONS = 64;
+
+    /** Pixels left around each outline so that its antialiased edges are not cut off */
+    private final static int MARGIN = 2;
+
+    /** The images of each outline, by rotation, with null for rotations not yet drawn */
+    private IdentityHashMap<Shape, BufferedImage[]> sprites;
+
+    /** The configuration for which the images were made */
+    private GraphicsConfiguration configuration;
+
+    /** The color in which the images were drawn */
+    private Color color;
+
+    /**
+     * Creates an empty cache.
+     */
+    SpriteCache ()
+    {
+        sprites = new IdentityHashMap<Shape, BufferedImage[]>();
+    }
+
+    /**
+     * Draws the outline in the current color of g, centered at (x,y) and rotated by the given number of radians.
+     */
+    void draw (Graphics2D g, Shape outline, double x, double y, double rotation)
+    {
+        // Outlines that aren't shared might change, so they are stroked every time
+        Outline shared = OutlineCache.forShape(outline);
+        if (shared == null)
+        {
+            AffineTransform saved = g.getTransform();
+            g.translate(x, y);
+            g.rotate(rotation);
+            g.draw(outline);
+            g.setTransform(saved);
+            return;
+        }
+
+        // Images made for another screen or color are of no use
+        GraphicsConfiguration gc = g.getDeviceConfiguration();
+        if (gc != configuration || !g.getColor().equals(color))
+        {
+            sprites.clear();
+            configuration = gc;
+            color = g.getColor();
+        }
+
+        BufferedImage[] images = sprites.get(outline);
+        if (images == null)
+        {
+            images = new BufferedImage[ROTATIONS];
+            sprites.put(outline, images);
+        }
+        int index = (int) Math.round(rotation / (2 * Math.PI) * ROTATIONS) % ROTATIONS;
+        if (index < 0)
+        {
+            index += ROTATIONS;
+        }
+        if (images[index] == null)
+        {
+            images[index] = render(outline, shared.getRadius(), index * 2 * Math.PI / ROTATIONS);
+        }
+
+        BufferedImage image = images[index];
+        int half = image.getWidth() / 2;
+        g.drawImage(image, (int) Math.round(x) - half, (int) Math.round(y) - half, null);
+    }
+
+    /**
+     * Draws the outline, rotated by the given number of radians, into the middle of a new transparent image big enough
+     * to hold it at any rotation.
+     */
+    private BufferedImage render (Shape outline, double radius, double rotation)
+    {
+        int half = (int) Math.ceil(radius) + MARGIN;
+        BufferedImage image = configuration.createCompatibleImage(2 * half, 2 * half, Transparency.TRANSLUCENT);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.setColor(color);
+        g.translate(half, half);
+        g.rotate(rotation);
+        g.draw(outline);
+        g.dispose();
+        return image;
+    }
+}
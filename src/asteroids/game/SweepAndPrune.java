@@ -0,0 +1,215 @@
+package asteroids.game;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+/**
+ * A broad phase that sorts the participants by the left edges of their bounds and sweeps across the field from left
+ * to right. A participant is compared only with the participants whose horizontal extents are still open when it is
+ * reached, and a pair is reported only if their bounds overlap vertically as well. This works well when participants
+ * are large or when they are bunched together, since neither affects the cost of the sweep.
+ */
+class SweepAndPrune implements BroadPhase
+{
+    /** Indices of the indexed participants, sorted by the left edges of their bounds */
+    private int[] order;
+
+    /** Edges of the bounds of each participant, by index */
+    private double[] minX, maxX, minY, maxY;
+
+    /** Indices of the participants whose horizontal extents are open during the sweep */
+    private int[] active;
+
+    /** The pairs found by the sweep, with the smaller index in pairLow */
+    private int[] pairLow, pairHigh;
+
+    /** Where the candidates of each participant begin in the candidates array */
+    private int[] start;
+
+    /** The candidates of every participant, grouped by participant */
+    private int[] grouped;
+
+    /** Number of participants seen by the last rebuild */
+    private int count;
+
+    /**
+     * Creates an empty broad phase.
+     */
+    SweepAndPrune ()
+    {
+        order = new int[64];
+        minX = new double[64];
+        maxX = new double[64];
+        minY = new double[64];
+        maxY = new double[64];
+        active = new int[64];
+        pairLow = new int[64];
+        pairHigh = new int[64];
+        start = new int[65];
+        grouped = new int[64];
+    }
+
+    /**
+     * Sorts the indexed participants and sweeps across them, recording every pair whose bounds overlap.
+     */
+    @Override
+    public void rebuild (Participant[] participants, int count, CollisionLayers layers)
+    {
+        this.count = count;
+        if (minX.length < count)
+        {
+            int size = count * 2;
+            order = new int[size];
+            minX = new double[size];
+            maxX = new double[size];
+            minY = new double[size];
+            maxY = new double[size];
+            active = new int[size];
+            start = new int[size + 1];
+        }
+
+        // Gather the bounds of the participants that can collide
+        int indexed = 0;
+        for (int i = 0; i < count; i++)
+        {
+            Participant p = participants[i];
+            if (BroadPhase.isIndexed(p, layers))
+            {
+                Rectangle2D bounds = p.getBounds();
+                minX[i] = bounds.getMinX();
+                maxX[i] = bounds.getMaxX();
+                minY[i] = bounds.getMinY();
+                maxY[i] = bounds.getMaxY();
+                order[indexed++] = i;
+            }
+        }
+        sort(0, indexed - 1);
+
+        // Sweep from left to right, keeping the open extents in the active list
+        int open = 0;
+        int pairs = 0;
+        for (int k = 0; k < indexed; k++)
+        {
+            int i = order[k];
+            int kept = 0;
+            for (int a = 0; a < open; a++)
+            {
+                int j = active[a];
+                if (maxX[j] >= minX[i])
+                {
+                    active[kept++] = j;
+                    if (maxY[j] >= minY[i] && maxY[i] >= minY[j])
+                    {
+                        if (pairs == pairLow.length)
+                        {
+                            pairLow = Arrays.copyOf(pairLow, pairs * 2);
+                            pairHigh = Arrays.copyOf(pairHigh, pairs * 2);
+                        }
+                        pairLow[pairs] = Math.min(i, j);
+                        pairHigh[pairs] = Math.max(i, j);
+                        pairs++;
+                    }
+                }
+            }
+            open = kept;
+            active[open++] = i;
+        }
+
+        // Group the pairs by their smaller index
+        Arrays.fill(start, 0, count + 1, 0);
+        for (int p = 0; p < pairs; p++)
+        {
+            start[pairLow[p] + 1]++;
+        }
+        for (int i = 0; i < count; i++)
+        {
+            start[i + 1] += start[i];
+        }
+        if (grouped.length < pairs)
+        {
+            grouped = new int[pairs * 2];
+        }
+        for (int p = 0; p < pairs; p++)
+        {
+            // start[i] is used as a fill pointer here and put back afterwards
+            grouped[start[pairLow[p]]++] = pairHigh[p];
+        }
+        for (int i = count; i > 0; i--)
+        {
+            start[i] = start[i - 1];
+        }
+        start[0] = 0;
+    }
+
+    /**
+     * Reports the participants after index whose bounds overlap its bounds.
+     */
+    @Override
+    public int candidates (int index, int[] out)
+    {
+        if (index >= count)
+        {
+            return 0;
+        }
+        int found = start[index + 1] - start[index];
+        System.arraycopy(grouped, start[index], out, 0, found);
+        return found;
+    }
+
+    /**
+     * Sorts order[low..high] by the left edges of the participants' bounds.
+     */
+    private void sort (int low, int high)
+    {
+        while (high - low > 16)
+        {
+            // Partition around the middle element
+            double pivot = minX[order[(low + high) >>> 1]];
+            int i = low;
+            int j = high;
+            while (i <= j)
+            {
+                while (minX[order[i]] < pivot)
+                {
+                    i++;
+                }
+                while (minX[order[j]] > pivot)
+                {
+                    j--;
+                }
+                if (i <= j)
+                {
+                    int swap = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swap;
+                }
+            }
+
+            // Recur on the smaller side and loop on the larger
+            if (j - low < high - i)
+            {
+                sort(low, j);
+                low = i;
+            }
+            else
+            {
+                sort(i, high);
+                high = j;
+            }
+        }
+
+        // Finish small ranges by insertion
+        for (int i = low + 1; i <= high; i++)
+        {
+            int moving = order[i];
+            double key = minX[moving];
+            int j = i - 1;
+            while (j >= low && minX[order[j]] > key)
+            {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = moving;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package asteroids.game;
+
+/**
+ * Counts the work done by a {@link asteroids.game.ParticipantState} during a single tick. The counts are cleared at
+ * the start of every tick, so after a tick has finished they describe that tick alone.
+ */
+public class TickStatistics
+{
+    /** The broad phase that found the candidate pairs */
+    private BroadPhaseType broadPhase;
+
+    /** Number of candidate pairs skipped because neither participant reacts to the other */
+    private int pairsFiltered;
+
+    /** Number of pairs of participants considered for collision */
+    private int pairsConsidered;
+
+    /** Number of pairs ruled out by their bounding boxes or circles */
+    private int pairsRejected;
+
+    /** Number of pairs that collided */
+    private int collisions;
+
+    /** Number of pairs on which the polygon and Area tests disagreed */
+    private int mismatches;
+
+    /** Number of participants moved */
+    private int moved;
+
+    /** Number of participants whose placed convex pieces were brought up to date */
+    private int bordersBuilt;
+
+    /**
+     * Creates statistics with every count at zero.
+     */
+    public TickStatistics ()
+    {
+        reset();
+    }
+
+    /**
+     * Sets every count back to zero.
+     */
+    void reset ()
+    {
+        pairsFiltered = 0;
+        pairsConsidered = 0;
+        pairsRejected = 0;
+        collisions = 0;
+        mismatches = 0;
+        moved = 0;
+        bordersBuilt = 0;
+    }
+
+    /**
+     * Records the broad phase that found the candidate pairs.
+     */
+    void setBroadPhase (BroadPhaseType broadPhase)
+    {
+        this.broadPhase = broadPhase;
+    }
+
+    /**
+     * Records that a candidate pair was skipped because neither participant reacts to the other.
+     */
+    void pairFiltered ()
+    {
+        pairsFiltered++;
+    }
+
+    /**
+     * Records that a pair of participants was considered for collision.
+     */
+    void pairConsidered ()
+    {
+        pairsConsidered++;
+    }
+
+    /**
+     * Records that a pair was ruled out without examining its outlines.
+     */
+    void pairRejected ()
+    {
+        pairsRejected++;
+    }
+
+    /**
+     * Records that a pair collided.
+     */
+    void collision ()
+    {
+        collisions++;
+    }
+
+    /**
+     * Records that the polygon and Area tests disagreed about a pair.
+     */
+    void mismatch ()
+    {
+        mismatches++;
+    }
+
+    /**
+     * Records that a participant was moved.
+     */
+    void participantMoved ()
+    {
+        moved++;
+    }
+
+    /**
+     * Records that the placed convex pieces of a participant were brought up to date.
+     */
+    void borderBuilt ()
+    {
+        bordersBuilt++;
+    }
+
+    /**
+     * Returns the broad phase that found the candidate pairs. When the broad phase is adaptive, this is the one that it
+     * chose. Returns null if no collisions have been checked.
+     */
+    public BroadPhaseType getBroadPhase ()
+    {
+        return broadPhase;
+    }
+
+    /**
+     * Returns the number of candidate pairs skipped because neither participant reacts to the other.
+     */
+    public int getPairsFiltered ()
+    {
+        return pairsFiltered;
+    }
+
+    /**
+     * Returns the number of pairs considered for collision.
+     */
+    public int getPairsConsidered ()
+    {
+        return pairsConsidered;
+    }
+
+    /**
+     * Returns the number of pairs ruled out by their bounding volumes alone.
+     */
+    public int getPairsRejected ()
+    {
+        return pairsRejected;
+    }
+
+    /**
+     * Returns the number of pairs whose outlines had to be intersected.
+     */
+    public int getExactTests ()
+    {
+        return pairsConsidered - pairsRejected;
+    }
+
+    /**
+     * Returns the number of pairs that collided.
+     */
+    public int getCollisions ()
+    {
+        return collisions;
+    }
+
+    /**
+     * Returns the number of pairs on which the polygon and Area tests disagreed by more than a sliver. This is always
+     * zero unless the narrow phase is {@link asteroids.game.NarrowPhase#VERIFY}.
+     */
+    public int getMismatches ()
+    {
+        return mismatches;
+    }
+
+    /**
+     * Returns the number of participants moved.
+     */
+    public int getParticipantsMoved ()
+    {
+        return moved;
+    }
+
+    /**
+     * Returns the number of participants whose placed convex pieces had to be brought up to date for collision tests.
+     */
+    public int getBordersBuilt ()
+    {
+        return bordersBuilt;
+    }
+
+    /**
+     * Returns the number of moved participants whose placed convex pieces were never needed, and so were never built.
+     */
+    public int getBordersSaved ()
+    {
+        return Math.max(0, moved - bordersBuilt);
+    }
+
+    /**
+     * Returns the fraction of considered pairs that were ruled out by their bounding volumes, or 0 if no pairs were
+     * considered.
+     */
+    public double getRejectionRate ()
+    {
+        return pairsConsidered == 0 ? 0 : (double) pairsRejected / pairsConsidered;
+    }
+
+    /**
+     * Summarizes the counts on one line.
+     */
+    @Override
+    public String toString ()
+    {
+        return String.format(
+                "%s filtered=%d pairs=%d rejected=%d (%.1f%%) exact=%d collisions=%d mismatches=%d borders=%d saved=%d",
+                broadPhase, pairsFiltered, pairsConsidered, pairsRejected, 100 * getRejectionRate(), getExactTests(),
+                collisions, mismatches, bordersBuilt, getBordersSaved());
+    }
+}
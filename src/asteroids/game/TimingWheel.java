@@ -0,0 +1,195 @@
+package asteroids.game;
+
+import java.util.Arrays;
+
+/**
+ * A hashed timing wheel that counts down every {@link asteroids.game.ParticipantCountdownTimer} of a ParticipantState.
+ * The wheel has a fixed number of slots and moves to the next slot once per tick. A countdown is placed in the slot in
+ * which it will complete, along with the number of times the wheel must first go all the way around. Scheduling and
+ * cancelling a countdown take the same time no matter how many are running, and each tick only looks at one slot.
+ *
+ * Countdowns that complete on the same tick do so in the order in which they were scheduled.
+ */
+class TimingWheel
+{
+    /** Number of bits in a slot number */
+    private final static int BITS = 8;
+
+    /** Number of slots, which is how many ticks it takes to go around the wheel once */
+    private final static int SLOTS = 1 << BITS;
+
+    /** Mask that turns a tick number into a slot number */
+    private final static int MASK = SLOTS - 1;
+
+    /** First and last countdown in each slot */
+    private ParticipantCountdownTimer[] heads, tails;
+
+    /** The current tick */
+    private int now;
+
+    /** Number of countdowns scheduled */
+    private int size;
+
+    /** The countdowns completing on the current tick, in order */
+    private ParticipantCountdownTimer[] due;
+
+    /**
+     * Creates an empty wheel.
+     */
+    TimingWheel ()
+    {
+        heads = new ParticipantCountdownTimer[SLOTS];
+        tails = new ParticipantCountdownTimer[SLOTS];
+        due = new ParticipantCountdownTimer[16];
+        now = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of countdowns scheduled.
+     */
+    int size ()
+    {
+        return size;
+    }
+
+    /**
+     * Schedules the countdown to complete timer.ticks ticks from now.
+     */
+    void schedule (ParticipantCountdownTimer timer)
+    {
+        timer.slot = (now + timer.ticks) & MASK;
+        timer.rounds = (timer.ticks - 1) >>> BITS;
+        timer.wheel = this;
+        append(timer);
+        size++;
+    }
+
+    /**
+     * Takes a scheduled countdown off the wheel.
+     */
+    void remove (ParticipantCountdownTimer timer)
+    {
+        unlink(timer);
+        timer.wheel = null;
+        size--;
+    }
+
+    /**
+     * Returns the number of ticks left before a scheduled countdown completes.
+     */
+    int ticksLeft (ParticipantCountdownTimer timer)
+    {
+        return ((timer.slot - now - 1) & MASK) + 1 + (timer.rounds << BITS);
+    }
+
+    /**
+     * Returns the scheduled countdowns slot by slot, starting with the next tick. Scheduling them in this order on
+     * another wheel, each with its ticks left, makes the countdowns that are due on the same tick complete in the same
+     * order there.
+     */
+    ParticipantCountdownTimer[] toArray ()
+    {
+        ParticipantCountdownTimer[] result = new ParticipantCountdownTimer[size];
+        int count = 0;
+        for (int i = 1; i <= SLOTS; i++)
+        {
+            for (ParticipantCountdownTimer t = heads[(now + i) & MASK]; t != null; t = t.wheelNext)
+            {
+                result[count++] = t;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Moves on to the next tick and completes every countdown that is due. The callbacks may schedule and cancel
+     * countdowns, including ones that are due on this tick.
+     */
+    void advance ()
+    {
+        now++;
+        int slot = now & MASK;
+
+        // Take the due countdowns off the wheel, leaving the others for a later time around
+        int count = 0;
+        ParticipantCountdownTimer timer = heads[slot];
+        heads[slot] = null;
+        tails[slot] = null;
+        while (timer != null)
+        {
+            ParticipantCountdownTimer next = timer.wheelNext;
+            timer.wheelPrev = null;
+            timer.wheelNext = null;
+            if (timer.rounds > 0)
+            {
+                timer.rounds--;
+                append(timer);
+            }
+            else
+            {
+                timer.wheel = null;
+                size--;
+                if (count == due.length)
+                {
+                    due = Arrays.copyOf(due, count * 2);
+                }
+                due[count++] = timer;
+            }
+            timer = next;
+        }
+
+        // Complete them. One that was cancelled by an earlier callback does nothing.
+        for (int i = 0; i < count; i++)
+        {
+            ParticipantCountdownTimer t = due[i];
+            due[i] = null;
+            t.complete();
+        }
+    }
+
+    /**
+     * Adds the countdown to the end of its slot.
+     */
+    private void append (ParticipantCountdownTimer timer)
+    {
+        int slot = timer.slot;
+        timer.wheelPrev = tails[slot];
+        timer.wheelNext = null;
+        if (tails[slot] == null)
+        {
+            heads[slot] = timer;
+        }
+        else
+        {
+            tails[slot].wheelNext = timer;
+        }
+        tails[slot] = timer;
+    }
+
+    /**
+     * Removes the countdown from its slot.
+     */
+    private void unlink (ParticipantCountdownTimer timer)
+    {
+        int slot = timer.slot;
+        if (timer.wheelPrev == null)
+        {
+            heads[slot] = timer.wheelNext;
+        }
+        else
+        {
+            timer.wheelPrev.wheelNext = timer.wheelNext;
+        }
+        if (timer.wheelNext == null)
+        {
+            tails[slot] = timer.wheelPrev;
+        }
+        else
+        {
+            timer.wheelNext.wheelPrev = timer.wheelPrev;
+        }
+        timer.wheelPrev = null;
+        timer.wheelNext = null;
+    }
+}
@@ -3,9 +3,13 @@ package asteroids.participants;
 import static asteroids.game.Constants.*;
 import java.awt.Shape;
 import java.awt.geom.*;
+import java.io.DataInput;
+import java.io.IOException;
 import asteroids.destroyers.AsteroidDestroyer;
 import asteroids.destroyers.ShipDestroyer;
-import asteroids.game.Controller;
+import asteroids.game.Game;
+import asteroids.game.Outline;
+import asteroids.game.OutlineCache;
 import asteroids.game.Participant;
 import asteroids.game.ParticipantCountdownTimer;
 
@@ -20,25 +24,55 @@ public class AlienBullet extends Participant implements AsteroidDestroyer, ShipD
     private Shape outline;
 
     /** Bullet Diameter */
-    private static double BULLET_DIAM = 3.0;
+    private final static double BULLET_DIAM = 3.0;
 
     /**
      * Creates a bullet with the same coordinates as the nose of the ship and moves in the direction of the ship when
      * fired with a set velocity, size, and time duration
      */
-    public AlienBullet (double x, double y, double direction, Controller controller)
+    public AlienBullet (double x, double y, double direction, Game game)
     {
         // set Participant Variables
         setPosition(x, y);
-        setVelocity(BULLET_SPEED - 1, direction);
+        setVelocity(game.getSettings().getBulletSpeed() - 1, direction);
 
-        // Create Outline
-        Ellipse2D.Double ellipse = new Ellipse2D.Double(-(BULLET_DIAM / 2.0), -(BULLET_DIAM / 2.0), BULLET_DIAM,
-                BULLET_DIAM);
-        this.outline = ellipse;
+        // Create Outline, which is shared by every AlienBullet
+        this.outline = createOutline();
         
         // Create countdown timer for when the bullet has reached its max duration
-        new ParticipantCountdownTimer(this, "bulletTimeOut", BULLET_DURATION);
+        new ParticipantCountdownTimer(this, "bulletTimeOut", game.getSettings().getBulletDuration());
+    }
+
+    /**
+     * Creates a bullet with no position, velocity, or countdown, as part of restoring a GameSnapshot.
+     */
+    private AlienBullet ()
+    {
+        this.outline = createOutline();
+    }
+
+    /**
+     * Creates a bullet from what writeState wrote, which is nothing, as part of restoring a GameSnapshot. Its
+     * position, velocity, rotation, and countdown are restored separately.
+     */
+    public static AlienBullet readState (DataInput in) throws IOException
+    {
+        return new AlienBullet();
+    }
+
+    /**
+     * Returns the outline of a bullet, which is shared by every AlienBullet and created the first time it is needed.
+     */
+    private static Shape createOutline ()
+    {
+        Outline cached = OutlineCache.get(AlienBullet.class, 0, 0, false);
+        if (cached == null)
+        {
+            Ellipse2D.Double ellipse = new Ellipse2D.Double(-(BULLET_DIAM / 2.0), -(BULLET_DIAM / 2.0), BULLET_DIAM,
+                    BULLET_DIAM);
+            cached = OutlineCache.put(AlienBullet.class, 0, 0, false, ellipse);
+        }
+        return cached.getShape();
     }
 
     /**
@@ -52,6 +86,15 @@ public class AlienBullet extends Participant implements AsteroidDestroyer, ShipD
         return this.outline;
     }
 
+    /**
+     * An AlienBullet reacts to ShipDestroyers and AsteroidDestroyers
+     */
+    @Override
+    protected boolean reactsTo (Class<? extends Participant> other)
+    {
+        return ShipDestroyer.class.isAssignableFrom(other) || AsteroidDestroyer.class.isAssignableFrom(other);
+    }
+
     /**
      * Called when a bullet hits an asteroid or the ship
      */
@@ -65,14 +108,6 @@ public class AlienBullet extends Participant implements AsteroidDestroyer, ShipD
         }
     }
     
-    /**
-     * Move the bullet one tick ahead
-     */
-    public void move ()
-    {
-        super.move();
-    }
-
     /**
      * This method is invoked when a ParticipantCountdownTimer completes its countdown.
      */
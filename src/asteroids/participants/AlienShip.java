@@ -3,11 +3,17 @@ package asteroids.participants;
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Path2D;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import asteroids.destroyers.AsteroidDestroyer;
 import asteroids.destroyers.ShipDestroyer;
-import asteroids.game.Controller;
+import asteroids.game.Game;
+import asteroids.game.Outline;
+import asteroids.game.OutlineCache;
 import asteroids.game.Participant;
 import asteroids.game.ParticipantCountdownTimer;
+import asteroids.game.RandomStream;
 import static asteroids.game.Constants.*;
 
 /**
@@ -23,8 +29,11 @@ public class AlienShip extends Participant implements AsteroidDestroyer, ShipDes
     /** Size of the AlienShip */
     private int size;
 
-    /** Controller for the AlienShip */
-    private Controller controller;
+    /** The game the AlienShip is part of */
+    private Game game;
+
+    /** The stream from which the AlienShip makes its random choices */
+    private RandomStream random;
 
     /** Ship General Horizontal Direction in Radians */
     private Double generalDirection;
@@ -34,80 +43,112 @@ public class AlienShip extends Participant implements AsteroidDestroyer, ShipDes
      * 
      * @param size
      */
-    public AlienShip (int size, Controller controller)
+    public AlienShip (int size, Game game)
     {
         // Ensure argument is valid
         if (size < 0 || size > 1)
         {
             throw (new IllegalArgumentException("AlienShip Size is invalid"));
         }
+        this.game = game;
+        this.random = game.getAlienRandom();
 
         // Set Alien ship position and orientation
-        setPosition(SIZE + 5, RANDOM.nextInt(400) + 150);
+        setPosition(SIZE + 5, this.random.nextInt(400) + 150);
         setDirection(-Math.PI / 2);
 
         // Set AlienShip General Direction (Left || Right)
-        this.generalDirection = ALIENSHIP_HORIZONTAL_DIRECTIONS[RANDOM.nextInt(2)];
+        this.generalDirection = ALIENSHIP_HORIZONTAL_DIRECTIONS[this.random.nextInt(2)];
 
         // Assign Velocity
         this.changeVelocity();
 
         // Assign Vars
         this.size = size;
-        this.controller = controller;
         this.createOutline();
 
         // AlienShip has a 3 second delay between firing.
-        new ParticipantCountdownTimer(this, "fireBullet", ALIENSHIP_SHOT_DELAY);
+        new ParticipantCountdownTimer(this, "fireBullet", game.getSettings().getAlienShipShotDelay());
 
         // AlienMovement changes between each delay
-        new ParticipantCountdownTimer(this, "changeDirection", ALIENSHIP_MOVEMENT_DELAY);
+        new ParticipantCountdownTimer(this, "changeDirection", game.getSettings().getAlienShipMovementDelay());
     }
 
     /**
-     * Creates the outline of the AlienShip with its respective size
+     * Creates an AlienShip of the given size heading generally in the given direction, with no position, velocity, or
+     * countdowns, as part of restoring a GameSnapshot.
      */
-    private void createOutline ()
+    private AlienShip (Game game, int size, double generalDirection)
     {
-        Double[] x;
-        Double[] y;
+        this.game = game;
+        this.random = game.getAlienRandom();
+        this.size = size;
+        this.generalDirection = generalDirection;
+        this.createOutline();
+    }
 
-        // Draw the Shape
-        x = new Double[] { 7.0, -7.0, -10.0, 10.0 };
-        y = new Double[] { -5.0, -5.0, 5.0, 5.0 };
-        Path2D.Double poly = createFigure(x, y);
+    /**
+     * Creates an AlienShip from what writeState wrote, as part of restoring a GameSnapshot. Its position, velocity,
+     * rotation, and countdowns are restored separately. Throws an IOException if the size is invalid.
+     */
+    public static AlienShip readState (DataInput in, Game game) throws IOException
+    {
+        int size = in.readUnsignedByte();
+        if (size > 1)
+        {
+            throw new IOException("AlienShip Size is invalid");
+        }
+        return new AlienShip(game, size, in.readDouble());
+    }
+
+    /**
+     * Writes the size of the AlienShip and its general direction
+     */
+    @Override
+    protected void writeState (DataOutput out) throws IOException
+    {
+        out.writeByte(size);
+        out.writeDouble(generalDirection);
+    }
 
-        x = new Double[] { 10.0, -10.0, -22.0, 22.0 };
-        y = new Double[] { 5.0, 5.0, 17.0, 17.0 };
-        poly.append(createFigure(x, y), false);
+    /**
+     * Creates the outline of the AlienShip with its respective size. Every AlienShip of the same size shares the same
+     * outline, which is drawn the first time it is needed.
+     */
+    private void createOutline ()
+    {
+        Outline cached = OutlineCache.get(AlienShip.class, 0, size, false);
+        if (cached != null)
+        {
+            this.outline = cached.getShape();
+            return;
+        }
 
-        x = new Double[] { 22.0, -22.0, -10.0, 10.0 };
-        y = new Double[] { 17.0, 17.0, 27.0, 27.0 };
-        poly.append(createFigure(x, y), false);
+        // Draw the Shape
+        Path2D.Double poly = new Path2D.Double();
+        appendFigure(poly, new double[] { 7.0, -7.0, -10.0, 10.0 }, new double[] { -5.0, -5.0, 5.0, 5.0 });
+        appendFigure(poly, new double[] { 10.0, -10.0, -22.0, 22.0 }, new double[] { 5.0, 5.0, 17.0, 17.0 });
+        appendFigure(poly, new double[] { 22.0, -22.0, -10.0, 10.0 }, new double[] { 17.0, 17.0, 27.0, 27.0 });
 
         // Change size to Scale
         double scale = ALIENSHIP_SCALE[size];
         poly.transform(AffineTransform.getScaleInstance(scale, scale));
 
-        this.outline = poly;
+        this.outline = OutlineCache.put(AlienShip.class, 0, size, false, poly).getShape();
     }
 
     /**
-     * Draws a 4-Sided figure with values. Helper Function when drawing Ship
+     * Adds a closed 4-Sided figure with values to poly. Helper Function when drawing Ship
      * 
-     * @params x values, y values
-     * @return Path2D.Double
+     * @params poly, x values, y values
      */
-    private static Path2D.Double createFigure (Double[] x, Double[] y)
+    private static void appendFigure (Path2D.Double poly, double[] x, double[] y)
     {
-        Path2D.Double poly = new Path2D.Double();
         poly.moveTo(x[0], y[0]);
         poly.lineTo(x[1], y[1]);
         poly.lineTo(x[2], y[2]);
         poly.lineTo(x[3], y[3]);
         poly.closePath();
-
-        return poly;
     }
 
     /**
@@ -116,10 +157,10 @@ public class AlienShip extends Participant implements AsteroidDestroyer, ShipDes
     public void changeVelocity ()
     {
         // Movement from Horizontal Direction
-        int change = RANDOM.nextInt(3) - 1;
+        int change = this.random.nextInt(3) - 1;
 
         // Change Speed relative to AlienShip.size and add Value change to generalDirection
-        setVelocity(ALIENSHIP_SPEED - (3 * this.size), this.generalDirection + change);
+        setVelocity(game.getSettings().getAlienShipSpeed() - (3 * this.size), this.generalDirection + change);
     }
 
     /**
@@ -160,8 +201,8 @@ public class AlienShip extends Participant implements AsteroidDestroyer, ShipDes
     private Double getBulletDirection ()
     {   
         // Get Ship Coords
-        Double shipX = this.controller.getShip().getX();
-        Double shipY = this.controller.getShip().getY();
+        Double shipX = this.game.getShip().getX();
+        Double shipY = this.game.getShip().getY();
         
         // Get AlienShip Coords
         Double alienShipX = this.getX();
@@ -171,9 +212,9 @@ public class AlienShip extends Participant implements AsteroidDestroyer, ShipDes
         Double direction = Math.atan2(shipY - alienShipY, shipX - alienShipX);
         
         // Change with an error of +- 5 degrees
-        Double error = RANDOM.nextDouble() * Math.toRadians(5);
+        Double error = this.random.nextDouble() * Math.toRadians(5);
         
-        if (RANDOM.nextBoolean())
+        if (this.random.nextBoolean())
         {
             error *= -1;
         }
@@ -192,6 +233,15 @@ public class AlienShip extends Participant implements AsteroidDestroyer, ShipDes
         return this.outline;
     }
 
+    /**
+     * An AlienShip reacts to ShipDestroyers and AsteroidDestroyers
+     */
+    @Override
+    protected boolean reactsTo (Class<? extends Participant> other)
+    {
+        return ShipDestroyer.class.isAssignableFrom(other) || AsteroidDestroyer.class.isAssignableFrom(other);
+    }
+
     /**
      * Called when alien ship collides with another object
      */
@@ -201,16 +251,16 @@ public class AlienShip extends Participant implements AsteroidDestroyer, ShipDes
         if (p instanceof ShipDestroyer || p instanceof AsteroidDestroyer)
         {
             // Create Debris
-            this.controller.createShipDebris(this.getX(), this.getY());
+            this.game.createShipDebris(this.getX(), this.getY());
 
             // Add points
-            this.controller.addScore(ALIENSHIP_SCORE[this.size]);
+            this.game.addScore(game.getSettings().getAlienShipScore(this.size));
 
             // Expire ship
             Participant.expire(this);
 
-            // Inform the controller
-            this.controller.alienShipDestroyed();
+            // Inform the game
+            this.game.alienShipDestroyed();
         }
     }
 
@@ -221,37 +271,37 @@ public class AlienShip extends Participant implements AsteroidDestroyer, ShipDes
     public void countdownComplete (Object payload)
     {
         // After a Delay of 3000 ms after each shot, another shot is fired
-        if (payload.equals("fireBullet") && this.controller.getAlienShip() != null && this.controller.getShip() != null)
+        if (payload.equals("fireBullet") && this.game.getAlienShip() != null && this.game.getShip() != null)
         {
             double direction;
 
             if (this.size == 1)
             {
-                direction = RANDOM.nextDouble() * 2 * Math.PI;
+                direction = this.random.nextDouble() * 2 * Math.PI;
             }
             else
             {
                 direction = getBulletDirection();
             }
 
-            if (this.controller.getShip() != null)
+            if (this.game.getShip() != null)
             {
-                AlienBullet alienBullet = new AlienBullet(this.getX(), this.getY(), direction, this.controller);
+                AlienBullet alienBullet = new AlienBullet(this.getX(), this.getY(), direction, this.game);
                 alienBullet.move();
-                this.controller.addParticipant(alienBullet);
+                this.game.addParticipant(alienBullet);
             }
 
             // Restart CountdownTimer
-            new ParticipantCountdownTimer(this, "fireBullet", ALIENSHIP_SHOT_DELAY);
+            new ParticipantCountdownTimer(this, "fireBullet", game.getSettings().getAlienShipShotDelay());
         }
 
         // After a Delay of 1000 ms after each change in direction, another change is made
-        else if (payload.equals("changeDirection") && this.controller.getAlienShip() != null)
+        else if (payload.equals("changeDirection") && this.game.getAlienShip() != null)
         {
             this.changeVelocity();
 
             // Restart CountdownTimer
-            new ParticipantCountdownTimer(this, "changeDirection", ALIENSHIP_MOVEMENT_DELAY);
+            new ParticipantCountdownTimer(this, "changeDirection", game.getSettings().getAlienShipMovementDelay());
         }
     }
 }
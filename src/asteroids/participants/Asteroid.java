@@ -3,11 +3,16 @@ package asteroids.participants;
 import static asteroids.game.Constants.*;
 import java.awt.Shape;
 import java.awt.geom.*;
-import javax.sound.sampled.Clip;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import asteroids.destroyers.AsteroidDestroyer;
 import asteroids.destroyers.ShipDestroyer;
-import asteroids.game.Controller;
+import asteroids.game.Game;
+import asteroids.game.Outline;
+import asteroids.game.OutlineCache;
 import asteroids.game.Participant;
+import asteroids.game.Sound;
 
 /**
  * Represents asteroids
@@ -17,17 +22,20 @@ public class Asteroid extends Participant implements ShipDestroyer
     /** The size of the asteroid (0 = small, 1 = medium, 2 = large) */
     private int size;
 
+    /** The variety of the asteroid's outline (0 through 3) */
+    private int variety;
+
     /** The outline of the asteroid */
     private Shape outline;
 
-    /** The game controller */
-    private Controller controller;
+    /** The game the asteroid is part of */
+    private Game game;
 
     /** The speed of the Asteroid */
     private int speed;
     
-    /** Audio Clips for the Asteroid being destroyed */
-    private Clip[] audioClips;
+    /** Sounds for an Asteroid of each size being destroyed */
+    private final static Sound[] BANG_SOUNDS = { Sound.BANG_SMALL, Sound.BANG_MEDIUM, Sound.BANG_LARGE };
 
     /**
      * Throws an IllegalArgumentException if size or variety is out of range.
@@ -36,7 +44,7 @@ public class Asteroid extends Participant implements ShipDestroyer
      * positions it at the provided coordinates with a random rotation. Its velocity has the given speed but is in a
      * random direction.
      */
-    public Asteroid (int variety, int size, double x, double y, Controller controller)
+    public Asteroid (int variety, int size, double x, double y, Game game)
     {
         // Make sure size and variety are valid
         if (size < 0 || size > 2)
@@ -49,27 +57,65 @@ public class Asteroid extends Participant implements ShipDestroyer
         }
 
         // Create the asteroid
-        this.controller = controller;
+        this.game = game;
         this.size = size;
+        this.variety = variety;
 
         // Set asteroids to their max speed
-        this.speed = ASTEROID_SPEED_LIST[this.size];
+        this.speed = game.getSettings().getAsteroidSpeed(this.size);
 
         // If not slow, assign Asteroid to a rand int between 3 and their respective max speed
         if (this.speed > 3)
         {
-            this.speed = RANDOM.nextInt(this.speed - 3) + 3;
+            this.speed = game.getAsteroidRandom().nextInt(this.speed - 3) + 3;
         }
-        
-        // Create audio clip hash
-        this.audioClips = new Clip[] {controller.bangSmallClip, controller.bangMediumClip, controller.bangLargeClip};
 
         setPosition(x, y);
-        setVelocity(speed, RANDOM.nextDouble() * 2 * Math.PI);
-        setRotation(2 * Math.PI * RANDOM.nextDouble());
-        createAsteroidOutline(variety, size);
+        setVelocity(speed, game.getAsteroidRandom().nextDouble() * 2 * Math.PI);
+        setRotation(2 * Math.PI * game.getAsteroidRandom().nextDouble());
+        outline = createAsteroidOutline(variety, size);
+    }
+
+    /**
+     * Creates an asteroid of the given variety and size that is not yet positioned or moving, as part of restoring a
+     * GameSnapshot.
+     */
+    private Asteroid (Game game, int variety, int size)
+    {
+        this.game = game;
+        this.size = size;
+        this.variety = variety;
+        outline = createAsteroidOutline(variety, size);
+    }
+
+    /**
+     * Creates an asteroid from what writeState wrote, as part of restoring a GameSnapshot. Its position, velocity, and
+     * rotation are restored separately. Throws an IOException if the variety or size is out of range.
+     */
+    public static Asteroid readState (DataInput in, Game game) throws IOException
+    {
+        int variety = in.readUnsignedByte();
+        int size = in.readUnsignedByte();
+        if (size > 2 || variety > 3)
+        {
+            throw new IOException("Invalid asteroid variety or size: " + variety + ", " + size);
+        }
+        return new Asteroid(game, variety, size);
     }
 
+    /**
+     * Writes the variety and size of the asteroid
+     */
+    @Override
+    protected void writeState (DataOutput out) throws IOException
+    {
+        out.writeByte(variety);
+        out.writeByte(size);
+    }
+
+    /**
+     * Returns the outline of the asteroid
+     */
     @Override
     protected Shape getOutline ()
     {
@@ -77,10 +123,17 @@ public class Asteroid extends Participant implements ShipDestroyer
     }
 
     /**
-     * Creates the outline of the asteroid based on its variety and size.
+     * Returns the outline of an asteroid of the given variety and size. Every asteroid of the same variety and size
+     * shares the same outline, which is created the first time it is needed.
      */
-    private void createAsteroidOutline (int variety, int size)
+    private static Shape createAsteroidOutline (int variety, int size)
     {
+        Outline cached = OutlineCache.get(Asteroid.class, variety, size, false);
+        if (cached != null)
+        {
+            return cached.getShape();
+        }
+
         // This will contain the outline
         Path2D.Double poly = new Path2D.Double();
 
@@ -144,8 +197,8 @@ public class Asteroid extends Participant implements ShipDestroyer
         double scale = ASTEROID_SCALE[size];
         poly.transform(AffineTransform.getScaleInstance(scale, scale));
 
-        // Save the outline
-        outline = poly;
+        // Share the outline
+        return OutlineCache.put(Asteroid.class, variety, size, false, poly).getShape();
     }
 
     /**
@@ -156,6 +209,15 @@ public class Asteroid extends Participant implements ShipDestroyer
         return size;
     }
 
+    /**
+     * An Asteroid reacts only to AsteroidDestroyers
+     */
+    @Override
+    protected boolean reactsTo (Class<? extends Participant> other)
+    {
+        return AsteroidDestroyer.class.isAssignableFrom(other);
+    }
+
     /**
      * When an Asteroid collides with an AsteroidDestroyer, it expires or splits if size > 0
      */
@@ -167,26 +229,26 @@ public class Asteroid extends Participant implements ShipDestroyer
             // If asteroid.size > 0, splits into two smaller asteroids
             if (this.size > 0)
             {
-                controller.addParticipant(
-                        new Asteroid(RANDOM.nextInt(4), this.size - 1, this.getX(), this.getY(), this.controller));
-                controller.addParticipant(
-                        new Asteroid(RANDOM.nextInt(4), this.size - 1, this.getX(), this.getY(), this.controller));
+                int variety = game.getAsteroidRandom().nextInt(4);
+                game.addParticipant(new Asteroid(variety, this.size - 1, this.getX(), this.getY(), this.game));
+                variety = game.getAsteroidRandom().nextInt(4);
+                game.addParticipant(new Asteroid(variety, this.size - 1, this.getX(), this.getY(), this.game));
             }
 
             // Create Debris
-            this.controller.createAsteroidDebris(this.getX(), this.getY());
+            this.game.createAsteroidDebris(this.getX(), this.getY());
 
             // Add points to score relative to size of asteroid
-            controller.addScore(ASTEROID_SCORE[this.size]);
+            game.addScore(game.getSettings().getAsteroidScore(this.size));
 
             // Expire the collided asteroid
             Participant.expire(this);
             
             // Play asteroidDestroyed audio according to asteroid size
-            controller.playClip(this.audioClips[this.size]);
+            game.playSound(BANG_SOUNDS[this.size]);
 
-            // Inform the controller
-            controller.asteroidDestroyed();
+            // Inform the game
+            game.asteroidDestroyed();
         }
     }
 }
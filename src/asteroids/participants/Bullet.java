@@ -3,9 +3,13 @@ package asteroids.participants;
 import static asteroids.game.Constants.*;
 import java.awt.Shape;
 import java.awt.geom.*;
+import java.io.DataInput;
+import java.io.IOException;
 import asteroids.destroyers.AsteroidDestroyer;
 import asteroids.destroyers.ShipDestroyer;
-import asteroids.game.Controller;
+import asteroids.game.Game;
+import asteroids.game.Outline;
+import asteroids.game.OutlineCache;
 import asteroids.game.Participant;
 import asteroids.game.ParticipantCountdownTimer;
 
@@ -19,30 +23,61 @@ public class Bullet extends Participant implements AsteroidDestroyer
     /** The outline of the bullet */
     private Shape outline;
 
-    /** The controller of the game */
-    private Controller controller;
+    /** The game the bullet is part of */
+    private Game game;
 
     /** Bullet Diameter */
-    private static double BULLET_DIAM = 3.0;
+    private final static double BULLET_DIAM = 3.0;
 
     /**
      * Creates a bullet with the same coordinates as the nose of the ship and moves in the direction of the ship when
      * fired with a set velocity, size, and time duration
      */
-    public Bullet (double x, double y, double direction, Controller controller)
+    public Bullet (double x, double y, double direction, Game game)
     {
         // Create Bullet
-        this.controller = controller;
+        this.game = game;
         setPosition(x, y);
-        setVelocity(BULLET_SPEED, direction);
+        setVelocity(game.getSettings().getBulletSpeed(), direction);
 
-        // Create Outline
-        Ellipse2D.Double ellipse = new Ellipse2D.Double(-(BULLET_DIAM / 2.0), -(BULLET_DIAM / 2.0), BULLET_DIAM,
-                BULLET_DIAM);
-        this.outline = ellipse;
+        // Create Outline, which is shared by every Bullet
+        this.outline = createOutline();
         
         // Create countdown timer for when the bullet has reached its max duration
-        new ParticipantCountdownTimer(this, "bulletTimeOut", BULLET_DURATION);
+        new ParticipantCountdownTimer(this, "bulletTimeOut", game.getSettings().getBulletDuration());
+    }
+
+    /**
+     * Creates a bullet with no position, velocity, or countdown, as part of restoring a GameSnapshot.
+     */
+    private Bullet (Game game)
+    {
+        this.game = game;
+        this.outline = createOutline();
+    }
+
+    /**
+     * Creates a bullet from what writeState wrote, which is nothing, as part of restoring a GameSnapshot. Its
+     * position, velocity, rotation, and countdown are restored separately.
+     */
+    public static Bullet readState (DataInput in, Game game) throws IOException
+    {
+        return new Bullet(game);
+    }
+
+    /**
+     * Returns the outline of a bullet, which is shared by every Bullet and created the first time it is needed.
+     */
+    private static Shape createOutline ()
+    {
+        Outline cached = OutlineCache.get(Bullet.class, 0, 0, false);
+        if (cached == null)
+        {
+            Ellipse2D.Double ellipse = new Ellipse2D.Double(-(BULLET_DIAM / 2.0), -(BULLET_DIAM / 2.0), BULLET_DIAM,
+                    BULLET_DIAM);
+            cached = OutlineCache.put(Bullet.class, 0, 0, false, ellipse);
+        }
+        return cached.getShape();
     }
 
     /**
@@ -56,6 +91,15 @@ public class Bullet extends Participant implements AsteroidDestroyer
         return this.outline;
     }
 
+    /**
+     * A bullet reacts only to ShipDestroyers
+     */
+    @Override
+    protected boolean reactsTo (Class<? extends Participant> other)
+    {
+        return ShipDestroyer.class.isAssignableFrom(other);
+    }
+
     /**
      * Called when a bullet hits a ShipDestroyer
      */
@@ -67,8 +111,8 @@ public class Bullet extends Participant implements AsteroidDestroyer
             // Expire the Bullet
             Participant.expire(this);
 
-            // Inform the controller
-            controller.bulletDestroyed();
+            // Inform the game
+            game.bulletDestroyed();
         }
     }
 
@@ -85,8 +129,8 @@ public class Bullet extends Participant implements AsteroidDestroyer
             // Expire bullet
             Participant.expire(this);
             
-            //Inform the controller
-            controller.bulletDestroyed();
+            // Inform the game
+            game.bulletDestroyed();
         }
     }
 }
@@ -1,12 +1,17 @@
 package asteroids.participants;
 
-import static asteroids.game.Constants.RANDOM;
 import java.awt.Shape;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import asteroids.destroyers.OnscreenLabel;
+import asteroids.game.Outline;
+import asteroids.game.OutlineCache;
 import asteroids.game.Participant;
 import asteroids.game.ParticipantCountdownTimer;
+import asteroids.game.RandomStream;
 
 /**
  * Represents a Debris object
@@ -35,9 +40,9 @@ public class Debris extends Participant implements OnscreenLabel
     /**
      * Creates Debris in the shape of either a dot/circle or a line
      * 
-     * @param x, y, objectToCreate, controller
+     * @param x, y, objectToCreate, random
      */
-    public Debris (double x, double y, String objectToCreate)
+    public Debris (double x, double y, String objectToCreate, RandomStream random)
     {
         // Create this.outline
         this.outline = this.createOutline(objectToCreate);
@@ -46,11 +51,11 @@ public class Debris extends Participant implements OnscreenLabel
         setPosition(x, y);
         
         // Set random orientation
-        setRotation(RANDOM.nextDouble() * 2 * Math.PI);
+        setRotation(random.nextDouble() * 2 * Math.PI);
         
         // Set velocity with Random Speed [MIN_SPEED, MAX_SPEED] and random direction
-        double speed = (RANDOM.nextDouble() * (MAX_SPEED - MIN_SPEED)) + MIN_SPEED;
-        double direction = RANDOM.nextDouble() * Math.PI * 2.0;
+        double speed = (random.nextDouble() * (MAX_SPEED - MIN_SPEED)) + MIN_SPEED;
+        double direction = random.nextDouble() * Math.PI * 2.0;
         setVelocity(speed, direction);
         
         // Set Timer for debris to expire
@@ -58,7 +63,38 @@ public class Debris extends Participant implements OnscreenLabel
     }
     
     /**
-     * Create an outline for the Debris
+     * Creates Debris of the given shape with no position, velocity, or countdown, as part of restoring a GameSnapshot.
+     */
+    private Debris (String objectToCreate)
+    {
+        this.outline = this.createOutline(objectToCreate);
+    }
+
+    /**
+     * Creates Debris from what writeState wrote, as part of restoring a GameSnapshot. Its position, velocity,
+     * rotation, and countdown are restored separately. Throws an IOException if the shape is not a Debris shape.
+     */
+    public static Debris readState (DataInput in) throws IOException
+    {
+        String object = in.readUTF();
+        if (!object.equals("line") && !object.equals("circle"))
+        {
+            throw new IOException("Object: " + object + " is not a valid Debris shape");
+        }
+        return new Debris(object);
+    }
+
+    /**
+     * Writes whether the Debris is a line or a circle
+     */
+    @Override
+    protected void writeState (DataOutput out) throws IOException
+    {
+        out.writeUTF(this.outline instanceof Line2D ? "line" : "circle");
+    }
+
+    /**
+     * Create an outline for the Debris. Every piece of Debris of the same kind shares the same outline.
      * @param String dot||circle||line
      * @return Shape
      */
@@ -67,13 +103,25 @@ public class Debris extends Participant implements OnscreenLabel
         // Draw Dot Debris
         if (object.equalsIgnoreCase("dot") || object.equalsIgnoreCase("circle"))
         { 
-            return new Ellipse2D.Double(-CIRCLE_DIAM / 2.0, -CIRCLE_DIAM / 2.0, CIRCLE_DIAM, CIRCLE_DIAM);
+            Outline cached = OutlineCache.get(Debris.class, 0, 0, false);
+            if (cached == null)
+            {
+                cached = OutlineCache.put(Debris.class, 0, 0, false,
+                        new Ellipse2D.Double(-CIRCLE_DIAM / 2.0, -CIRCLE_DIAM / 2.0, CIRCLE_DIAM, CIRCLE_DIAM));
+            }
+            return cached.getShape();
         }
         
         // Draw Line Debris
         else if (object.equalsIgnoreCase("line"))
         {
-            return new Line2D.Double(-LINE_LENGTH / 2.0, 0, LINE_LENGTH / 2.0, 0);
+            Outline cached = OutlineCache.get(Debris.class, 1, 0, false);
+            if (cached == null)
+            {
+                cached = OutlineCache.put(Debris.class, 1, 0, false,
+                        new Line2D.Double(-LINE_LENGTH / 2.0, 0, LINE_LENGTH / 2.0, 0));
+            }
+            return cached.getShape();
         }
         
         // If niether Line nor Dot Debris
@@ -2,9 +2,13 @@ package asteroids.participants;
 
 import static asteroids.game.Constants.*;
 import asteroids.destroyers.OnscreenLabel;
+import asteroids.game.Outline;
+import asteroids.game.OutlineCache;
 import asteroids.game.Participant;
 import java.awt.*;
 import java.awt.geom.Path2D;
+import java.io.DataInput;
+import java.io.IOException;
 
 /**
  * represents Lives remaining
@@ -39,12 +43,27 @@ public class Lives extends Participant implements OnscreenLabel
     }
 
     /**
-     * Draws a miniature version of the Ship
+     * Creates a life object from what writeState wrote, which is nothing, as part of restoring a GameSnapshot. Its
+     * position and rotation are restored separately.
+     */
+    public static Lives readState (DataInput in) throws IOException
+    {
+        return new Lives(0);
+    }
+
+    /**
+     * Draws a miniature version of the Ship, which is shared by every life object
      * 
      * @return Shape
      */
     public Shape drawLifeOutline ()
     {
+        Outline cached = OutlineCache.get(Lives.class, 0, 0, false);
+        if (cached != null)
+        {
+            return cached.getShape();
+        }
+
         Path2D.Double poly = new Path2D.Double();
         poly.moveTo(11, 0);
         poly.lineTo(-11, 6);
@@ -52,7 +71,7 @@ public class Lives extends Participant implements OnscreenLabel
         poly.lineTo(-7, -5);
         poly.lineTo(-11, -6);
         poly.closePath();
-        return poly;
+        return OutlineCache.put(Lives.class, 0, 0, false, poly).getShape();
     }
 
     /**
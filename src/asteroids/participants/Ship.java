@@ -3,10 +3,15 @@ package asteroids.participants;
 import static asteroids.game.Constants.*;
 import java.awt.Shape;
 import java.awt.geom.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import asteroids.destroyers.*;
-import asteroids.game.Controller;
+import asteroids.game.Game;
+import asteroids.game.InputState;
+import asteroids.game.Outline;
+import asteroids.game.OutlineCache;
 import asteroids.game.Participant;
-import asteroids.game.ParticipantCountdownTimer;
 
 /**
  * Represents ships
@@ -16,38 +21,59 @@ public class Ship extends Participant implements AsteroidDestroyer
     /** The outline of the ship */
     private Shape outline;
 
-    /** The base Shape of the ship without thrust */
-    private Path2D.Double baseShape;
+    /** The outline of the ship without thrust, shared by every ship */
+    private Shape baseShape;
     
-    /** The Shape of the ships thrust */
-    private Path2D.Double thrustShape;
+    /** The outline of the ship with thrust, shared by every ship */
+    private Shape thrustShape;
 
-    /** Game controller */
-    private Controller controller;
-
-    /** Keeps track of which ship key controls are active { thrust, turnRight, turnLeft } */
-    public boolean[] keyControls = new boolean[] { false, false, false };
+    /** The game the ship is part of */
+    private Game game;
 
     /** Thrust boolean to have thrust shape flash on and off */
     private boolean drawThrust = false;
 
+    /**
+     * Number of MOVEMENT_DELAY steps of turning and thrust that make up one tick. Input is sampled once per tick, so
+     * the steps that used to be taken every MOVEMENT_DELAY milliseconds are taken together when it is applied.
+     */
+    private final static int STEPS_PER_TICK = Math.max(1, FRAME_INTERVAL / MOVEMENT_DELAY);
+
     /**
      * Constructs a ship at the specified coordinates that is pointed in the given direction.
      */
-    public Ship (int x, int y, double direction, Controller controller)
+    public Ship (int x, int y, double direction, Game game)
     {
         // starting stuff like assigning var and Particpant controls
-        this.controller = controller;
+        this.game = game;
         setPosition(x, y);
         setRotation(direction);
 
         // Create outline
-        createBaseOutline();
-        createThrustOutline();
-        createOutline();
+        this.baseShape = createOutline(false);
+        this.thrustShape = createOutline(true);
+        this.outline = this.baseShape;
+    }
 
-        // Create countdown timer for when its time to turn ship
-        new ParticipantCountdownTimer(this, "updateTurning", MOVEMENT_DELAY);
+    /**
+     * Creates a ship from what writeState wrote, as part of restoring a GameSnapshot. Its position, velocity, and
+     * rotation are restored separately.
+     */
+    public static Ship readState (DataInput in, Game game) throws IOException
+    {
+        Ship ship = new Ship(0, 0, 0, game);
+        ship.drawThrust = in.readBoolean();
+        ship.outline = ship.drawThrust ? ship.thrustShape : ship.baseShape;
+        return ship;
+    }
+
+    /**
+     * Writes whether the ship is showing its thrust
+     */
+    @Override
+    protected void writeState (DataOutput out) throws IOException
+    {
+        out.writeBoolean(drawThrust);
     }
 
     /**
@@ -74,48 +100,37 @@ public class Ship extends Participant implements AsteroidDestroyer
         return point.getY();
     }
     
-    /** 
-     * Creates base outline of the ship
-     */
-    private void createBaseOutline ()
-    {
-        this.baseShape = new Path2D.Double();
-        baseShape.moveTo(21, 0);
-        baseShape.lineTo(-21, 12);
-        baseShape.lineTo(-14, 10);
-        baseShape.lineTo(-14, -10);
-        baseShape.lineTo(-21, -12);
-        baseShape.closePath();
-    }
-    
     /**
-     * Creates the outline of the thrust
+     * Returns the outline of the Ship, with or without thrust. The two outlines are shared by every ship and are
+     * created the first time they are needed.
      */
-    private void createThrustOutline ()
+    private static Shape createOutline (boolean thrust)
     {
-        this.thrustShape = new Path2D.Double();
-        thrustShape.moveTo(-14, 5);
-        thrustShape.lineTo(-30, 0);
-        thrustShape.lineTo(-14, -5);
-        thrustShape.closePath();
-    }
+        Outline cached = OutlineCache.get(Ship.class, 0, 0, thrust);
+        if (cached != null)
+        {
+            return cached.getShape();
+        }
+
+        // Base outline of the ship
+        Path2D.Double poly = new Path2D.Double();
+        poly.moveTo(21, 0);
+        poly.lineTo(-21, 12);
+        poly.lineTo(-14, 10);
+        poly.lineTo(-14, -10);
+        poly.lineTo(-21, -12);
+        poly.closePath();
 
-    /**
-     * Creates outline of the Ship
-     */
-    private void createOutline ()
-    {
-        // Temperary holder for baseOutline so it is never changed
-        Path2D.Double baseShapeHold = new Path2D.Double();
-        baseShapeHold.append(this.baseShape, false);
-        
         // If thrust is being applied - append thrust image
-        if (this.drawThrust)
+        if (thrust)
         {
-            baseShapeHold.append(this.thrustShape, false);
+            poly.moveTo(-14, 5);
+            poly.lineTo(-30, 0);
+            poly.lineTo(-14, -5);
+            poly.closePath();
         }
 
-        this.outline = baseShapeHold;
+        return OutlineCache.put(Ship.class, 0, 0, thrust, poly).getShape();
     }
 
     /**
@@ -124,7 +139,7 @@ public class Ship extends Participant implements AsteroidDestroyer
     public void turnDrawThrustOff ()
     {
         this.drawThrust = false;
-        this.createOutline();
+        this.outline = this.baseShape;
     }
 
     /**
@@ -137,13 +152,12 @@ public class Ship extends Participant implements AsteroidDestroyer
     }
 
     /**
-     * Customizes the base move method by imposing friction
+     * Imposes friction before the Ship moves
      */
     @Override
-    public void move ()
+    protected void applyForces ()
     {
-        applyFriction(SHIP_FRICTION);
-        super.move();
+        applyFriction(game.getSettings().getShipFriction());
     }
 
     /**
@@ -163,11 +177,20 @@ public class Ship extends Participant implements AsteroidDestroyer
     }
 
     /**
-     * Accelerates by SHIP_ACCELERATION
+     * Accelerates by the game's ship acceleration
      */
     public void accelerate ()
     {
-        accelerate(SHIP_ACCELERATION);
+        accelerate(game.getSettings().getShipAcceleration());
+    }
+
+    /**
+     * A Ship reacts only to ShipDestroyers
+     */
+    @Override
+    protected boolean reactsTo (Class<? extends Participant> other)
+    {
+        return ShipDestroyer.class.isAssignableFrom(other);
     }
 
     /**
@@ -179,42 +202,47 @@ public class Ship extends Participant implements AsteroidDestroyer
         if (p instanceof ShipDestroyer)
         {
             // Create Debris
-            this.controller.createShipDebris(this.getX(), this.getY());
+            this.game.createShipDebris(this.getX(), this.getY());
 
             // Expire the ship from the game
             Participant.expire(this);
 
-            // Tell the controller the ship was destroyed
-            controller.shipDestroyed();
+            // Tell the game the ship was destroyed
+            game.shipDestroyed();
         }
     }
 
     /**
-     * This method is invoked when a ParticipantCountdownTimer completes its countdown.
+     * Turns and accelerates according to the player's input for this tick. The thrust flickers once per tick, while
+     * the movement is done in steps.
      */
-    @Override
-    public void countdownComplete (Object payload)
+    public void applyInput (InputState input)
     {
-        // When movementTimer delay is reached, ship movements are activated
-        if (payload.equals("updateTurning") && controller.getShip() != null)
+        boolean thrust = input.isDown(InputState.THRUST);
+        if (thrust)
+        {
+            this.drawThrust = this.drawThrust ? false : true;
+            this.outline = this.drawThrust ? this.thrustShape : this.baseShape;
+        }
+        else if (this.drawThrust)
         {
-            if (this.keyControls[0])
+            turnDrawThrustOff();
+        }
+
+        for (int step = 0; step < STEPS_PER_TICK; step++)
+        {
+            if (thrust)
             {
-                this.drawThrust = this.drawThrust ? false : true;
-                this.createOutline();
                 this.accelerate();
             }
-            if (this.keyControls[1])
+            if (input.isDown(InputState.TURN_RIGHT))
             {
                 this.turnRight();
             }
-            else if (this.keyControls[2])
+            else if (input.isDown(InputState.TURN_LEFT))
             {
                 this.turnLeft();
             }
-
-            // Create countdown timer for when its time to turn ship
-            new ParticipantCountdownTimer(this, "updateTurning", MOVEMENT_DELAY);
         }
     }
 }